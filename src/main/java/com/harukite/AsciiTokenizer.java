@@ -0,0 +1,59 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 默认分词器，只把连续的 ASCII 字母 {@code [a-zA-Z]} 视为单词。
+ *
+ * <p>其切分结果与原先的 {@code split("[^a-zA-Z]+")} 一致（去掉了正则切分产生的空串），
+ * 但采用逐字符扫描实现，避免了正则匹配的开销。.
+ */
+public final class AsciiTokenizer implements Tokenizer {
+
+  @Override
+  public List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    scan(text, words, null);
+    return words;
+  }
+
+  @Override
+  public List<Span> spans(String text) {
+    List<Span> spans = new ArrayList<>();
+    scan(text, null, spans);
+    return spans;
+  }
+
+  /**
+   * 逐字符扫描文本，把单词或其区间追加到非空的那个列表。
+   */
+  private static void scan(String text, List<String> words, List<Span> spans) {
+    int length = text.length();
+    int start = -1;
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+      if (letter) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        emit(text, start, i, words, spans);
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      emit(text, start, length, words, spans);
+    }
+  }
+
+  private static void emit(String text, int start, int end, List<String> words,
+                           List<Span> spans) {
+    if (words != null) {
+      words.add(text.substring(start, end));
+    } else {
+      spans.add(new Span(start, end));
+    }
+  }
+}
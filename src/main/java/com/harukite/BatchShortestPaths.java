@@ -0,0 +1,125 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量最短路径查询：一次处理成千上万个（起始单词, 目标单词）对。
+ *
+ * <p>查询先按起始单词分组，每个不同的起点只运行一次单源 Dijkstra，
+ * 并在该起点的全部目标都确定后提前结束；不同起点在公共 ForkJoin 线程池中并行执行。
+ * 因此总代价约为“不同起点数 × 一次 Dijkstra”，而与查询对的数量基本无关。
+ * 结果以 {@link PathResult} 的形式按起点分组依次交给 {@link PathResultSink}，
+ * 同一起点的结果保持输入顺序，不同起点之间的先后顺序不确定。
+ *
+ * <p>提供 {@link ReachabilityIndex} 时，不可达的目标不参与搜索，直接报告没有路径；
+ * 某个起点的目标全部不可达时不运行 Dijkstra。.
+ */
+public final class BatchShortestPaths {
+
+  private final GraphStore graph;
+  private final ReachabilityIndex reachability;
+
+  /**
+   * 创建批量查询器。
+   *
+   * @param graph 词图存储
+   */
+  public BatchShortestPaths(GraphStore graph) {
+    this(graph, null);
+  }
+
+  /**
+   * 创建使用可达性索引过滤不可达目标的批量查询器。
+   *
+   * @param graph        词图存储
+   * @param reachability 可达性索引；为 {@code null} 时不过滤
+   */
+  public BatchShortestPaths(GraphStore graph, ReachabilityIndex reachability) {
+    this.graph = graph;
+    this.reachability = reachability;
+  }
+
+  /**
+   * 一个查询对。
+   *
+   * @param source 起始单词
+   * @param target 目标单词
+   */
+  public record WordPair(String source, String target) {
+  }
+
+  /**
+   * 执行批量查询并把结果流式交给 {@code sink}。
+   *
+   * @param pairs    查询对
+   * @param maxPaths 每个查询对最多枚举的路径条数；为 0 时只统计路径条数
+   * @param sink     结果接收者，对它的调用是串行的
+   */
+  public void run(List<WordPair> pairs, int maxPaths, PathResultSink sink) {
+    Map<Integer, List<WordPair>> groups = new LinkedHashMap<>();
+    for (WordPair pair : pairs) {
+      int source = graph.id(pair.source());
+      if (source < 0) {
+        deliver(sink, List.of(
+            PathResult.missing(pair.source(), pair.target(), PathResult.Status.UNKNOWN_SOURCE)));
+      } else {
+        groups.computeIfAbsent(source, key -> new ArrayList<>()).add(pair);
+      }
+    }
+    groups.entrySet().parallelStream()
+        .forEach(group -> deliver(sink, solve(group.getKey(), group.getValue(), maxPaths)));
+  }
+
+  private List<PathResult> solve(int source, List<WordPair> pairs, int maxPaths) {
+    int[] ids = new int[pairs.size()]; // 目标 id；不在图中为 -1，确定不可达为 -2
+    int[] targets = new int[pairs.size()];
+    int targetCount = 0;
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = graph.id(pairs.get(i).target());
+      if (ids[i] >= 0 && reachability != null && !reachability.canReach(source, ids[i])) {
+        ids[i] = -2;
+      } else if (ids[i] >= 0) {
+        targets[targetCount++] = ids[i];
+      }
+    }
+    ShortestPaths shortest = targetCount == 0 ? null
+        : ShortestPaths.from(graph, source, Arrays.copyOf(targets, targetCount));
+    List<PathResult> results = new ArrayList<>(pairs.size());
+    for (int i = 0; i < ids.length; i++) {
+      WordPair pair = pairs.get(i);
+      int target = ids[i];
+      if (target == -1) {
+        results.add(
+            PathResult.missing(pair.source(), pair.target(), PathResult.Status.UNKNOWN_TARGET));
+      } else if (target == -2 || shortest.distance(target) == ShortestPaths.UNREACHABLE) {
+        results.add(PathResult.missing(pair.source(), pair.target(), PathResult.Status.NO_PATH));
+      } else {
+        List<List<String>> paths = new ArrayList<>();
+        if (maxPaths > 0) {
+          for (int[] path : shortest.paths(target, maxPaths)) {
+            List<String> words = new ArrayList<>(path.length);
+            for (int v : path) {
+              words.add(graph.word(v));
+            }
+            paths.add(words);
+          }
+        }
+        results.add(new PathResult(pair.source(), pair.target(), PathResult.Status.FOUND,
+            shortest.distance(target), shortest.pathCount(target), paths));
+      }
+    }
+    return results;
+  }
+
+  private static void deliver(PathResultSink sink, List<PathResult> results) {
+    synchronized (sink) {
+      for (PathResult result : results) {
+        sink.accept(result);
+      }
+    }
+  }
+}
@@ -0,0 +1,254 @@
+package com.harukite;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 离线导出全部单词对之间的桥接词，即邻接矩阵的稀疏两跳乘积 A²。
+ *
+ * <p>对每个起始单词 u，遍历其出边 u → b（权重 w1）以及 b 的出边 b → v（权重 w2），
+ * 得到单词对 (u, v) 的一个桥接词 b 及路径权重乘积 w1 × w2，语义与
+ * {@link GraphProcessor#bridgeWords(String, String)} 一致。
+ * 每行的代价只与两跳邻域的大小有关，而不是逐对调用 {@code bridgeWords} 的 V² 次查询。
+ *
+ * <p>行按固定大小的块划分到线程池中并行计算，每个线程复用一个长度为 V 的稀疏累加器；
+ * 同时在途的块数有上限，编码好的块按行号顺序写出，因此内存占用与图规模线性相关，
+ * 而与输出大小无关。
+ *
+ * <p>文件格式（整数均为 {@link Varint} 编码）：魔数 {@code BRG1}、顶点数 V、
+ * V 个单词（UTF-8 字节长度 + 字节）；随后按顶点 id 顺序为每个起始单词写一行：
+ * 单词对个数，每个单词对依次为目标 id 与上一个目标 id 的差、桥接词个数，
+ * 以及每个桥接词与上一个桥接词 id 的差和权重乘积。目标和桥接词都按 id 升序排列。
+ * 文件可以用 {@link BridgeMatrixReader} 流式读回。.
+ */
+public final class BridgeMatrixExporter {
+
+  static final byte[] MAGIC = {'B', 'R', 'G', '1'};
+  private static final int BLOCK_ROWS = 256;
+
+  private final GraphStore graph;
+  private final int threads;
+
+  /**
+   * 创建使用全部处理器核心的导出器。
+   *
+   * @param graph 词图存储
+   */
+  public BridgeMatrixExporter(GraphStore graph) {
+    this(graph, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * 创建导出器。
+   *
+   * @param graph   词图存储
+   * @param threads 计算线程数
+   */
+  public BridgeMatrixExporter(GraphStore graph, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("线程数必须为正数: " + threads);
+    }
+    this.graph = graph;
+    this.threads = threads;
+  }
+
+  /**
+   * 把桥接矩阵写入文件。
+   *
+   * @param file 输出文件
+   * @return 写出的单词对个数
+   * @throws IOException 写入失败或导出被中断时抛出
+   */
+  public long export(Path file) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+      return export(out);
+    }
+  }
+
+  /**
+   * 把桥接矩阵写入输出流，写完后不关闭流。
+   *
+   * @param out 输出流
+   * @return 写出的单词对个数
+   * @throws IOException 写入失败或导出被中断时抛出
+   */
+  public long export(OutputStream out) throws IOException {
+    writeHeader(out);
+    int vertexCount = graph.vertexCount();
+    BlockingQueue<Accumulator> accumulators = new ArrayBlockingQueue<>(threads);
+    for (int i = 0; i < threads; i++) {
+      accumulators.add(new Accumulator(vertexCount));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    Deque<Future<Block>> inFlight = new ArrayDeque<>();
+    long pairs = 0;
+    try {
+      for (int start = 0; start < vertexCount; start += BLOCK_ROWS) {
+        int from = start;
+        int to = Math.min(vertexCount, start + BLOCK_ROWS);
+        inFlight.add(executor.submit(() -> {
+          Accumulator accumulator = accumulators.take();
+          try {
+            return accumulator.block(graph, from, to);
+          } finally {
+            accumulators.add(accumulator);
+          }
+        }));
+        if (inFlight.size() >= 2 * threads) {
+          pairs += write(out, inFlight.poll());
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        pairs += write(out, inFlight.poll());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    out.flush();
+    return pairs;
+  }
+
+  private void writeHeader(OutputStream out) throws IOException {
+    out.write(MAGIC);
+    byte[] buffer = new byte[Varint.MAX_BYTES];
+    out.write(buffer, 0, Varint.write(buffer, 0, graph.vertexCount()));
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      byte[] word = graph.word(v).getBytes(StandardCharsets.UTF_8);
+      out.write(buffer, 0, Varint.write(buffer, 0, word.length));
+      out.write(word);
+    }
+  }
+
+  private static long write(OutputStream out, Future<Block> future) throws IOException {
+    Block block;
+    try {
+      block = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("桥接矩阵导出被中断");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IOException("桥接矩阵计算失败", e.getCause());
+    }
+    out.write(block.bytes(), 0, block.length());
+    return block.pairs();
+  }
+
+  /** 一块连续行的编码结果。 */
+  private record Block(byte[] bytes, int length, long pairs) {
+  }
+
+  /**
+   * 单个线程的稀疏累加器：以时间戳标记本行出现过的目标，
+   * 每个目标的桥接词用数组链表按追加顺序（即桥接词 id 升序）保存。
+   */
+  private static final class Accumulator {
+    private final int[] stamp;
+    private final int[] head;
+    private final int[] tail;
+    private final int[] bridgeCount;
+    private int[] touched = new int[16];
+    private int[] nodeBridge = new int[64];
+    private long[] nodeWeight = new long[64];
+    private int[] nodeNext = new int[64];
+    private byte[] out = new byte[1024];
+    private int length;
+
+    Accumulator(int vertexCount) {
+      stamp = new int[vertexCount];
+      head = new int[vertexCount];
+      tail = new int[vertexCount];
+      bridgeCount = new int[vertexCount];
+      Arrays.fill(stamp, -1);
+    }
+
+    Block block(GraphStore graph, int from, int to) {
+      GraphStore.EdgeCursor first = graph.cursor();
+      GraphStore.EdgeCursor second = graph.cursor();
+      length = 0;
+      long pairs = 0;
+      for (int u = from; u < to; u++) {
+        pairs += row(u, first, second);
+      }
+      return new Block(Arrays.copyOf(out, length), length, pairs);
+    }
+
+    private int row(int u, GraphStore.EdgeCursor first, GraphStore.EdgeCursor second) {
+      int touchedSize = 0;
+      int nodes = 0;
+      first.reset(u);
+      while (first.next()) {
+        int bridge = first.target();
+        long w1 = first.weight();
+        second.reset(bridge);
+        while (second.next()) {
+          int v = second.target();
+          if (stamp[v] != u) {
+            stamp[v] = u;
+            head[v] = -1;
+            bridgeCount[v] = 0;
+            if (touchedSize == touched.length) {
+              touched = Arrays.copyOf(touched, touchedSize * 2);
+            }
+            touched[touchedSize++] = v;
+          }
+          if (nodes == nodeBridge.length) {
+            nodeBridge = Arrays.copyOf(nodeBridge, nodes * 2);
+            nodeWeight = Arrays.copyOf(nodeWeight, nodes * 2);
+            nodeNext = Arrays.copyOf(nodeNext, nodes * 2);
+          }
+          nodeBridge[nodes] = bridge;
+          nodeWeight[nodes] = w1 * second.weight();
+          nodeNext[nodes] = -1;
+          if (head[v] < 0) {
+            head[v] = nodes;
+          } else {
+            nodeNext[tail[v]] = nodes;
+          }
+          tail[v] = nodes;
+          bridgeCount[v]++;
+          nodes++;
+        }
+      }
+      Arrays.sort(touched, 0, touchedSize);
+      put(touchedSize);
+      int previousTarget = 0;
+      for (int i = 0; i < touchedSize; i++) {
+        int v = touched[i];
+        put(v - previousTarget);
+        previousTarget = v;
+        put(bridgeCount[v]);
+        int previousBridge = 0;
+        for (int node = head[v]; node >= 0; node = nodeNext[node]) {
+          put(nodeBridge[node] - previousBridge);
+          previousBridge = nodeBridge[node];
+          put(nodeWeight[node]);
+        }
+      }
+      return touchedSize;
+    }
+
+    private void put(long value) {
+      if (length + Varint.MAX_BYTES > out.length) {
+        out = Arrays.copyOf(out, out.length * 2);
+      }
+      length = Varint.write(out, length, value);
+    }
+  }
+}
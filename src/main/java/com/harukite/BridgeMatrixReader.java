@@ -0,0 +1,193 @@
+package com.harukite;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 流式读取 {@link BridgeMatrixExporter} 导出的桥接矩阵文件。
+ *
+ * <p>读取器一次只保存当前单词对的桥接词，用法类似游标：
+ * 每次 {@link #next()} 返回 {@code true} 后，通过 {@link #source()}、{@link #target()}、
+ * {@link #bridge(int)} 和 {@link #weight(int)} 访问当前单词对。
+ * 单词对按起始单词 id、目标单词 id 升序给出。.
+ */
+public final class BridgeMatrixReader implements Closeable {
+
+  private final InputStream in;
+  private final String[] words;
+  private int row = -1;
+  private long remainingInRow;
+  private int target;
+  private int bridgeCount;
+  private int[] bridges = new int[16];
+  private long[] weights = new long[16];
+
+  /**
+   * 打开桥接矩阵文件。
+   *
+   * @param file 文件路径
+   * @return 读取器
+   * @throws IOException 文件无法读取或格式错误时抛出
+   */
+  public static BridgeMatrixReader open(Path file) throws IOException {
+    return new BridgeMatrixReader(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+  }
+
+  /**
+   * 从输入流创建读取器，并读取文件头和词表。
+   *
+   * @param in 输入流，关闭读取器时一并关闭
+   * @throws IOException 读取失败或格式错误时抛出
+   */
+  public BridgeMatrixReader(InputStream in) throws IOException {
+    this.in = in;
+    byte[] magic = in.readNBytes(BridgeMatrixExporter.MAGIC.length);
+    if (!Arrays.equals(magic, BridgeMatrixExporter.MAGIC)) {
+      throw new IOException("不是桥接矩阵文件");
+    }
+    words = new String[readInt()];
+    for (int v = 0; v < words.length; v++) {
+      int length = readInt();
+      byte[] bytes = in.readNBytes(length);
+      if (bytes.length != length) {
+        throw new EOFException("词表不完整");
+      }
+      words[v] = new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * 返回词表大小。
+   *
+   * @return 顶点数
+   */
+  public int vertexCount() {
+    return words.length;
+  }
+
+  /**
+   * 返回顶点 id 对应的单词。
+   *
+   * @param v 顶点 id
+   * @return 单词
+   */
+  public String word(int v) {
+    return words[v];
+  }
+
+  /**
+   * 前进到下一个单词对。
+   *
+   * @return 若还有单词对则返回 {@code true}；读完全部行后返回 {@code false}
+   * @throws IOException 读取失败或格式错误时抛出
+   */
+  public boolean next() throws IOException {
+    while (remainingInRow == 0) {
+      if (row + 1 >= words.length) {
+        return false;
+      }
+      row++;
+      remainingInRow = Varint.read(in);
+      target = 0;
+    }
+    remainingInRow--;
+    target += readInt();
+    bridgeCount = readInt();
+    if (bridgeCount > bridges.length) {
+      bridges = new int[Math.max(bridgeCount, bridges.length * 2)];
+      weights = new long[bridges.length];
+    }
+    int bridge = 0;
+    for (int i = 0; i < bridgeCount; i++) {
+      bridge += readInt();
+      bridges[i] = bridge;
+      weights[i] = Varint.read(in);
+    }
+    return true;
+  }
+
+  /**
+   * 返回当前单词对的起始单词 id。
+   *
+   * @return 顶点 id
+   */
+  public int sourceId() {
+    return row;
+  }
+
+  /**
+   * 返回当前单词对的目标单词 id。
+   *
+   * @return 顶点 id
+   */
+  public int targetId() {
+    return target;
+  }
+
+  /**
+   * 返回当前单词对的起始单词。
+   *
+   * @return 单词
+   */
+  public String source() {
+    return words[row];
+  }
+
+  /**
+   * 返回当前单词对的目标单词。
+   *
+   * @return 单词
+   */
+  public String target() {
+    return words[target];
+  }
+
+  /**
+   * 返回当前单词对的桥接词个数。
+   *
+   * @return 桥接词个数，至少为 1
+   */
+  public int bridgeCount() {
+    return bridgeCount;
+  }
+
+  /**
+   * 返回当前单词对的第 {@code i} 个桥接词（按 id 升序）。
+   *
+   * @param i 序号
+   * @return 桥接词
+   */
+  public String bridge(int i) {
+    return words[bridges[i]];
+  }
+
+  /**
+   * 返回经第 {@code i} 个桥接词的路径权重乘积。
+   *
+   * @param i 序号
+   * @return 两条边权重的乘积
+   */
+  public long weight(int i) {
+    return weights[i];
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private int readInt() throws IOException {
+    long value = Varint.read(in);
+    if (value > Integer.MAX_VALUE) {
+      throw new IOException("数值超出范围: " + value);
+    }
+    return (int) value;
+  }
+}
@@ -0,0 +1,166 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 以整数 id 表示的紧凑词图（CSR 压缩稀疏行格式）。
+ *
+ * <p>顶点即 {@link Vocabulary} 中的单词 id。顶点 {@code v} 的出边位于
+ * {@code [offsets[v], offsets[v + 1])} 区间，出边按目标 id 升序排列，
+ * 目标与权重分别保存在两个 int 数组中，因此每条边只占 8 字节，且没有任何装箱对象。
+ * 单词字符串只在调用 {@link #word(int)} 时生成。词表与构建它的 {@link WordGraph} 共享，
+ * 词图之后加入的单词不会改变快照中已有单词的 id。
+ *
+ * <p>该类创建后不可变，可以被多个线程同时读取，但不能与修改其 {@link WordGraph} 的操作同时进行。.
+ */
+public final class CompactGraph implements GraphStore {
+
+  private final Vocabulary vocabulary;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+  private final int[] counts;
+  private final int wordNum;
+
+  private CompactGraph(Vocabulary vocabulary, int[] offsets, int[] targets, int[] weights,
+      int[] counts, int wordNum) {
+    this.vocabulary = vocabulary;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.counts = counts;
+    this.wordNum = wordNum;
+  }
+
+  /**
+   * 由字符串形式的邻接表构建紧凑词图，主要供测试和小规模的图使用。
+   *
+   * <p>顶点 id 按 {@code graph} 键的迭代顺序分配。指向不在 {@code graph} 键集合中的单词的边会被忽略。.
+   *
+   * @param graph     邻接表，键为起点单词，值为 终点单词 → 权重
+   * @param wordCount 单词出现次数，缺失的单词计为 0
+   * @param wordNum   总词数
+   * @return 紧凑词图
+   */
+  public static CompactGraph of(Map<String, Map<String, Integer>> graph,
+      Map<String, Integer> wordCount, int wordNum) {
+    return of(WordGraph.of(graph, wordCount, wordNum));
+  }
+
+  /**
+   * 为词图的当前内容构建紧凑快照，顶点 id 与词图相同，词表与词图共享。
+   *
+   * <p>之后加入词图的单词不属于该快照，{@link #id(String)} 对它们返回 -1。.
+   *
+   * @param graph 词图
+   * @return 紧凑词图
+   */
+  public static CompactGraph of(WordGraph graph) {
+    int n = graph.vertexCount();
+    int[] offsets = new int[n + 1];
+    int[] counts = new int[n];
+    int[] targets = new int[Math.toIntExact(graph.edgeCount())];
+    int[] weights = new int[targets.length];
+    GraphLoader.load(graph, (v, count, edges, degree) -> {
+      int e = offsets[v];
+      for (int i = 0; i < degree; i++, e++) {
+        targets[e] = (int) (edges[i] >>> 32);
+        weights[e] = (int) edges[i];
+      }
+      offsets[v + 1] = e;
+      counts[v] = count;
+    });
+    return new CompactGraph(graph.vocabulary(), offsets, targets, weights, counts,
+        graph.wordNum());
+  }
+
+  @Override
+  public int vertexCount() {
+    return counts.length;
+  }
+
+  @Override
+  public long edgeCount() {
+    return targets.length;
+  }
+
+  @Override
+  public int id(String word) {
+    int v = vocabulary.id(word);
+    return v < counts.length ? v : -1;
+  }
+
+  @Override
+  public String word(int v) {
+    return vocabulary.word(v);
+  }
+
+  @Override
+  public int outDegree(int v) {
+    return offsets[v + 1] - offsets[v];
+  }
+
+  @Override
+  public int neighbor(int v, int index) {
+    return targets[offsets[v] + index];
+  }
+
+  @Override
+  public int edgeWeight(int u, int v) {
+    int e = Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v);
+    return e >= 0 ? weights[e] : 0;
+  }
+
+  @Override
+  public int count(int v) {
+    return counts[v];
+  }
+
+  @Override
+  public int wordNum() {
+    return wordNum;
+  }
+
+  @Override
+  public EdgeCursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * 估算该图占用的堆内存字节数（仅计算数组本身）。
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return vocabulary.memoryBytes()
+        + 4L * (offsets.length + targets.length + weights.length + counts.length);
+  }
+
+  private final class Cursor implements EdgeCursor {
+
+    private int edge;
+    private int end;
+
+    @Override
+    public void reset(int v) {
+      edge = offsets[v] - 1;
+      end = offsets[v + 1];
+    }
+
+    @Override
+    public boolean next() {
+      return ++edge < end;
+    }
+
+    @Override
+    public int target() {
+      return targets[edge];
+    }
+
+    @Override
+    public int weight() {
+      return weights[edge];
+    }
+  }
+}
@@ -0,0 +1,482 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * 以差分 + 变长整数编码压缩邻接表的词图，适用于边数达到上亿的大规模语料。
+ *
+ * <p>所有顶点的出边连续编码在同一个字节数组中，顶点 {@code v} 的数据从 {@code offsets[v]} 开始，
+ * 按目标 id 升序为每条边写一个 {@link Varint}：
+ * {@code (gap << 1) | flag}，其中 gap 为与上一个目标 id 的差减 1（第一条边为目标 id 本身），
+ * flag 为 1 表示权重不是 1，其后再跟一个权重的变长整数。出度单独保存在 {@code degrees} 数组中。
+ * 词图中绝大多数边的权重为 1，且顶点 id 按入边权重排序后常见后继的 id 都较小，
+ * 因此每条边通常只占 2 到 3 字节，而 {@link CompactGraph} 固定为 8 字节；
+ * 1 亿条边的邻接数据约 300 MB。
+ *
+ * <p>出度超过 {@value #SKIP} 的顶点每隔 {@value #SKIP} 条边记录一个跳转点（字节位置和前一条边的目标），
+ * 平均每条边多占不到 0.25 字节。{@link #neighbor(int, int)} 直接从所在区段开始解码，
+ * {@link #edgeWeight(int, int)} 先在跳转点上二分查找，两者最多解码 {@value #SKIP} 条边，
+ * 使用每个线程各自复用的游标，不产生对象。
+ * {@code CompressedGraphBenchmark} 在随机词图上测得 Dijkstra 的用时与 {@link CompactGraph} 相当
+ * （访问更集中），PageRank 慢约 1.5 倍。
+ *
+ * <p>该类创建后不可变，可以被多个线程同时读取。.
+ */
+public final class CompressedGraph implements GraphStore {
+
+  /** 跳转点之间的边数。 */
+  static final int SKIP = 32;
+
+  private final Vocabulary vocabulary;
+  private final int[] words; // words[v] 为顶点 v 在词表中的 id
+  private final int[] vertices; // vertices[id] 为词表中第 id 个单词的顶点
+  private final int[] offsets;
+  private final int[] degrees;
+  private final int[] skipFirst; // 顶点 v 的跳转点位于 [skipFirst[v], skipFirst[v + 1])
+  private final int[] skipPos; // 第 k 个跳转点为第 (k + 1) * SKIP 条边的字节位置
+  private final int[] skipTarget; // 以及该边之前一条边的目标
+  private final byte[] data;
+  private final int[] counts;
+  private final long edgeCount;
+  private final int wordNum;
+  private final ThreadLocal<Cursor> lookup = ThreadLocal.withInitial(Cursor::new);
+
+  private CompressedGraph(Builder builder, int n, int wordNum) {
+    this.vocabulary = builder.vocabulary;
+    this.words = builder.words != null ? builder.words : identity(n);
+    this.vertices = new int[n];
+    for (int v = 0; v < n; v++) {
+      vertices[words[v]] = v;
+    }
+    this.offsets = Arrays.copyOf(builder.offsets, n);
+    this.degrees = Arrays.copyOf(builder.degrees, n);
+    this.skipFirst = Arrays.copyOf(builder.skipFirst, n + 1);
+    this.skipPos = Arrays.copyOf(builder.skipPos, builder.skips);
+    this.skipTarget = Arrays.copyOf(builder.skipTarget, builder.skips);
+    this.data = Arrays.copyOf(builder.bytes, builder.size);
+    this.counts = Arrays.copyOf(builder.counts, n);
+    this.edgeCount = builder.edges;
+    this.wordNum = wordNum;
+  }
+
+  private static int[] identity(int n) {
+    int[] result = new int[n];
+    for (int v = 0; v < n; v++) {
+      result[v] = v;
+    }
+    return result;
+  }
+
+  /**
+   * 由字符串形式的邻接表构建压缩词图，主要供测试和小规模的图使用。
+   *
+   * <p>指向不在 {@code graph} 键集合中的单词的边会被忽略。.
+   *
+   * @param graph     邻接表，键为起点单词，值为 终点单词 → 权重
+   * @param wordCount 单词出现次数，缺失的单词计为 0
+   * @param wordNum   总词数
+   * @return 压缩词图
+   * @throws IllegalStateException 编码后的数据超过 2 GB 时抛出
+   */
+  public static CompressedGraph of(Map<String, Map<String, Integer>> graph,
+      Map<String, Integer> wordCount, int wordNum) {
+    return of(WordGraph.of(graph, wordCount, wordNum));
+  }
+
+  /**
+   * 为词图的当前内容构建压缩快照，词表与词图共享。
+   *
+   * <p>与 {@link CompactGraph} 不同，顶点 id 按入边权重之和降序分配，
+   * 使常见的后继单词获得较小的 id，从而缩短差分编码，因此顶点 id 与词图中的 id 不同。.
+   *
+   * @param graph 词图
+   * @return 压缩词图
+   * @throws IllegalStateException 编码后的数据超过 2 GB 时抛出
+   */
+  public static CompressedGraph of(WordGraph graph) {
+    int[] order = GraphLoader.byInWeight(graph);
+    Builder builder = new Builder(graph.vocabulary(), order, graph.edgeCount() * 2);
+    GraphLoader.load(graph, order, (v, count, edges, degree) -> {
+      builder.putVertex(v, edges, degree);
+      builder.count(v, count);
+    });
+    return new CompressedGraph(builder.finish(order.length), order.length, graph.wordNum());
+  }
+
+  @Override
+  public int vertexCount() {
+    return counts.length;
+  }
+
+  @Override
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int id(String word) {
+    int id = vocabulary.id(word);
+    return id >= 0 && id < vertices.length ? vertices[id] : -1;
+  }
+
+  @Override
+  public String word(int v) {
+    return vocabulary.word(words[v]);
+  }
+
+  @Override
+  public int outDegree(int v) {
+    return degrees[v];
+  }
+
+  @Override
+  public int neighbor(int v, int index) {
+    Cursor cursor = lookup.get();
+    cursor.seek(v, index);
+    cursor.next();
+    return cursor.target();
+  }
+
+  @Override
+  public int randomNeighbor(int v, RandomGenerator random) {
+    int degree = degrees[v];
+    return degree == 0 ? -1 : neighbor(v, random.nextInt(degree));
+  }
+
+  @Override
+  public int edgeWeight(int u, int v) {
+    // 最后一个“前一条边的目标”小于 v 的跳转点之后才可能出现 v
+    int low = skipFirst[u];
+    int high = skipFirst[u + 1] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (skipTarget[mid] < v) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    Cursor cursor = lookup.get();
+    cursor.seek(u, (low - skipFirst[u]) * SKIP);
+    while (cursor.next()) {
+      if (cursor.target() >= v) {
+        return cursor.target() == v ? cursor.weight() : 0;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public int count(int v) {
+    return counts[v];
+  }
+
+  @Override
+  public int wordNum() {
+    return wordNum;
+  }
+
+  @Override
+  public EdgeCursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * 估算该图占用的堆内存字节数（仅计算数组本身）。
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return vocabulary.memoryBytes() + data.length
+        + 4L * (words.length + vertices.length + offsets.length + degrees.length + counts.length
+        + skipFirst.length + skipPos.length + skipTarget.length);
+  }
+
+  /**
+   * 返回编码后的邻接数据字节数（不含词表和偏移数组）。
+   *
+   * @return 字节数
+   */
+  public long encodedBytes() {
+    return data.length;
+  }
+
+  /**
+   * 由按起点顺序到达的 id 边流式构建压缩词图，不需要先在 {@link WordGraph} 或字符串邻接表中保存整张图。
+   *
+   * <p>顶点 id 即 {@code vocabulary} 中的单词 id（不按入边权重重新排序），顶点数为构建时词表的大小。
+   * 边必须按起点非递减的顺序加入；同一起点的边可以任意顺序、可以重复，重复的边权重相加。
+   * 任一时刻只缓存当前起点的出边，其余边在加入时即被编码。.
+   */
+  public static final class Builder {
+
+    private final Vocabulary vocabulary;
+    private final int[] words;
+    private byte[] bytes;
+    private int size;
+    private int[] offsets = new int[16];
+    private int[] degrees = new int[16];
+    private int[] skipFirst = new int[17];
+    private int[] skipPos = new int[16];
+    private int[] skipTarget = new int[16];
+    private int skips;
+    private int[] counts = new int[16];
+    private long countSum;
+    private int vertices; // 已编码的顶点数
+    private long edges;
+    private int maxTarget = -1;
+    private int source = -1;
+    private long[] pending = new long[16];
+    private int pendingSize;
+
+    /**
+     * 创建构建器。
+     *
+     * @param vocabulary 单词表，构建出的词图与其共享
+     */
+    public Builder(Vocabulary vocabulary) {
+      this(vocabulary, null, 16);
+    }
+
+    private Builder(Vocabulary vocabulary, int[] words, long expectedBytes) {
+      this.vocabulary = vocabulary;
+      this.words = words;
+      this.bytes = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, expectedBytes))];
+    }
+
+    /**
+     * 加入一条边 {@code source → target}。
+     *
+     * @param source 起点 id，不能小于之前加入的起点
+     * @param target 终点 id
+     * @param weight 权重，必须为正数
+     * @return 该构建器
+     * @throws IllegalArgumentException 起点顺序错误、id 为负数或权重不为正数时抛出
+     * @throws IllegalStateException    编码后的数据超过 2 GB 时抛出
+     */
+    public Builder add(int source, int target, int weight) {
+      if (source < this.source || target < 0 || weight <= 0) {
+        throw new IllegalArgumentException(
+            "边必须按起点顺序加入且权重为正：" + source + " → " + target + " (" + weight + ")");
+      }
+      if (source != this.source) {
+        flush();
+        this.source = source;
+      }
+      if (pendingSize == pending.length) {
+        pending = Arrays.copyOf(pending, pendingSize * 2);
+      }
+      pending[pendingSize++] = ((long) target << 32) | weight;
+      return this;
+    }
+
+    /**
+     * 设置单词的出现次数，未设置的单词计为 0；总词数为全部次数之和。
+     *
+     * @param v     顶点 id
+     * @param count 出现次数
+     * @return 该构建器
+     */
+    public Builder count(int v, int count) {
+      if (v >= counts.length) {
+        counts = Arrays.copyOf(counts, Math.max(v + 1, counts.length * 2));
+      }
+      countSum += count - counts[v];
+      counts[v] = count;
+      return this;
+    }
+
+    /**
+     * 编码剩余的边并创建压缩词图。构建器之后不能再使用。
+     *
+     * @return 压缩词图
+     * @throws IllegalArgumentException 某个起点或终点不在词表中时抛出
+     */
+    public CompressedGraph build() {
+      flush();
+      int n = vocabulary.size();
+      if (vertices > n || maxTarget >= n || counts.length > n && countsBeyond(n)) {
+        throw new IllegalArgumentException("边或次数引用了词表之外的 id");
+      }
+      return new CompressedGraph(finish(n), n, (int) countSum);
+    }
+
+    private boolean countsBeyond(int n) {
+      for (int v = n; v < counts.length; v++) {
+        if (counts[v] != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** 对当前起点缓存的出边排序、合并重复的边后编码。 */
+    private void flush() {
+      if (pendingSize == 0) {
+        return;
+      }
+      Arrays.sort(pending, 0, pendingSize);
+      int degree = 0;
+      for (int i = 0; i < pendingSize; i++) {
+        long target = pending[i] >>> 32;
+        if (degree > 0 && pending[degree - 1] >>> 32 == target) {
+          long weight = (pending[degree - 1] & 0xFFFFFFFFL) + (pending[i] & 0xFFFFFFFFL);
+          pending[degree - 1] = (target << 32) | Math.min(weight, Integer.MAX_VALUE);
+        } else {
+          pending[degree++] = pending[i];
+        }
+      }
+      putVertex(source, pending, degree);
+      pendingSize = 0;
+    }
+
+    /** 编码顶点 {@code v} 的有序出边，之前未出现的顶点记为没有出边。 */
+    void putVertex(int v, long[] packed, int degree) {
+      advance(v + 1);
+      degrees[v] = degree;
+      long previous = -1;
+      for (int i = 0; i < degree; i++) {
+        long target = packed[i] >>> 32;
+        int weight = (int) packed[i];
+        if (i > 0 && i % SKIP == 0) {
+          putSkip((int) previous);
+        }
+        long gap = target - previous - 1;
+        previous = target;
+        if (weight == 1) {
+          put(gap << 1);
+        } else {
+          put((gap << 1) | 1);
+          put(weight & 0xFFFFFFFFL);
+        }
+      }
+      if (degree > 0) {
+        maxTarget = Math.max(maxTarget, (int) previous);
+      }
+      skipFirst[v + 1] = skips;
+      edges += degree;
+    }
+
+    /** 把尚未出现的顶点 {@code [vertices, end)} 记为没有出边。 */
+    private void advance(int end) {
+      while (vertices < end) {
+        int u = vertices++;
+        if (u == offsets.length) {
+          offsets = Arrays.copyOf(offsets, u * 2);
+          degrees = Arrays.copyOf(degrees, u * 2);
+          skipFirst = Arrays.copyOf(skipFirst, u * 2 + 1);
+        }
+        offsets[u] = size;
+        skipFirst[u] = skips;
+        skipFirst[u + 1] = skips;
+      }
+    }
+
+    /** 补齐没有出边的末尾顶点，供构造函数截取数组。 */
+    Builder finish(int n) {
+      advance(n);
+      if (counts.length < n) {
+        counts = Arrays.copyOf(counts, n);
+      }
+      return this;
+    }
+
+    private void putSkip(int previousTarget) {
+      if (skips == skipPos.length) {
+        skipPos = Arrays.copyOf(skipPos, skips * 2);
+        skipTarget = Arrays.copyOf(skipTarget, skips * 2);
+      }
+      skipPos[skips] = size;
+      skipTarget[skips] = previousTarget;
+      skips++;
+    }
+
+    private void put(long value) {
+      if (size + Varint.MAX_BYTES > bytes.length) {
+        long capacity = Math.min(Integer.MAX_VALUE - 8, (long) bytes.length * 2);
+        if (capacity < size + Varint.MAX_BYTES) {
+          throw new IllegalStateException("压缩后的邻接数据超过 2 GB");
+        }
+        bytes = Arrays.copyOf(bytes, (int) capacity);
+      }
+      size = Varint.write(bytes, size, value);
+    }
+  }
+
+  private final class Cursor implements EdgeCursor {
+
+    private int pos;
+    private int remaining;
+    private int target;
+    private int weight;
+
+    @Override
+    public void reset(int v) {
+      pos = offsets[v];
+      remaining = degrees[v];
+      target = -1;
+    }
+
+    /** 定位到顶点 {@code v} 的第 {@code index} 条出边之前，从所在区段的跳转点开始解码。 */
+    void seek(int v, int index) {
+      int k = index / SKIP;
+      if (k == 0) {
+        reset(v);
+      } else {
+        int skip = skipFirst[v] + k - 1;
+        pos = skipPos[skip];
+        target = skipTarget[skip];
+        remaining = degrees[v] - k * SKIP;
+      }
+      for (int i = k * SKIP; i < index; i++) {
+        next();
+      }
+    }
+
+    @Override
+    public boolean next() {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      int b = data[pos];
+      if (b >= 0) {
+        pos++; // 单字节的快速路径：间隔小于 64
+        target += (b >>> 1) + 1;
+        weight = (b & 1) == 0 ? 1 : (int) decode();
+      } else {
+        long code = decode();
+        target += (int) (code >>> 1) + 1;
+        weight = (code & 1) == 0 ? 1 : (int) decode();
+      }
+      return true;
+    }
+
+    @Override
+    public int target() {
+      return target;
+    }
+
+    @Override
+    public int weight() {
+      return weight;
+    }
+
+    private long decode() {
+      byte b = data[pos++];
+      if (b >= 0) {
+        return b; // 单字节的快速路径
+      }
+      long value = b & 0x7F;
+      int shift = 7;
+      do {
+        b = data[pos++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
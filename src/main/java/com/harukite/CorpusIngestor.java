@@ -0,0 +1,381 @@
+package com.harukite;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 从多个文本文件（目录、通配符或 gzip 压缩文件）并行构建词图。
+ *
+ * <p>每个工作线程依次领取文件，按行读取并分词。线程用私有的 {@link Vocabulary} 把单词换成局部 id，
+ * 并记住局部 id 在共享的 {@link WordGraph} 中对应的顶点 id；单词次数和边先累积在线程私有的
+ * 基本类型数组中，攒满 {@value #FLUSH_EDGES} 条不同的边（或读完所有文件）时再合并：
+ * 新单词和边加锁合并到词图，次数则不加锁地加到按词图顶点 id 索引的共享 {@link WordStatistics} 中，
+ * 全部文件读完后一次写回词图。因此分词和计数完全并行，高频单词的次数在各线程之间的竞争由
+ * {@link WordStatistics} 处理而不延长词图的锁，每个线程额外占用的内存有上限，
+ * 整个过程不会建立以字符串为键的邻接表。
+ * 文件以 gzip 魔数（{@code 1f 8b}）识别，与扩展名无关。
+ *
+ * <p>结果与把每个文件分别交给 {@link GraphProcessor#buildGraph(String)} 后累加相同：
+ * 同一文件内跨行的相邻单词之间有边，不同文件之间不会产生边。.
+ */
+public final class CorpusIngestor {
+
+  private static final int CANCEL_CHECK_LINES = 1024; // 每读多少行检查一次取消标志
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int FLUSH_EDGES = 1 << 16; // 线程私有缓冲区攒满多少条边后合并到词图
+
+  private final Tokenizer tokenizer;
+  private final int threads;
+
+  /**
+   * 创建使用全部处理器核心的构建器。
+   *
+   * @param tokenizer 分词器
+   */
+  public CorpusIngestor(Tokenizer tokenizer) {
+    this(tokenizer, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * 创建构建器。
+   *
+   * @param tokenizer 分词器
+   * @param threads   工作线程数
+   */
+  public CorpusIngestor(Tokenizer tokenizer, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("线程数必须为正数: " + threads);
+    }
+    this.tokenizer = tokenizer;
+    this.threads = threads;
+  }
+
+  /**
+   * 判断路径字符串中是否包含通配符（{@code * ? [ {}）。
+   *
+   * @param pattern 路径或通配符
+   * @return 若包含通配符则返回 {@code true}
+   */
+  public static boolean isPattern(String pattern) {
+    return firstWildcard(pattern) >= 0;
+  }
+
+  private static int firstWildcard(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '*' || c == '?' || c == '[' || c == '{') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 把文件、目录或通配符展开为按路径排序的普通文件列表。
+   *
+   * <p>目录会被递归展开；通配符使用 {@link java.nio.file.FileSystem#getPathMatcher(String)}
+   * 的 glob 语法，例如 {@code logs/*.gz} 或 {@code corpus/**}{@code /*.txt}，
+   * 从第一个含通配符的路径段之前的目录开始匹配。.
+   *
+   * @param pattern 文件路径、目录路径或通配符
+   * @return 匹配的文件
+   * @throws IOException 路径不存在或遍历目录失败时抛出
+   */
+  @SuppressFBWarnings(
+      value = "PATH_TRAVERSAL_IN",
+      justification = "BY DESIGN: The corpus location is chosen by the user."
+  )
+  public static List<Path> resolve(String pattern) throws IOException {
+    if (!isPattern(pattern)) {
+      Path path = Paths.get(pattern);
+      if (Files.isDirectory(path)) {
+        return regularFiles(path, Integer.MAX_VALUE, file -> true);
+      }
+      if (!Files.isRegularFile(path)) {
+        throw new NoSuchFileException(pattern);
+      }
+      return List.of(path);
+    }
+    String normalized = pattern.replace('\\', '/');
+    int split = normalized.lastIndexOf('/', firstWildcard(normalized));
+    Path base = Paths.get(split < 0 ? "." : split == 0 ? "/" : normalized.substring(0, split));
+    String relative = normalized.substring(split + 1);
+    if (!Files.isDirectory(base)) {
+      throw new NoSuchFileException(base.toString());
+    }
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relative);
+    int depth = relative.contains("**") ? Integer.MAX_VALUE : relative.split("/").length;
+    return regularFiles(base, depth, file -> matcher.matches(base.relativize(file)));
+  }
+
+  private static List<Path> regularFiles(Path base, int depth, PathMatcher filter)
+      throws IOException {
+    try (Stream<Path> files = Files.walk(base, depth)) {
+      return files.filter(Files::isRegularFile).filter(filter::matches).sorted()
+          .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * 并行读取全部文件并构建词图。
+   *
+   * <p>每读完一个文件调用一次 {@code monitor.progress(已完成文件数, 文件总数)}。
+   * 取消时会尽快停止所有工作线程并抛出 {@link CancellationException}。.
+   *
+   * @param files   文件列表
+   * @param monitor 进度监视器
+   * @return 构建的词图
+   * @throws IOException           任一文件读取失败时抛出，其余文件随即停止处理
+   * @throws CancellationException {@code monitor} 报告取消时抛出
+   */
+  public WordGraph ingest(List<Path> files, ProgressMonitor monitor) throws IOException {
+    return ingest(files, new WordGraph(), monitor);
+  }
+
+  /**
+   * 并行读取全部文件，把单词和边直接加入 {@code graph}。
+   *
+   * <p>以堆外模式创建的词图在整个构建过程中都不会在 Java 堆上保留邻接数据，
+   * 适合边数超过可用堆内存的语料。失败或取消时 {@code graph} 中可能已经加入了部分文件的内容。.
+   *
+   * @param files   文件列表
+   * @param graph   目标词图
+   * @param monitor 进度监视器
+   * @return {@code graph}
+   * @throws IOException           任一文件读取失败时抛出，其余文件随即停止处理
+   * @throws CancellationException {@code monitor} 报告取消时抛出
+   */
+  public WordGraph ingest(List<Path> files, WordGraph graph, ProgressMonitor monitor)
+      throws IOException {
+    return ingest(files, graph, null, monitor);
+  }
+
+  /**
+   * 与 {@link #ingest(List, WordGraph, ProgressMonitor)} 相同，同时把每个文件的全部 n-gram 计入 {@code model}。
+   *
+   * <p>模型不是线程安全的：工作线程读完一个文件后，加锁把该文件的单词序列整体加入模型，
+   * 因此文件之间同样不会产生跨越边界的 n-gram，每个线程额外保留一个文件的单词序列。.
+   *
+   * @param files   文件列表
+   * @param graph   目标词图
+   * @param model   高阶 n-gram 模型，为 {@code null} 时不构建
+   * @param monitor 进度监视器
+   * @return {@code graph}
+   * @throws IOException           任一文件读取失败时抛出，其余文件随即停止处理
+   * @throws CancellationException {@code monitor} 报告取消时抛出
+   */
+  public WordGraph ingest(List<Path> files, WordGraph graph, NGramModel model,
+      ProgressMonitor monitor) throws IOException {
+    AtomicInteger nextFile = new AtomicInteger();
+    AtomicInteger doneFiles = new AtomicInteger();
+    AtomicBoolean stop = new AtomicBoolean();
+    BooleanSupplier cancelled = () -> stop.get() || monitor.isCancelled();
+    int workers = Math.min(threads, Math.max(1, files.size()));
+    WordStatistics counts = new WordStatistics(graph.vertexCount());
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+    for (int i = 0; i < workers; i++) {
+      completion.submit(() -> {
+        Partial partial = new Partial(graph, counts);
+        for (int f = nextFile.getAndIncrement(); f < files.size();
+             f = nextFile.getAndIncrement()) {
+          if (cancelled.getAsBoolean()) {
+            throw new CancellationException("语料构建已取消");
+          }
+          try {
+            read(files.get(f), partial, model, cancelled);
+          } catch (IOException e) {
+            throw new IOException("读取 " + files.get(f) + " 失败: " + e.getMessage(), e);
+          }
+          monitor.progress(doneFiles.incrementAndGet(), files.size());
+        }
+        partial.flush();
+        return null;
+      });
+    }
+    executor.shutdown();
+    try {
+      for (int i = 0; i < workers; i++) {
+        completion.take().get(); // 任一失败立即停止其余线程
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("语料构建被中断");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IOException("语料构建失败", e.getCause());
+    } finally {
+      stop.set(true);
+      executor.shutdownNow();
+    }
+    for (int v = 0; v < counts.vertexCount(); v++) {
+      long count = counts.count(v);
+      if (count != 0) {
+        graph.addCount(v, Math.toIntExact(count));
+      }
+    }
+    return graph;
+  }
+
+  private void read(Path file, Partial partial, NGramModel model, BooleanSupplier cancelled)
+      throws IOException {
+    List<String> fileWords = model == null ? null : new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(open(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      int previous = -1; // 跨行保留上一个单词，与整篇文本拼接后分词一致
+      String line;
+      int lines = 0;
+      while ((line = reader.readLine()) != null) {
+        if (++lines % CANCEL_CHECK_LINES == 0 && cancelled.getAsBoolean()) {
+          throw new CancellationException("语料构建已取消");
+        }
+        for (String word : tokenizer.tokenize(line.toLowerCase())) {
+          previous = partial.add(previous, word);
+          if (fileWords != null) {
+            fileWords.add(word);
+          }
+        }
+      }
+    }
+    if (model != null) {
+      synchronized (model) {
+        model.add(fileWords);
+      }
+    }
+  }
+
+  /**
+   * 打开文件，若以 gzip 魔数开头则透明解压。
+   */
+  private static InputStream open(Path file) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    in.mark(2);
+    int b1 = in.read();
+    int b2 = in.read();
+    in.reset();
+    if (b1 == 0x1F && b2 == 0x8B) {
+      return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+    return in;
+  }
+
+  /** 单个工作线程尚未合并的单词次数和边，均以线程私有的局部 id 表示。 */
+  private static final class Partial {
+    private final WordGraph graph;
+    private final WordStatistics statistics;
+    private final Vocabulary local = new Vocabulary();
+    private int[] global = new int[16]; // 局部 id → 词图顶点 id，resolved 之后的尚未分配
+    private int resolved;
+    private int[] counts = new int[16];
+    private int[] touched = new int[16]; // 自上次合并以来次数不为 0 的局部 id
+    private int touchedSize;
+    private final LongIntMap edgeIndex = new LongIntMap(); // pack(局部起点, 局部终点) → 下标
+    private int[] edgeSource = new int[16];
+    private int[] edgeTarget = new int[16];
+    private int[] edgeWeight = new int[16];
+    private int edges;
+
+    Partial(WordGraph graph, WordStatistics statistics) {
+      this.graph = graph;
+      this.statistics = statistics;
+    }
+
+    /**
+     * 计入一个单词以及从上一个单词到它的边，返回它的局部 id。
+     */
+    int add(int previous, String word) {
+      int id = local.intern(word);
+      if (id == counts.length) {
+        counts = Arrays.copyOf(counts, id * 2);
+      }
+      if (counts[id]++ == 0) {
+        if (touchedSize == touched.length) {
+          touched = Arrays.copyOf(touched, touchedSize * 2);
+        }
+        touched[touchedSize++] = id;
+      }
+      if (previous >= 0) {
+        int edge = edgeIndex.putIfAbsent(LongIntMap.pack(previous, id), edges);
+        if (edge >= 0) {
+          edgeWeight[edge]++;
+        } else {
+          if (edges == edgeSource.length) {
+            int capacity = edges * 2;
+            edgeSource = Arrays.copyOf(edgeSource, capacity);
+            edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+          }
+          edgeSource[edges] = previous;
+          edgeTarget[edges] = id;
+          edgeWeight[edges] = 1;
+          if (++edges == FLUSH_EDGES) {
+            flush();
+          }
+        }
+      }
+      return id;
+    }
+
+    /**
+     * 加锁把新单词和缓冲的边合并到词图，再把次数加到共享的统计中，并清空缓冲区；
+     * 局部词表保留，下次不必重新查找。
+     */
+    void flush() {
+      synchronized (graph) {
+        if (global.length < local.size()) {
+          global = Arrays.copyOf(global, Math.max(local.size(), global.length * 2));
+        }
+        for (; resolved < local.size(); resolved++) {
+          global[resolved] = graph.addVertex(local.word(resolved));
+        }
+        statistics.ensureCapacity(graph.vertexCount());
+        for (int e = 0; e < edges; e++) {
+          graph.addEdge(global[edgeSource[e]], global[edgeTarget[e]], edgeWeight[e]);
+        }
+      }
+      for (int i = 0; i < touchedSize; i++) {
+        int id = touched[i];
+        statistics.add(global[id], counts[id]);
+        counts[id] = 0;
+      }
+      touchedSize = 0;
+      edges = 0;
+      edgeIndex.clear();
+    }
+  }
+}
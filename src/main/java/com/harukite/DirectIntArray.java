@@ -0,0 +1,89 @@
+package com.harukite;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * 存放在堆外直接内存中的定长 int 数组。
+ *
+ * <p>单个 {@link ByteBuffer} 最多只能寻址 2GB，因此数组被切分为若干块，每块 {@value #CHUNK_INTS} 个元素，
+ * 下标使用 long，总长度不受 {@code Integer.MAX_VALUE} 限制。
+ * 数据不在 Java 堆上，不会被垃圾收集器扫描或复制；内存随本对象被回收而释放。
+ * 增长时只重新分配最后一个不满的块，已满的块原样保留，因此不会出现整个数组的复制。.
+ */
+final class DirectIntArray implements IntArray {
+
+  static final int CHUNK_SHIFT = 26;
+  static final int CHUNK_INTS = 1 << CHUNK_SHIFT;
+  private static final long CHUNK_MASK = CHUNK_INTS - 1;
+
+  private IntBuffer[] chunks = new IntBuffer[0];
+  private long length;
+
+  DirectIntArray(long length) {
+    grow(length);
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  @Override
+  public int get(long index) {
+    return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+  }
+
+  @Override
+  public void set(long index, int value) {
+    chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+  }
+
+  @Override
+  public void grow(long newLength) {
+    if (newLength <= length) {
+      return;
+    }
+    int chunkCount = (int) ((newLength + CHUNK_INTS - 1) >>> CHUNK_SHIFT);
+    IntBuffer[] grown = Arrays.copyOf(chunks, chunkCount);
+    for (int i = Math.max(0, chunks.length - 1); i < chunkCount; i++) {
+      int size = (int) Math.min(CHUNK_INTS, newLength - ((long) i << CHUNK_SHIFT));
+      if (grown[i] != null && grown[i].capacity() == size) {
+        continue;
+      }
+      IntBuffer chunk = ByteBuffer.allocateDirect(size * Integer.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+      if (grown[i] != null) {
+        chunk.put(grown[i].duplicate().clear()).clear(); // 复制不满的最后一块
+      }
+      grown[i] = chunk;
+    }
+    chunks = grown;
+    length = newLength;
+  }
+
+  /**
+   * 在 {@code [from, to)} 区间内二分查找升序排列的值。
+   *
+   * @return 找到时返回下标，否则返回 -1
+   */
+  long binarySearch(long from, long to, int key) {
+    long low = from;
+    long high = to - 1;
+    while (low <= high) {
+      long mid = (low + high) >>> 1;
+      int value = get(mid);
+      if (value < key) {
+        low = mid + 1;
+      } else if (value > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+}
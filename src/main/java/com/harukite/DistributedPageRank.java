@@ -0,0 +1,528 @@
+package com.harukite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多进程 PageRank：把词图按顶点划分给若干个本机工作进程（{@link PageRankWorker}），
+ * 由当前进程作为协调者驱动迭代。
+ *
+ * <p>顶点按 id 划分为连续区间，各区间的“出边数 + 1”之和大致相等。划分结果先由
+ * {@link #partition(GraphStore, Path)} 写入一个共享的分区文件，每个工作进程只从中读取自己区间内
+ * 顶点的出边；指向其他区间的边在划分时被归并为“边界槽”，同一个远端顶点只占一个槽。
+ * 协调者只读取文件头中的区间边界，迭代时不持有词图，也不经手边界贡献：
+ * 每两个工作进程之间有一条本机 TCP 连接，边界槽通过它直接发给目标区间。
+ * 每次迭代：
+ * <ol>
+ *   <li>各工作进程沿出边推送贡献，区间内的直接累加，区间外的累加到边界槽，
+ *   把边界槽发给对应的工作进程，并把本区间悬挂节点的 PR 之和发给协调者；</li>
+ *   <li>协调者汇总悬挂节点的贡献，算出所有顶点共同的基础值并发给各工作进程；</li>
+ *   <li>各工作进程收齐其他区间发来的贡献和基础值后得到新的 PR 值，
+ *   并报告与上一轮之差的 L1 范数，协调者据此判断是否收敛。</li>
+ * </ol>
+ * 计算规则与 {@link PageRank#compute(GraphStore, double[], int)} 相同，
+ * 结果只有浮点求和顺序带来的误差（通常小于 1e-12）。
+ *
+ * <p>工作进程之间以及与协调者之间都通过本机回环地址上的 TCP 连接通信。工作进程由 {@link ProcessBuilder}
+ * 以当前 JVM 和本类所在的类路径启动，计算结束、出错或被取消时都会被终止。.
+ */
+public final class DistributedPageRank {
+
+  static final int MAGIC = 0x50524B31; // "PRK1"
+  static final int STEP = 1;
+  static final int FINISH = 2;
+
+  private static final long ACCEPT_TIMEOUT_MS = 60_000;
+  private static final int ACCEPT_POLL_MS = 200; // 等待连接时每隔多久检查一次取消标志和工作进程状态
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final int workers;
+
+  /**
+   * 创建多进程 PageRank 计算器。
+   *
+   * @param workers 工作进程数
+   */
+  public DistributedPageRank(int workers) {
+    if (workers < 1) {
+      throw new IllegalArgumentException("工作进程数必须为正数: " + workers);
+    }
+    this.workers = workers;
+  }
+
+  /**
+   * 把词图划分为最多 {@code workers} 个区间并写入分区文件，供
+   * {@link #compute(Path, double[], int, double, ProgressMonitor)} 的工作进程读取。
+   *
+   * <p>同一个分区文件可以用于多次计算，直到词图改变。.
+   *
+   * @param graph 词图存储，至少有一个顶点
+   * @param file  分区文件，已存在时被覆盖
+   * @return {@code file}
+   * @throws IOException 写入失败时抛出
+   */
+  public Path partition(GraphStore graph, Path file) throws IOException {
+    if (graph.vertexCount() == 0) {
+      throw new IllegalArgumentException("词图为空");
+    }
+    Partition.of(graph, Math.min(workers, graph.vertexCount())).write(file);
+    return file;
+  }
+
+  /**
+   * 执行 PageRank 迭代，直到达到迭代次数上限或相邻两轮的 L1 差小于 {@code tolerance}。
+   *
+   * <p>分区文件写入临时目录，计算结束后删除。需要对同一个词图多次计算时，
+   * 可以先调用 {@link #partition(GraphStore, Path)}，再使用
+   * {@link #compute(Path, double[], int, double, ProgressMonitor)}。.
+   *
+   * @param graph         词图存储
+   * @param initial       初始 PR 向量，按顶点 id 索引，不会被修改
+   * @param maxIterations 迭代次数上限
+   * @param tolerance     收敛阈值；为 0 时固定迭代 {@code maxIterations} 次
+   * @param monitor       进度监视器，进度以迭代次数计，每次迭代前检查取消标志
+   * @return 迭代后的 PR 向量
+   * @throws IOException 写入分区文件、启动工作进程或通信失败时抛出
+   * @throws java.util.concurrent.CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public double[] compute(GraphStore graph, double[] initial, int maxIterations,
+                          double tolerance, ProgressMonitor monitor) throws IOException {
+    if (graph.vertexCount() == 0) {
+      return new double[0];
+    }
+    Path file = Files.createTempFile("pagerank-", ".part");
+    try {
+      return compute(partition(graph, file), initial, maxIterations, tolerance, monitor);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * 在已写好的分区文件上执行 PageRank 迭代。工作进程数由分区文件决定。
+   *
+   * @param partitions    {@link #partition(GraphStore, Path)} 写入的分区文件
+   * @param initial       初始 PR 向量，按顶点 id 索引，不会被修改
+   * @param maxIterations 迭代次数上限
+   * @param tolerance     收敛阈值；为 0 时固定迭代 {@code maxIterations} 次
+   * @param monitor       进度监视器，进度以迭代次数计，每次迭代前检查取消标志
+   * @return 迭代后的 PR 向量
+   * @throws IOException 读取分区文件、启动工作进程或通信失败时抛出
+   * @throws java.util.concurrent.CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public double[] compute(Path partitions, double[] initial, int maxIterations,
+                          double tolerance, ProgressMonitor monitor) throws IOException {
+    Layout layout;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(partitions), BUFFER_SIZE))) {
+      layout = Layout.read(in);
+    }
+    if (initial.length != layout.vertexCount()) {
+      throw new IllegalArgumentException(
+          "初始向量长度 " + initial.length + " 与分区文件的顶点数 " + layout.vertexCount() + " 不一致");
+    }
+    int k = layout.count();
+    List<Process> processes = new ArrayList<>(k);
+    Socket[] sockets = new Socket[k];
+    try (ServerSocket server = new ServerSocket(0, k, InetAddress.getLoopbackAddress())) {
+      server.setSoTimeout(ACCEPT_POLL_MS);
+      for (int w = 0; w < k; w++) {
+        processes.add(launch(server.getLocalPort(), w, partitions));
+      }
+      DataInputStream[] in = new DataInputStream[k];
+      DataOutputStream[] out = new DataOutputStream[k];
+      int[] ports = new int[k]; // 各工作进程供其他工作进程连接的端口
+      for (int i = 0; i < k; i++) {
+        Socket socket = accept(server, processes, monitor);
+        socket.setTcpNoDelay(true);
+        DataInputStream input = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        if (input.readInt() != MAGIC) {
+          socket.close();
+          throw new IOException("工作进程握手失败");
+        }
+        int w = input.readInt();
+        if (w < 0 || w >= k || sockets[w] != null) {
+          socket.close();
+          throw new IOException("无效的工作进程编号: " + w);
+        }
+        ports[w] = input.readInt();
+        sockets[w] = socket;
+        in[w] = input;
+        out[w] = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+      }
+      for (int w = 0; w < k; w++) {
+        for (int port : ports) {
+          out[w].writeInt(port);
+        }
+        for (int v = layout.start(w); v < layout.start(w + 1); v++) {
+          out[w].writeDouble(initial[v]);
+        }
+        out[w].flush();
+      }
+      return iterate(layout, in, out, maxIterations, tolerance, monitor);
+    } finally {
+      for (Socket socket : sockets) {
+        if (socket != null) {
+          socket.close();
+        }
+      }
+      for (Process process : processes) {
+        process.destroy();
+      }
+      for (Process process : processes) {
+        try {
+          if (!process.waitFor(5, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+          }
+        } catch (InterruptedException e) {
+          process.destroyForcibly();
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  private static double[] iterate(Layout layout, DataInputStream[] in, DataOutputStream[] out,
+      int maxIterations, double tolerance, ProgressMonitor monitor) throws IOException {
+    int k = layout.count();
+    int n = layout.vertexCount();
+    for (int i = 0; i < maxIterations; i++) {
+      monitor.checkCancelled();
+      for (int w = 0; w < k; w++) {
+        out[w].writeInt(STEP);
+        out[w].flush();
+      }
+      double dangling = 0.0;
+      for (int w = 0; w < k; w++) {
+        dangling += in[w].readDouble();
+      }
+      double base = dangling / n + (1 - PageRank.DAMPING) / n;
+      for (int w = 0; w < k; w++) {
+        out[w].writeDouble(base);
+        out[w].flush();
+      }
+      double delta = 0.0;
+      for (int w = 0; w < k; w++) {
+        delta += in[w].readDouble();
+      }
+      monitor.progress(i + 1, maxIterations);
+      if (delta < tolerance) {
+        break;
+      }
+    }
+    double[] ranks = new double[n];
+    for (int w = 0; w < k; w++) {
+      out[w].writeInt(FINISH);
+      out[w].flush();
+    }
+    for (int w = 0; w < k; w++) {
+      for (int v = layout.start(w); v < layout.start(w + 1); v++) {
+        ranks[v] = in[w].readDouble();
+      }
+    }
+    return ranks;
+  }
+
+  private static Process launch(int port, int index, Path partitions) throws IOException {
+    Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+    ProcessBuilder builder = new ProcessBuilder(java.toString(), "-cp", classPath(),
+        PageRankWorker.class.getName(), String.valueOf(port), String.valueOf(index),
+        partitions.toAbsolutePath().toString());
+    builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    return builder.start();
+  }
+
+  /**
+   * 返回包含 {@link PageRankWorker} 的目录或 jar；工作进程只依赖 JDK，不需要其他类路径。
+   */
+  private static String classPath() throws IOException {
+    try {
+      return Paths.get(PageRankWorker.class.getProtectionDomain().getCodeSource().getLocation()
+          .toURI()).toString();
+    } catch (URISyntaxException | SecurityException | NullPointerException e) {
+      return System.getProperty("java.class.path");
+    }
+  }
+
+  private static Socket accept(ServerSocket server, List<Process> processes,
+                               ProgressMonitor monitor) throws IOException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_TIMEOUT_MS);
+    while (true) {
+      monitor.checkCancelled();
+      for (Process process : processes) {
+        if (!process.isAlive()) {
+          throw new IOException("工作进程提前退出，退出码 " + process.exitValue());
+        }
+      }
+      try {
+        return server.accept();
+      } catch (SocketTimeoutException e) {
+        if (System.nanoTime() - deadline > 0) {
+          throw new IOException("等待工作进程连接超时", e);
+        }
+      }
+    }
+  }
+
+  static double[] readDoubles(DataInputStream in, int count, double[] reuse) throws IOException {
+    double[] values = reuse != null && reuse.length == count ? reuse : new double[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readDouble();
+    }
+    return values;
+  }
+
+  static int owner(int[] starts, int v) {
+    int p = Arrays.binarySearch(starts, v); // 每个区间非空，起点互不相同
+    return p >= 0 ? p : -p - 2;
+  }
+
+  static int[] readInts(DataInputStream in, int count) throws IOException {
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readInt();
+    }
+    return values;
+  }
+
+  /**
+   * 分区文件头：区间边界和各区间边界槽的分组，协调者和工作进程都只需要这些元数据。
+   *
+   * <p>文件头之后依次是各区间的数据，区间 {@code w} 从 {@code sectionOffset(w)} 字节开始。
+   * 工作进程 {@code w} 的边界槽按目标区间分组，指向区间 {@code p} 的槽为
+   * {@code [slotStart(w, p), slotStart(w, p + 1))}，每轮按此顺序通过与区间 {@code p} 的连接发送。.
+   */
+  static final class Layout {
+    private final int[] starts; // 区间 w 为 [starts[w], starts[w + 1])
+    private final int[][] slotStarts;
+    private final long[] sectionOffsets;
+    private final double damping;
+
+    private Layout(int[] starts, int[][] slotStarts, long[] sectionOffsets, double damping) {
+      this.starts = starts;
+      this.slotStarts = slotStarts;
+      this.sectionOffsets = sectionOffsets;
+      this.damping = damping;
+    }
+
+    static Layout read(DataInputStream in) throws IOException {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("不是 PageRank 分区文件");
+      }
+      int k = in.readInt();
+      double damping = in.readDouble();
+      int[] starts = readInts(in, k + 1);
+      int[][] slotStarts = new int[k][];
+      for (int w = 0; w < k; w++) {
+        slotStarts[w] = readInts(in, k + 1);
+      }
+      long[] sectionOffsets = new long[k];
+      for (int w = 0; w < k; w++) {
+        sectionOffsets[w] = in.readLong();
+      }
+      return new Layout(starts, slotStarts, sectionOffsets, damping);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      int k = count();
+      out.writeInt(MAGIC);
+      out.writeInt(k);
+      out.writeDouble(damping);
+      for (int start : starts) {
+        out.writeInt(start);
+      }
+      for (int[] slotStart : slotStarts) {
+        for (int start : slotStart) {
+          out.writeInt(start);
+        }
+      }
+      for (long offset : sectionOffsets) {
+        out.writeLong(offset);
+      }
+    }
+
+    static long headerBytes(int k) {
+      return 4 + 4 + 8 + 4L * (k + 1) * (k + 1) + 8L * k;
+    }
+
+    int count() {
+      return starts.length - 1;
+    }
+
+    int vertexCount() {
+      return starts[starts.length - 1];
+    }
+
+    int start(int w) {
+      return starts[w];
+    }
+
+    int owner(int v) {
+      return DistributedPageRank.owner(starts, v);
+    }
+
+    int slotStart(int w, int p) {
+      return slotStarts[w][p];
+    }
+
+    long sectionOffset(int w) {
+      return sectionOffsets[w];
+    }
+
+    double damping() {
+      return damping;
+    }
+  }
+
+  /**
+   * 由词图计算区间划分和边界槽，并写出分区文件。只在写分区文件时使用，迭代期间不再保留。
+   */
+  private static final class Partition {
+    private final GraphStore graph;
+    private final Layout layout;
+    private final int[][] slotTargets; // slotTargets[w][slot] 为边界槽对应的远端顶点
+    private final int[] slotOf; // write 中远端顶点 → 边界槽的临时映射
+
+    private Partition(GraphStore graph, int[] starts) {
+      this.graph = graph;
+      int k = starts.length - 1;
+      int[][] slotStarts = new int[k][];
+      this.slotTargets = new int[k][];
+      this.slotOf = new int[graph.vertexCount()];
+      int[] stamp = new int[graph.vertexCount()];
+      Arrays.fill(stamp, -1);
+      long[] sectionBytes = new long[k];
+      GraphStore.EdgeCursor cursor = graph.cursor();
+      for (int w = 0; w < k; w++) {
+        // 第一遍：按目标区间收集不同的远端顶点
+        int[][] targets = new int[k][16];
+        int[] sizes = new int[k];
+        long edges = 0;
+        for (int u = starts[w]; u < starts[w + 1]; u++) {
+          cursor.reset(u);
+          while (cursor.next()) {
+            edges++;
+            int t = cursor.target();
+            int p = owner(starts, t);
+            if (p != w && stamp[t] != w) {
+              stamp[t] = w;
+              if (sizes[p] == targets[p].length) {
+                targets[p] = Arrays.copyOf(targets[p], sizes[p] * 2);
+              }
+              targets[p][sizes[p]++] = t;
+            }
+          }
+        }
+        int[] slotStart = new int[k + 1];
+        for (int p = 0; p < k; p++) {
+          slotStart[p + 1] = slotStart[p] + sizes[p];
+        }
+        int[] flat = new int[slotStart[k]];
+        for (int p = 0; p < k; p++) {
+          System.arraycopy(targets[p], 0, flat, slotStart[p], sizes[p]);
+        }
+        slotStarts[w] = slotStart;
+        slotTargets[w] = flat;
+        sectionBytes[w] = 4 + 8 + 4 + 4L * (starts[w + 1] - starts[w]) + 4 * edges;
+      }
+      for (int w = 0; w < k; w++) {
+        for (int q = 0; q < k; q++) {
+          if (q != w) {
+            sectionBytes[w] += 4 + 4L * (slotStarts[q][w + 1] - slotStarts[q][w]);
+          }
+        }
+      }
+      long[] sectionOffsets = new long[k];
+      long offset = Layout.headerBytes(k);
+      for (int w = 0; w < k; w++) {
+        sectionOffsets[w] = offset;
+        offset += sectionBytes[w];
+      }
+      this.layout = new Layout(starts, slotStarts, sectionOffsets, PageRank.DAMPING);
+    }
+
+    static Partition of(GraphStore graph, int k) {
+      int n = graph.vertexCount();
+      long total = n + graph.edgeCount();
+      int[] starts = new int[k + 1];
+      long weight = 0;
+      int w = 1;
+      for (int v = 0; v < n && w < k; v++) {
+        weight += graph.outDegree(v) + 1;
+        // 每个区间至少一个顶点，且剩余的顶点足够分给后面的区间
+        if (weight * k >= total * w || n - (v + 1) == k - w) {
+          starts[w++] = v + 1;
+        }
+      }
+      starts[k] = n;
+      return new Partition(graph, starts);
+    }
+
+    void write(Path file) throws IOException {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+        layout.write(out);
+        for (int w = 0; w < layout.count(); w++) {
+          writeSection(out, w);
+        }
+      }
+    }
+
+    /**
+     * 写出区间 {@code w}：大小、编码后的出边，以及其他区间发往它的边界槽对应的顶点（区间内的相对 id）。
+     *
+     * <p>出边编码为一个 int：小于区间大小时为区间内的相对 id，否则减去区间大小后为边界槽编号。.
+     */
+    private void writeSection(DataOutputStream out, int w) throws IOException {
+      int k = layout.count();
+      int start = layout.start(w);
+      int size = layout.start(w + 1) - start;
+      out.writeInt(size);
+      int[] targets = slotTargets[w];
+      for (int slot = 0; slot < targets.length; slot++) {
+        slotOf[targets[slot]] = slot;
+      }
+      GraphStore.EdgeCursor cursor = graph.cursor();
+      long edges = 0;
+      for (int v = start; v < start + size; v++) {
+        edges += graph.outDegree(v);
+      }
+      out.writeLong(edges);
+      out.writeInt(targets.length);
+      for (int v = start; v < start + size; v++) {
+        out.writeInt(graph.outDegree(v));
+        cursor.reset(v);
+        while (cursor.next()) {
+          int t = cursor.target();
+          out.writeInt(layout.owner(t) == w ? t - start : size + slotOf[t]);
+        }
+      }
+      for (int q = 0; q < k; q++) {
+        if (q != w) {
+          out.writeInt(layout.slotStart(q, w + 1) - layout.slotStart(q, w));
+          for (int s = layout.slotStart(q, w); s < layout.slotStart(q, w + 1); s++) {
+            out.writeInt(slotTargets[q][s] - start);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 把 {@link WordGraph} 转换为按顶点 id 顺序输出的有序邻接数据，供各种 {@link GraphStore} 实现复用。
+ *
+ * <p>默认情况下快照的顶点 id 与词图相同，也可以指定其他顶点顺序；每个顶点的出边按目标 id 升序输出。.
+ */
+final class GraphLoader {
+
+  private GraphLoader() {
+  }
+
+  /**
+   * 接收单个顶点的有序出边。
+   */
+  interface VertexSink {
+
+    /**
+     * 接收顶点数据，调用顺序与顶点 id 顺序一致。
+     *
+     * @param v      顶点 id
+     * @param count  单词出现次数
+     * @param edges  出边，高 32 位为目标 id，低 32 位为权重，已按目标升序排列
+     * @param degree 有效出边个数，即 {@code edges} 中前 {@code degree} 个元素
+     */
+    void accept(int v, int count, long[] edges, int degree);
+  }
+
+  /**
+   * 按词图中的顶点 id 顺序把有序出边交给 {@code sink}。
+   *
+   * @param graph 词图
+   * @param sink  顶点数据接收者
+   */
+  static void load(WordGraph graph, VertexSink sink) {
+    load(graph, null, sink);
+  }
+
+  /**
+   * 按指定的顶点顺序把有序出边交给 {@code sink}，出边的目标同样换算为新的顶点 id。
+   *
+   * @param graph 词图
+   * @param order 快照顶点 i 对应的词图顶点为 {@code order[i]}；为 {@code null} 时不改变顺序
+   * @param sink  顶点数据接收者
+   */
+  static void load(WordGraph graph, int[] order, VertexSink sink) {
+    int n = graph.vertexCount();
+    int[] rank = null;
+    if (order != null) {
+      rank = new int[n];
+      for (int i = 0; i < n; i++) {
+        rank[order[i]] = i;
+      }
+    }
+    long[] packed = new long[16];
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    for (int v = 0; v < n; v++) {
+      int w = order == null ? v : order[v];
+      if (packed.length < graph.outDegree(w)) {
+        packed = new long[graph.outDegree(w)];
+      }
+      int degree = 0;
+      cursor.reset(w);
+      while (cursor.next()) {
+        int target = rank == null ? cursor.target() : rank[cursor.target()];
+        packed[degree++] = ((long) target << 32) | (cursor.weight() & 0xFFFFFFFFL);
+      }
+      Arrays.sort(packed, 0, degree);
+      sink.accept(v, graph.count(w), packed, degree);
+    }
+  }
+
+  /**
+   * 返回按入边权重之和降序排列的顶点顺序，常作为后继出现的单词排在前面。
+   *
+   * <p>这样每个顶点的后继大多集中在较小的 id 上，相邻后继的 id 差值较小，
+   * 适合差分编码，遍历时访问的数组位置也更集中。权重相同的顶点保持原有顺序。.
+   *
+   * @param graph 词图
+   * @return 顶点顺序，第 i 个元素为新 id 为 i 的顶点在词图中的 id
+   */
+  static int[] byInWeight(WordGraph graph) {
+    int n = graph.vertexCount();
+    long[] inWeight = new long[n];
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    for (int v = 0; v < n; v++) {
+      cursor.reset(v);
+      while (cursor.next()) {
+        inWeight[cursor.target()] += cursor.weight();
+      }
+    }
+    Integer[] order = new Integer[n];
+    for (int v = 0; v < n; v++) {
+      order[v] = v;
+    }
+    Arrays.sort(order, Comparator.comparingLong((Integer v) -> inWeight[v]).reversed());
+    int[] result = new int[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = order[i];
+    }
+    return result;
+  }
+}
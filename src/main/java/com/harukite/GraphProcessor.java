@@ -19,12 +19,16 @@ import java.awt.Graphics2D;
 import java.awt.GridLayout;
 import java.awt.RenderingHints;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,23 +36,29 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
+import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
@@ -66,17 +76,44 @@ import org.w3c.dom.Document;
  */
 public class GraphProcessor extends JFrame {
 
-  private int wordNum;
-  private Map<String, Integer> wordCount;
-  private Map<String, Map<String, Integer>> graph;
+  private static final double RELATED_EPSILON = 1e-5; // 个性化PageRank推送的残差阈值
+  private static final int RELATED_COUNT = 10; // 界面上显示的相关单词个数
+  private static final int ALT_LANDMARKS = 8; // ALT模式下的地标个数
+  private static final int CANCEL_CHECK_LINES = 1024; // 读取文件时每多少行检查一次取消标志
+  private static final int RANK_WORKERS = 4; // 多进程PageRank的工作进程数
+  private static final int RANK_WALKS = 64; // 近似PageRank每个单词出发的游走次数
+
+  private WordGraph graph; // 词图，单词次数和边都以整数 id 保存
+  private GraphStore graphStore; // graph 的只读快照，按需构建
+  private volatile boolean offHeap; // 是否把词图和快照存放在堆外内存
+  private volatile boolean compressed; // 是否以差分变长编码压缩快照的邻接表
+  private volatile int landmarkCount; // 点到点最短路径的地标个数，0表示使用双向Dijkstra
+  private PointToPointEngine pathEngine; // 点到点最短路径引擎，随快照一起失效
+  private int pathEngineLandmarks; // 构建 pathEngine 时的地标个数
+  private ReachabilityIndex reachability; // 快照的强连通分量可达性索引，随快照一起失效
+  private volatile int pageRankWorkers; // PageRank的工作进程数，0表示在当前进程中计算
+  private volatile int pageRankWalks; // 近似PageRank每个单词的游走次数，0表示精确计算
+  private MonteCarloPageRank monteCarlo; // 快照的近似PageRank估计，随快照一起失效
+  private WordStatistics wordStatistics; // 快照的单词次数和IDF权重，随快照一起失效
+  private volatile boolean incrementalPageRank; // 是否保留收敛的PageRank并在追加文本后增量更新
+  private IncrementalPageRank incrementalRank; // 增量PageRank的状态，词图被整体替换时丢弃
   private final SecureRandom random;
-  private final Set<String> visitedEdges;
+  private final LongIntMap visitedEdges; // 随机游走经过的边（或 n 元组），键见 walkEdgeKey
   private final List<String> walkPath;
   private volatile boolean walkStopped;
   private boolean idf; // 是否使用IDF加权
   private volatile boolean walkDelay; // 是否延迟游走
-  private Thread walkThread; // 保存线程引用
+  private final TaskRunner tasks; // 后台任务执行器
+  private TaskRunner.Task<?> loadTask; // 正在进行的加载任务
+  private TaskRunner.Task<?> walkTask; // 正在进行的随机游走
+  private final Map<String, JFrame> pathWindows; // 已打开的最短路径表格窗口
+  private final Object storeLock; // 保护 graphStore 和 pathEngine 的按需构建
   private boolean showPathOnGraph; // 是否在图上显示路径
+  private Tokenizer tokenizer; // 分词器
+  private StreamingGraph stream; // 流式词图，null表示未启用
+  private StreamingGraph streamed; // 已追加文本但尚未导出到 graph 的流式词图，受 storeLock 保护
+  private int ngramOrder; // n-gram 阶数，2 表示只使用二元词图
+  private NGramModel ngramModel; // ngramOrder > 2 时的高阶转移模型
 
   // UI组件
   private JTextArea outputArea;
@@ -89,6 +126,8 @@ public class GraphProcessor extends JFrame {
   private JTextField targetWordField;
   private JTextField graphOutputField;
   private JSVGCanvas svgCanvas;
+  private JProgressBar progressBar;
+  private JButton cancelButton;
 
   /**
    * 构造方法，初始化图处理器所需的成员变量并构建图形用户界面。
@@ -97,16 +136,22 @@ public class GraphProcessor extends JFrame {
    * 并调用 {@code initializeUi()} 方法加载主界面。.
    */
   public GraphProcessor() {
-    wordNum = 0;
-    wordCount = new HashMap<>();
-    graph = new HashMap<>();
+    graph = new WordGraph();
     random = new SecureRandom();
-    visitedEdges = new HashSet<>();
+    visitedEdges = new LongIntMap();
     walkPath = new ArrayList<>();
     walkStopped = true;
     idf = false; // 默认不使用IDF加权
     walkDelay = false; // 默认不延迟游走
     showPathOnGraph = false; // 默认不在图上显示路径
+    tokenizer = new AsciiTokenizer(); // 默认只识别ASCII字母
+    offHeap = false; // 默认使用堆内存储
+    compressed = false; // 默认不压缩邻接表
+    landmarkCount = 0; // 默认使用双向Dijkstra
+    ngramOrder = 2; // 默认只使用二元词图
+    tasks = new TaskRunner(SwingUtilities::invokeLater, this::taskChanged);
+    pathWindows = new HashMap<>();
+    storeLock = new Object();
 
     initializeUi();
   }
@@ -114,25 +159,34 @@ public class GraphProcessor extends JFrame {
   /**
    * 读取指定路径的文本文件内容。
    *
-   * <p>该方法以 UTF-8 编码按行读取文件，并将每行内容以空格分隔拼接为一个字符串返回。.
+   * <p>该方法以 UTF-8 编码按行读取文件，并将每行内容以空格分隔拼接为一个字符串返回。
+   * 每读取 {@value #CANCEL_CHECK_LINES} 行报告一次进度（按已读字符数与文件字节数估算）并检查取消标志。.
    *
    * @param filePath 要读取的文件路径，不能为空
+   * @param monitor  进度监视器
    * @return 文件内容拼接后的字符串
    * @throws IOException 如果文件读取过程中发生 I/O 错误
+   * @throws CancellationException 被 {@code monitor} 取消时抛出
    */
   @SuppressFBWarnings(
       value = "PATH_TRAVERSAL_IN",
       justification = "BY DESIGN: The file path is provided through a file chooser dialog."
   )
-  private static String readFile(String filePath) throws IOException {
+  private static String readFile(String filePath, ProgressMonitor monitor) throws IOException {
     StringBuilder content = new StringBuilder();
     Path fp = Paths.get(filePath);
-    BufferedReader reader = Files.newBufferedReader(fp, StandardCharsets.UTF_8);
-    String line;
-    while ((line = reader.readLine()) != null) {
-      content.append(line).append(" ");
+    long size = Files.size(fp);
+    try (BufferedReader reader = Files.newBufferedReader(fp, StandardCharsets.UTF_8)) {
+      String line;
+      int lines = 0;
+      while ((line = reader.readLine()) != null) {
+        content.append(line).append(" ");
+        if (++lines % CANCEL_CHECK_LINES == 0) {
+          monitor.checkCancelled();
+          monitor.progress(Math.min(content.length(), size), size);
+        }
+      }
     }
-    reader.close();
     return content.toString();
   }
 
@@ -173,15 +227,54 @@ public class GraphProcessor extends JFrame {
     JPanel graphPanel = new JPanel(new BorderLayout());
     graphOutputField = new JTextField("graph.png");
     JButton generateGraphButton = new JButton("生成图形");
-    generateGraphButton.addActionListener(e -> showDirectedGraph(graphOutputField.getText()));
+    generateGraphButton.addActionListener(e -> {
+      String filename = graphOutputField.getText();
+      runTask("生成图形 " + filename, false, monitor -> {
+        showDirectedGraph(filename);
+        return null;
+      }, result -> { });
+    });
 
     graphPanel.add(new JLabel("图形输出文件:"), BorderLayout.WEST);
     graphPanel.add(graphOutputField, BorderLayout.CENTER);
     graphPanel.add(generateGraphButton, BorderLayout.EAST);
 
+    // 分词方式面板
+    JComboBox<String> tokenizerBox =
+        new JComboBox<>(new String[] {"ASCII 字母", "Unicode 字母", "Unicode + CJK 二元切分"});
+    tokenizerBox.addActionListener(e -> {
+      switch (tokenizerBox.getSelectedIndex()) {
+        case 1 -> tokenizer = new UnicodeTokenizer(false);
+        case 2 -> tokenizer = new UnicodeTokenizer(true);
+        default -> tokenizer = new AsciiTokenizer();
+      }
+    });
+    JPanel tokenizerPanel = new JPanel(new BorderLayout());
+    tokenizerPanel.add(new JLabel("分词方式:"), BorderLayout.WEST);
+    tokenizerPanel.add(tokenizerBox, BorderLayout.CENTER);
+    JComboBox<String> ngramBox = new JComboBox<>(new String[] {"二元", "三元", "四元"});
+    ngramBox.addActionListener(e -> setNGramOrder(ngramBox.getSelectedIndex() + 2));
+    JCheckBox offHeapCheckBox = new JCheckBox("堆外存储");
+    JCheckBox compressedCheckBox = new JCheckBox("压缩存储");
+    // 两种存储方式互斥，选中一个时禁用另一个
+    offHeapCheckBox.addActionListener(e -> {
+      setOffHeap(offHeapCheckBox.isSelected());
+      compressedCheckBox.setEnabled(!offHeapCheckBox.isSelected());
+    });
+    compressedCheckBox.addActionListener(e -> {
+      setCompressed(compressedCheckBox.isSelected());
+      offHeapCheckBox.setEnabled(!compressedCheckBox.isSelected());
+    });
+    JPanel storagePanel = new JPanel(new GridLayout(1, 3));
+    storagePanel.add(ngramBox);
+    storagePanel.add(offHeapCheckBox);
+    storagePanel.add(compressedCheckBox);
+    tokenizerPanel.add(storagePanel, BorderLayout.EAST);
+
     // 顶部面板 - 文件选择和基本操作
-    JPanel topPanel = new JPanel(new GridLayout(2, 1));
+    JPanel topPanel = new JPanel(new GridLayout(3, 1));
     topPanel.add(filePanel);
+    topPanel.add(tokenizerPanel);
     topPanel.add(graphPanel);
 
     // 1. 桥接词查询
@@ -227,23 +320,48 @@ public class GraphProcessor extends JFrame {
 
     JPanel pathPanel = new JPanel(new BorderLayout());
     pathPanel.add(pathInputPanel, BorderLayout.CENTER);
-    pathPanel.add(showPathCheckBox, BorderLayout.EAST);
+    JCheckBox altCheckBox = new JCheckBox("ALT加速");
+    altCheckBox.addActionListener(
+        e -> setLandmarkCount(altCheckBox.isSelected() ? ALT_LANDMARKS : 0));
+    JPanel pathOptionPanel = new JPanel(new GridLayout(2, 1));
+    pathOptionPanel.add(showPathCheckBox);
+    pathOptionPanel.add(altCheckBox);
+    pathPanel.add(pathOptionPanel, BorderLayout.EAST);
     pathPanel.add(pathButton, BorderLayout.SOUTH);
 
     // 4. PageRank
     targetWordField = new JTextField();
     JButton rankButton = new JButton("计算PageRank");
     rankButton.addActionListener(e -> calPageRankUi());
+    JButton relatedButton = new JButton("相关单词");
+    relatedButton.addActionListener(e -> relatedWordsUi());
+    JPanel rankButtonPanel = new JPanel(new GridLayout(1, 2));
+    rankButtonPanel.add(rankButton);
+    rankButtonPanel.add(relatedButton);
 
     // IDF加权选项
     JCheckBox idfCheckBox = new JCheckBox("使用IDF加权");
     idfCheckBox.addActionListener(e -> idf = idfCheckBox.isSelected());
+    JCheckBox workerCheckBox = new JCheckBox("多进程计算");
+    workerCheckBox.addActionListener(
+        e -> setPageRankWorkers(workerCheckBox.isSelected() ? RANK_WORKERS : 0));
+    JCheckBox walkCheckBox = new JCheckBox("随机游走近似");
+    walkCheckBox.addActionListener(
+        e -> setPageRankWalks(walkCheckBox.isSelected() ? RANK_WALKS : 0));
+    JCheckBox incrementalCheckBox = new JCheckBox("增量计算");
+    incrementalCheckBox.addActionListener(
+        e -> setIncrementalPageRank(incrementalCheckBox.isSelected()));
+    JPanel rankOptionPanel = new JPanel(new GridLayout(4, 1));
+    rankOptionPanel.add(idfCheckBox);
+    rankOptionPanel.add(workerCheckBox);
+    rankOptionPanel.add(walkCheckBox);
+    rankOptionPanel.add(incrementalCheckBox);
 
     JPanel rankPanel = new JPanel(new BorderLayout());
-    rankPanel.add(idfCheckBox, BorderLayout.EAST);
+    rankPanel.add(rankOptionPanel, BorderLayout.EAST);
     rankPanel.add(new JLabel("目标单词:"), BorderLayout.NORTH);
     rankPanel.add(targetWordField, BorderLayout.CENTER);
-    rankPanel.add(rankButton, BorderLayout.SOUTH);
+    rankPanel.add(rankButtonPanel, BorderLayout.SOUTH);
 
     // 5. 随机游走
     JPanel walkPanel = new JPanel(new BorderLayout());
@@ -296,15 +414,28 @@ public class GraphProcessor extends JFrame {
     JSplitPane leftPanel = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, outputPanel, imagePane);
     JSplitPane centerPanel = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, functionPanel, leftPanel);
 
+    // 状态栏：后台任务进度
+    progressBar = new JProgressBar(0, 1000);
+    progressBar.setStringPainted(true);
+    progressBar.setString("空闲");
+    cancelButton = new JButton("取消任务");
+    cancelButton.setEnabled(false);
+    cancelButton.addActionListener(e -> tasks.cancelAll());
+    JPanel statusPanel = new JPanel(new BorderLayout());
+    statusPanel.add(progressBar, BorderLayout.CENTER);
+    statusPanel.add(cancelButton, BorderLayout.EAST);
+
     // 添加到主窗口
     add(topPanel, BorderLayout.NORTH);
     add(centerPanel, BorderLayout.CENTER);
+    add(statusPanel, BorderLayout.SOUTH);
 
     setVisible(true);
   }
 
   private void browseFile() {
     JFileChooser fileChooser = new JFileChooser();
+    fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
     int returnValue = fileChooser.showOpenDialog(this);
     if (returnValue == JFileChooser.APPROVE_OPTION) {
       File selectedFile = fileChooser.getSelectedFile();
@@ -313,20 +444,48 @@ public class GraphProcessor extends JFrame {
   }
 
   private void loadFile() {
+    if (loadTask != null && !loadTask.isDone()) {
+      // 再次点击时取消正在进行的加载
+      loadTask.cancel();
+      outputArea.append("正在取消加载...\n");
+      return;
+    }
     String filePath = filePathField.getText();
     if (filePath.isEmpty()) {
       outputArea.append("请先选择文件!\n");
       return;
     }
-
-    try {
-      graph = new HashMap<>();
-      String text = readFile(filePath);
-      buildGraph(text);
-      outputArea.append("图构建完成!\n");
-    } catch (IOException e) {
-      outputArea.append("读取文件失败: " + e.getMessage() + "\n");
+    if (CorpusIngestor.isPattern(filePath) || filePath.endsWith(".gz")
+        || new File(filePath).isDirectory()) {
+      loadCorpusUi(filePath);
+      return;
     }
+    loadTask = runTask("加载文件 " + filePath, true, monitor -> {
+      loadTextFile(filePath, monitor);
+      return null;
+    }, result -> outputArea.append("图构建完成!\n"));
+  }
+
+  private void loadCorpusUi(String pattern) {
+    outputArea.append("开始加载语料，再次点击\"加载文件\"可取消\n");
+    loadTask = runTask("加载语料 " + pattern, true, monitor -> {
+      int files = loadCorpus(pattern, monitor);
+      reachability(); // 在后台预先构建快照和可达性索引
+      return files;
+    }, files -> outputArea.append("图构建完成! 共读取 " + files + " 个文件\n"));
+  }
+
+  /**
+   * 读取单个文本文件并替换当前的词图，读取失败或被取消时原有词图保持不变。
+   */
+  private void loadTextFile(String filePath, ProgressMonitor monitor) throws IOException {
+    String text = readFile(filePath, monitor);
+    graph = new WordGraph(offHeap);
+    streamed = null;
+    ngramModel = null;
+    discardIncrementalRank();
+    buildGraph(text);
+    reachability(); // 在后台预先构建快照和可达性索引，使第一次查询无需等待
   }
 
   private void queryBridgeWordsUi() {
@@ -336,8 +495,9 @@ public class GraphProcessor extends JFrame {
     }
     String word1 = word1Field.getText().toLowerCase();
     String word2 = word2Field.getText().toLowerCase();
-    String result = queryBridgeWords(word1, word2);
-    outputArea.append(result + "\n");
+    runTask("查询桥接词 " + word1 + " " + word2, false,
+        monitor -> queryBridgeWords(word1, word2),
+        result -> outputArea.append(result + "\n"));
   }
 
   private void generateNewTextUi() {
@@ -346,8 +506,10 @@ public class GraphProcessor extends JFrame {
       return;
     }
     String inputText = inputTextField.getText();
-    String result = generateNewText(inputText);
-    outputArea.append("生成的新文本: " + result + "\n");
+    // 阶数不同时生成结果不同，不能合并到同一个任务
+    runTask("生成新文本 " + inputText + " (" + ngramOrder + "-gram)", false,
+        monitor -> generateNewText(inputText, monitor),
+        result -> outputArea.append("生成的新文本: " + result + "\n"));
   }
 
   private void calcShortestPathUi() {
@@ -357,64 +519,553 @@ public class GraphProcessor extends JFrame {
     }
     String word1 = startWordField.getText().toLowerCase();
     String word2 = endWordField.getText().toLowerCase();
-    String result = calcShortestPath(word1, word2.isEmpty() ? null : word2);
-    outputArea.append(result + "\n");
+    if (word2.isEmpty() && !showPathOnGraph) {
+      showAllPathsUi(word1);
+      return;
+    }
+    runTask("最短路径 " + word1 + (word2.isEmpty() ? "" : " -> " + word2), false,
+        monitor -> calcShortestPath(word1, word2.isEmpty() ? null : word2, monitor),
+        result -> outputArea.append(result + "\n"));
+  }
+
+  /**
+   * 在单独的窗口中以表格形式显示起始单词到所有单词的最短路径，计算在后台任务中进行，
+   * 结果分批追加到表格；窗口中的按钮可以把结果直接写入文本文件。
+   * 同一个起始单词的窗口已经打开时只把它移到最前，关闭窗口会取消尚未完成的计算。
+   */
+  private void showAllPathsUi(String word1) {
+    JFrame existing = pathWindows.get(word1);
+    if (existing != null) {
+      existing.toFront();
+      return;
+    }
+    PathResultTableModel model = new PathResultTableModel();
+    JTable table = new JTable(model);
+    table.getColumnModel().getColumn(0).setPreferredWidth(60);
+    table.getColumnModel().getColumn(4).setPreferredWidth(600);
+    JButton saveButton = new JButton("保存到文件");
+    saveButton.addActionListener(e -> {
+      JFileChooser fileChooser = new JFileChooser();
+      fileChooser.setSelectedFile(new File("paths_" + word1 + ".txt"));
+      if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+        String filePath = fileChooser.getSelectedFile().getAbsolutePath();
+        runTask("导出最短路径 " + filePath, false,
+            monitor -> exportShortestPaths(word1, filePath, monitor),
+            count -> outputArea.append("已写入 " + count + " 条路径到 " + filePath + "\n"));
+      }
+    });
+    JFrame frame = new JFrame("从 " + word1 + " 出发的所有最短路径");
+    frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+    frame.setSize(900, 600);
+    frame.add(new JScrollPane(table), BorderLayout.CENTER);
+    frame.add(saveButton, BorderLayout.SOUTH);
+    frame.setLocationRelativeTo(this);
+    TaskRunner.Task<Boolean> task = runTask("所有最短路径 " + word1, false, monitor -> {
+      if (!graph().contains(word1)) {
+        return false;
+      }
+      shortestPathsFrom(word1, model, monitor);
+      return true;
+    }, found -> {
+      if (!found) {
+        outputArea.append("起始单词 \"" + word1 + "\" 不在图中!\n");
+        frame.dispose();
+      }
+    });
+    frame.addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosed(WindowEvent e) {
+        pathWindows.remove(word1);
+        task.cancel();
+      }
+    });
+    pathWindows.put(word1, frame);
+    frame.setVisible(true);
   }
 
   private void calPageRankUi() {
     String word = targetWordField.getText().toLowerCase();
-    Double result = calPageRank(word);
-    outputArea.append(String.format("单词 '%s' 的PageRank值为: %.6f%n", word, result));
+    runTask(pageRankKey(word), false, monitor -> calPageRank(word, monitor),
+        result -> outputArea.append(String.format("单词 '%s' 的PageRank值为: %.6f%n", word, result)));
+  }
+
+  /**
+   * PageRank 任务的名称，同时是合并重复提交的键，因此包含所有会改变结果的开关。
+   */
+  private String pageRankKey(String word) {
+    return "PageRank " + word + " (" + (idf ? "IDF" : "均匀")
+        + ", " + pageRankWalks + " 次游走"
+        + (incrementalPageRank ? ", 增量" : "")
+        + ", " + pageRankWorkers + " 个进程)";
+  }
+
+  private void relatedWordsUi() {
+    List<String> seeds = tokenizer.tokenize(targetWordField.getText().toLowerCase());
+    if (seeds.isEmpty()) {
+      outputArea.append("请填写至少一个种子单词!\n");
+      return;
+    }
+    runTask("相关单词 " + String.join(" ", seeds), false,
+        monitor -> relatedWords(seeds, RELATED_COUNT, false), related -> {
+          if (related.isEmpty()) {
+            outputArea.append("种子单词不在图中或没有相关单词!\n");
+            return;
+          }
+          StringBuilder result =
+              new StringBuilder("与 " + String.join(", ", seeds) + " 相关的单词:\n");
+          for (Map.Entry<String, Double> entry : related.entrySet()) {
+            result.append(String.format("  %-15s %.6f%n", entry.getKey(), entry.getValue()));
+          }
+          outputArea.append(result.toString());
+        });
   }
 
   private void randomWalkUi() {
-    if (!walkStopped && walkThread != null) {
+    if (walkTask != null && !walkTask.isDone()) {
       // 中断正在运行的游走
       walkStopped = true;
-      walkThread.interrupt(); // 发送中断信号
+      walkTask.cancel(); // 设置取消标志并发送中断信号
       outputArea.append("随机游走已中断\n");
       return;
     }
 
     // 开始新的游走
     walkStopped = false;
-    walkThread = new Thread(() -> {
-      String result = randomWalks();
-      SwingUtilities.invokeLater(() -> outputArea.append("随机游走路径: " + result + "\n"));
+    walkTask = runTask("随机游走", false, monitor -> randomWalks(),
+        result -> outputArea.append("随机游走路径: " + result + "\n"));
+  }
+
+  /**
+   * 在后台提交一个图任务，正常结束时在 EDT 上把结果交给 {@code onDone}，
+   * 失败或取消时在输出区显示提示。修改词图的任务应设置 {@code exclusive}。
+   */
+  private <T> TaskRunner.Task<T> runTask(String name, boolean exclusive, TaskRunner.Job<T> job,
+                                         Consumer<T> onDone) {
+    return tasks.submit(name, exclusive, job, new TaskRunner.Listener<>() {
+      @Override
+      public void done(T result) {
+        onDone.accept(result);
+      }
+
+      @Override
+      public void failed(Throwable error) {
+        outputArea.append(name + " 失败: " + error.getMessage() + "\n");
+      }
+
+      @Override
+      public void cancelled() {
+        outputArea.append(name + " 已取消\n");
+      }
     });
-    walkThread.start();
+  }
+
+  /**
+   * 任务开始、进度变化或结束时在 EDT 上刷新状态栏。
+   */
+  private void taskChanged(TaskRunner.Task<?> task) {
+    int active = tasks.activeCount();
+    cancelButton.setEnabled(active > 0);
+    if (active == 0) {
+      progressBar.setIndeterminate(false);
+      progressBar.setValue(0);
+      progressBar.setString("空闲");
+    } else if (task.isDone()) {
+      progressBar.setIndeterminate(true);
+      progressBar.setString(active + " 个任务运行中");
+    } else {
+      progressBar.setIndeterminate(task.permille() < 0);
+      progressBar.setValue(Math.max(0, task.permille()));
+      progressBar.setString(task.key());
+    }
   }
 
   /**
    * 构建词图结构。
    *
    * <p>该方法会将输入文本中的英文单词按顺序提取出来，构建词之间的有向图结构，
-   * 统计每个单词的出现次数，并计算总词数。图中每个边的权重表示相邻词对出现的次数。.
+   * 统计每个单词的出现次数，并计算总词数。图中每个边的权重表示相邻词对出现的次数。
+   *
+   * <p>若 n-gram 阶数大于 2，还会把文本中的高阶 n-gram 计入 {@link NGramModel}。
+   * 模型必须与词图覆盖同样的文本，因此只在词图为空时创建；已有的词图没有对应的模型时
+   * （例如刚切换了阶数），不会只为追加的这段文本建立模型，随机游走和生成新文本继续使用二元词图。.
    *
-   * @param text 原始文本内容，将被统一转换为小写并按非字母字符进行分词
+   * @param text 原始文本内容，将被统一转换为小写并由当前分词器进行分词
    */
   public void buildGraph(String text) {
-    String[] words = text.toLowerCase().split("[^a-zA-Z]+");
-    wordCount = new HashMap<>();
-    wordNum = 0;
-    for (String word : words) {
-      if (!word.isEmpty()) {
-        ++wordNum;
-        graph.putIfAbsent(word, new HashMap<>());
-        wordCount.merge(word, 1, Integer::sum);
+    List<String> words = tokenizer.tokenize(text.toLowerCase());
+    WordGraph target = graph();
+    boolean fresh = target.isEmpty();
+    target.clearCounts(); // 单词次数只统计本次的文本，边则在多次构建之间累加
+    int[] ids = target.append(words);
+    NGramModel model = ngramModel; // 切换阶数时已被丢弃，非空时阶数总是与 ngramOrder 一致
+    if (model == null && fresh && ngramOrder > 2) {
+      model = new NGramModel(ngramOrder);
+      ngramModel = model;
+    }
+    if (model != null) {
+      model.add(words);
+    }
+    synchronized (storeLock) {
+      if (incrementalRank != null) {
+        incrementalRank.addPath(ids); // 只修正新边附近的残差，下一次查询时再推送
       }
     }
-    for (int i = 0; i < words.length - 1; i++) {
-      String current = words[i];
-      String next = words[i + 1];
+    invalidateGraphStore();
+  }
 
-      if (current.isEmpty() || next.isEmpty()) {
-        continue;
+  /**
+   * 从多个文件并行构建词图，替换当前的词图。
+   *
+   * <p>{@code pattern} 可以是单个文件、目录（递归读取其中所有文件）或通配符（如 {@code logs/*.gz}），
+   * gzip 压缩的文件会被自动解压。各文件分别分词，文件之间不会产生边。
+   * n-gram 阶数大于 2 时同时为全部文件重新构建高阶模型，使其与新的词图覆盖同样的文本。.
+   *
+   * @param pattern 文件路径、目录路径或通配符
+   * @param monitor 进度监视器，进度以文件数计
+   * @return 读取的文件数
+   * @throws IOException 路径不存在或读取文件失败时抛出，此时原有词图保持不变
+   * @throws CancellationException 被 {@code monitor} 取消时抛出，原有词图保持不变
+   */
+  public int loadCorpus(String pattern, ProgressMonitor monitor) throws IOException {
+    List<Path> files = CorpusIngestor.resolve(pattern);
+    NGramModel model = ngramOrder > 2 ? new NGramModel(ngramOrder) : null;
+    graph = new CorpusIngestor(tokenizer).ingest(files, new WordGraph(offHeap), model, monitor);
+    streamed = null;
+    ngramModel = model;
+    discardIncrementalRank();
+    invalidateGraphStore();
+    return files.size();
+  }
+
+  private void invalidateGraphStore() {
+    synchronized (storeLock) {
+      graphStore = null;
+      pathEngine = null;
+      reachability = null;
+      monteCarlo = null;
+      wordStatistics = null;
+    }
+  }
+
+  /**
+   * 启用或关闭流式词图。
+   *
+   * <p>启用后通过 {@link #streamText(String)} 追加的文本只在 {@code stream} 的窗口或衰减范围内
+   * 影响词图；关闭后已有的词图保持不变，可以继续用 {@link #buildGraph(String)} 等方式修改。.
+   *
+   * @param stream 流式词图，例如 {@link StreamingGraph#lastTokens(int)}；为 {@code null} 时关闭
+   */
+  public void setStreaming(StreamingGraph stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * 向流式词图追加一段文本，之后的查询使用追加后的快照。
+   *
+   * <p>文本按当前的分词器切分，每个单词的更新均摊为 O(1)。追加时不导出词图，
+   * 而是在下一次查询时由 {@link StreamingGraph#toWordGraph(boolean)} 导出一次，耗时与窗口内的单词和边数成正比，
+   * 因此连续追加的输入（聊天消息、日志行）不会在每一行都重建词图。流式模式不维护高阶 n-gram 模型。.
+   *
+   * @param text 新到达的文本
+   * @throws IllegalStateException 未通过 {@link #setStreaming(StreamingGraph)} 启用流式词图时抛出
+   */
+  public void streamText(String text) {
+    StreamingGraph current = stream;
+    if (current == null) {
+      throw new IllegalStateException("未启用流式词图");
+    }
+    List<String> tokens = tokenizer.tokenize(text.toLowerCase());
+    synchronized (storeLock) {
+      current.append(tokens);
+      streamed = current;
+    }
+    ngramModel = null;
+    discardIncrementalRank(); // 窗口会删除旧的边，增量状态只支持追加
+    invalidateGraphStore();
+  }
+
+  /**
+   * 返回当前词图，流式追加文本之后第一次访问时才由流式词图导出。
+   *
+   * @return 词图
+   */
+  private WordGraph graph() {
+    synchronized (storeLock) {
+      StreamingGraph pending = streamed;
+      if (pending != null) {
+        graph = pending.toWordGraph(offHeap);
+        streamed = null;
       }
-      graph.get(current).merge(next, 1, Integer::sum);
+      return graph;
     }
   }
 
+  /**
+   * 返回当前词图的整数 id 表示，必要时由 {@code graph} 重新构建。
+   *
+   * <p>最短路径、PageRank、桥接词和随机游走都在该快照上运行，单词字符串只在返回结果时生成。
+   * 根据 {@code offHeap} 和 {@code compressed} 标志，快照为堆外的 {@link OffHeapGraph}、
+   * 压缩的 {@link CompressedGraph} 或默认的 {@link CompactGraph}，两个标志不会同时开启。
+   * 多个后台任务同时需要快照时只构建一次。切换存储方式的开关不加锁，
+   * 只在这里发现已有快照的类型与开关不一致时重新构建，因此切换不会阻塞界面；
+   * 已有词图的存储位置与堆外开关不一致时也在这里把它迁移过去。.
+   *
+   * @return 词图存储
+   */
+  private GraphStore graphStore() {
+    synchronized (storeLock) {
+      boolean useOffHeap = offHeap;
+      boolean useCompressed = compressed;
+      boolean stale = graphStore == null
+          || (graphStore instanceof OffHeapGraph) != useOffHeap
+          || (!useOffHeap && (graphStore instanceof CompressedGraph) != useCompressed);
+      if (stale) {
+        pathEngine = null;
+        reachability = null;
+        monteCarlo = null;
+        wordStatistics = null;
+        WordGraph current = graph();
+        if (current.isOffHeap() != useOffHeap) {
+          current = current.copy(useOffHeap); // 共享词表，顶点 id 和增量 PageRank 状态保持有效
+          graph = current;
+        }
+        if (useOffHeap) {
+          graphStore = OffHeapGraph.of(current);
+        } else if (useCompressed) {
+          graphStore = CompressedGraph.of(current);
+        } else {
+          graphStore = CompactGraph.of(current);
+        }
+      }
+      return graphStore;
+    }
+  }
+
+  /**
+   * 返回点到点最短路径引擎，必要时为当前快照建立反向边索引和地标距离表。
+   *
+   * <p>引擎复用内部的搜索数组，不能同时执行两次搜索，调用方需要在引擎上同步。.
+   *
+   * @return 点到点最短路径引擎
+   */
+  private PointToPointEngine pathEngine() {
+    synchronized (storeLock) {
+      GraphStore store = graphStore();
+      int landmarks = landmarkCount;
+      if (pathEngine == null || pathEngineLandmarks != landmarks) {
+        ReverseGraph reverse = ReverseGraph.of(store);
+        pathEngine = new PointToPointEngine(store, reverse,
+            landmarks > 0 ? Landmarks.select(store, reverse, landmarks) : null, reachability());
+        pathEngineLandmarks = landmarks;
+      }
+      return pathEngine;
+    }
+  }
+
+  /**
+   * 返回当前快照的可达性索引，必要时重新构建。
+   *
+   * <p>点到点最短路径和批量最短路径用它在搜索之前排除不可达的单词对。.
+   *
+   * @return 可达性索引
+   */
+  private ReachabilityIndex reachability() {
+    synchronized (storeLock) {
+      GraphStore store = graphStore();
+      if (reachability == null) {
+        reachability = ReachabilityIndex.of(store);
+      }
+      return reachability;
+    }
+  }
+
+  /**
+   * 返回当前快照的单词统计，必要时由快照重新计算。
+   *
+   * <p>构建或追加文本都会使快照失效，因此 IDF 权重总是在词图变化后的第一次查询时算好一次，
+   * 之后的查询直接复用。.
+   *
+   * <p>{@code store} 必须是在持有 {@code storeLock} 时刚由 {@link #graphStore()} 得到的快照：
+   * 这里不再调用 {@link #graphStore()}，否则存储方式的开关在两次调用之间切换时，
+   * 统计会按另一个快照的顶点编号建立。快照重建时缓存的统计会被一并丢弃，因此缓存总是对应 {@code store}。.
+   *
+   * @param store 当前快照
+   * @return 单词统计
+   */
+  private WordStatistics wordStatistics(GraphStore store) {
+    synchronized (storeLock) {
+      if (wordStatistics == null) {
+        wordStatistics = WordStatistics.of(store);
+      }
+      return wordStatistics;
+    }
+  }
+
+  /**
+   * 返回当前快照的近似 PageRank 估计器，必要时重新创建。
+   *
+   * <p>估计器在快照失效前一直保留，提高游走次数时只追加新的游走。.
+   *
+   * @return 近似 PageRank 估计器
+   */
+  private MonteCarloPageRank monteCarlo() {
+    synchronized (storeLock) {
+      GraphStore store = graphStore();
+      if (monteCarlo == null) {
+        monteCarlo = new MonteCarloPageRank(store, random.nextLong());
+      }
+      return monteCarlo;
+    }
+  }
+
+  /**
+   * 返回增量 PageRank 的状态，必要时由 {@code graph} 重新构建。
+   *
+   * <p>状态不随快照失效：{@link #buildGraph(String)} 追加的文本直接加入已有的状态，
+   * 只有词图被整体替换时才丢弃。.
+   *
+   * @return 增量 PageRank 状态
+   */
+  private IncrementalPageRank incrementalRank() {
+    synchronized (storeLock) {
+      if (incrementalRank == null) {
+        incrementalRank = IncrementalPageRank.of(graph());
+      }
+      return incrementalRank;
+    }
+  }
+
+  private void discardIncrementalRank() {
+    synchronized (storeLock) {
+      incrementalRank = null;
+    }
+  }
+
+  /**
+   * 设置 PageRank 是否增量计算。
+   *
+   * <p>启用后由 {@link IncrementalPageRank} 计算收敛后的 PR 值，此时忽略 IDF 初始权重。
+   * 第一次查询从头推送；之后通过 {@link #buildGraph(String)} 追加文本时保留已收敛的结果，
+   * 只从新增的单词和边出发推送残差，耗时与受影响的范围成正比。关闭时丢弃保留的状态。.
+   *
+   * @param incremental 为 {@code true} 时增量计算
+   */
+  public void setIncrementalPageRank(boolean incremental) {
+    this.incrementalPageRank = incremental;
+    if (!incremental) {
+      discardIncrementalRank();
+    }
+  }
+
+  /**
+   * 设置点到点最短路径查询使用的地标个数。
+   *
+   * <p>为 0 时使用双向 Dijkstra；大于 0 时预先计算地标距离表并使用 ALT（A*）搜索。
+   * 两种方式的结果与单向 Dijkstra 完全相同，只是探索的顶点更少。.
+   *
+   * @param landmarkCount 地标个数，不能为负数
+   */
+  public void setLandmarkCount(int landmarkCount) {
+    this.landmarkCount = landmarkCount;
+  }
+
+  /**
+   * 设置近似 PageRank 每个单词出发的随机游走次数。
+   *
+   * <p>为 0 时以幂迭代精确计算；大于 0 时由 {@link MonteCarloPageRank} 估计收敛后的 PR 值，
+   * 期望 L1 误差约为 {@code 3.5 / √walks}（见 {@link MonteCarloPageRank}），此时忽略 IDF 初始权重。
+   * 估计结果随快照缓存，调大游走次数后下一次查询只追加差额部分的游走。.
+   *
+   * @param walks 每个单词的游走次数，不能为负数
+   */
+  public void setPageRankWalks(int walks) {
+    if (walks < 0) {
+      throw new IllegalArgumentException("游走次数不能为负数: " + walks);
+    }
+    this.pageRankWalks = walks;
+  }
+
+  /**
+   * 设置 PageRank 使用的工作进程数。
+   *
+   * <p>为 0 时在当前进程中迭代；大于 0 时由 {@link DistributedPageRank} 把词图按顶点划分给
+   * 同样数量的本机工作进程，结果与单进程计算只相差浮点舍入误差。.
+   *
+   * @param workers 工作进程数，不能为负数
+   */
+  public void setPageRankWorkers(int workers) {
+    if (workers < 0) {
+      throw new IllegalArgumentException("工作进程数不能为负数: " + workers);
+    }
+    this.pageRankWorkers = workers;
+  }
+
+  /**
+   * 设置是否把词图及其快照存放在堆外内存中。
+   *
+   * <p>适用于词图规模超过可用堆内存的语料。开启后新读取的文件和语料直接构建到堆外的
+   * {@link WordGraph} 中，邻接数据不经过 Java 堆；已有的词图在下一次查询时迁移，并重新构建快照。.
+   *
+   * @param offHeap 为 {@code true} 时使用 {@link OffHeapGraph}
+   * @throws IllegalStateException 已开启压缩存储时开启堆外存储
+   */
+  public void setOffHeap(boolean offHeap) {
+    if (offHeap && compressed) {
+      throw new IllegalStateException("堆外存储和压缩存储不能同时开启");
+    }
+    this.offHeap = offHeap;
+  }
+
+  /**
+   * 设置是否以差分 + 变长整数编码压缩词图快照的邻接表。
+   *
+   * <p>适用于边数很多的语料，每条边通常只占 2 到 3 字节。切换后下一次查询时重新构建快照。.
+   *
+   * <p>只有查询使用的快照被压缩：读取文件和语料仍然构建完整的 {@link WordGraph}，它要支持追加文本、
+   * 桥接词查询和增量 PageRank，因此与压缩快照同时保留在堆中，总内存并不比默认方式少。
+   * 只需要查询、不再修改的大语料应直接用 {@link CompressedGraph.Builder} 构建。.
+   *
+   * @param compressed 为 {@code true} 时使用 {@link CompressedGraph}
+   * @throws IllegalStateException 已开启堆外存储时开启压缩存储
+   */
+  public void setCompressed(boolean compressed) {
+    if (compressed && offHeap) {
+      throw new IllegalStateException("堆外存储和压缩存储不能同时开启");
+    }
+    this.compressed = compressed;
+  }
+
+  /**
+   * 设置 n-gram 阶数。
+   *
+   * <p>阶数大于 2 时，{@link #buildGraph(String)} 会额外构建 {@link NGramModel}，
+   * {@link #generateNewText(String)} 和 {@link #randomWalks()} 将以最近 n−1 个单词为条件选词。
+   * 模型总是与词图覆盖同样的文本：切换阶数会丢弃已有的高阶模型，新的模型在下一次读取文件或语料
+   * （或在空词图上构建）时与词图一起建立，在此之前随机游走和生成新文本使用二元词图。.
+   *
+   * @param order 阶数，取值 2 到 {@link NGramModel#MAX_ORDER}
+   */
+  public void setNGramOrder(int order) {
+    if (order < 2 || order > NGramModel.MAX_ORDER) {
+      throw new IllegalArgumentException("阶数必须在 2 到 " + NGramModel.MAX_ORDER + " 之间: " + order);
+    }
+    if (ngramOrder != order) {
+      ngramOrder = order;
+      ngramModel = null;
+    }
+  }
+
+  /**
+   * 设置构建词图和生成新文本时使用的分词器。
+   *
+   * <p>默认使用 {@link AsciiTokenizer}。切换分词器只影响之后的构建与查询，不会重建已有的词图。.
+   *
+   * @param tokenizer 新的分词器，不能为空
+   */
+  public void setTokenizer(Tokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+  }
+
   /**
    * 查找两个单词之间的桥接词（bridge words）。
    *
@@ -423,25 +1074,45 @@ public class GraphProcessor extends JFrame {
    *
    * @param word1 起始单词
    * @param word2 目标单词
-   * @return 所有桥接词组成的集合；如果没有桥接词，则返回空集
-   * @throws NullPointerException 如果 {@code word1} 在图中不存在
+   * @return 所有桥接词组成的集合；如果没有桥接词或任一单词不在图中，则返回空集
    */
   public Set<String> bridgeWords(String word1, String word2) {
     Set<String> bridges = new HashSet<>();
-    Map<String, Integer> word1Neighbors = graph.get(word1);
-
-    for (String neighbor : word1Neighbors.keySet()) {
-      //这一判断其实已经没什么必要了，因为在buildGraph中已经保证每个单词都在graph中
-      if (graph.containsKey(neighbor)) {
-        Map<String, Integer> neighborNeighbors = graph.get(neighbor);
-        if (neighborNeighbors.containsKey(word2)) {
-          bridges.add(neighbor);
-        }
+    GraphStore store = graphStore();
+    int from = store.id(word1);
+    int to = store.id(word2);
+    if (from < 0 || to < 0) {
+      return bridges;
+    }
+    GraphStore.EdgeCursor cursor = store.cursor();
+    cursor.reset(from);
+    while (cursor.next()) {
+      int neighbor = cursor.target();
+      if (store.edgeWeight(neighbor, to) > 0) {
+        bridges.add(store.word(neighbor));
       }
     }
     return bridges;
   }
 
+  /**
+   * 并行计算所有单词对之间的桥接词，并导出为紧凑的二进制文件。
+   *
+   * <p>导出结果与逐对调用 {@link #bridgeWords(String, String)} 相同，
+   * 另外记录了经每个桥接词的路径权重乘积，可以用 {@link BridgeMatrixReader} 流式读回。.
+   *
+   * @param filePath 输出文件路径
+   * @return 至少有一个桥接词的单词对个数
+   * @throws IOException 写入文件失败时抛出
+   */
+  @SuppressFBWarnings(
+      value = "PATH_TRAVERSAL_IN",
+      justification = "BY DESIGN: The output path is chosen by the caller."
+  )
+  public long exportBridgeMatrix(String filePath) throws IOException {
+    return new BridgeMatrixExporter(graphStore()).export(Paths.get(filePath));
+  }
+
   /**
    * 查询两个单词之间的桥接词，并返回格式化的结果字符串。
    *
@@ -453,7 +1124,7 @@ public class GraphProcessor extends JFrame {
    * @return 包含查询结果的字符串，便于直接显示给用户
    */
   public String queryBridgeWords(String word1, String word2) {
-    if (!graph.containsKey(word1) || !graph.containsKey(word2)) {
+    if (!graph().contains(word1) || !graph().contains(word2)) {
       return "No \"" + word1 + "\" or \"" + word2 + "\" in the graph!";
     }
 
@@ -490,44 +1161,106 @@ public class GraphProcessor extends JFrame {
    * 基于桥接词生成新的文本。
    *
    * <p>该方法会分析输入文本中的相邻单词，尝试在它们之间插入桥接词（如果存在）。
-   * 生成的文本保持原单词的大小写和顺序，桥接词则统一小写插入（如果存在多个桥接词，则随机选取一个插入）。.
+   * 生成的文本保持原单词的大小写和顺序，桥接词则统一小写插入（如果存在多个桥接词，则随机选取一个插入）。
+   * 被分隔符隔开的单词之间以一个空格连接；CJK 二元切分得到的重叠单词来自同一段原文，
+   * 按原文输出，不会被拆成互相重叠的二元组，桥接词也只插入在段与段之间。
+   *
+   * <p>启用高阶 n-gram 模型时，多个桥接词按它们在已生成文本最近 n−1 个单词之后出现的次数加权选取，
+   * 模型中没有相应上下文时仍均匀随机选取。.
    *
    * @param inputText 原始输入文本，可以包含大小写和非字母字符，也可以是空字符串
    * @return 插入桥接词后的新文本；如果输入非空且不含有效单词，则返回提示信息
    */
   public String generateNewText(String inputText) {
-    String[] words = inputText.toLowerCase().split("[^a-zA-Z]+");
-    String[] originalWords = inputText.split("[^a-zA-Z]+"); //没有小写的原始单词
-    if (words.length < 1) {
-      return "输入文本似乎不包含任何单词!";
+    return generateNewText(inputText, ProgressMonitor.NONE);
+  }
+
+  /**
+   * 与 {@link #generateNewText(String)} 相同，每处理一对相邻单词报告一次进度并检查取消标志。
+   *
+   * @param inputText 原始输入文本
+   * @param monitor   进度监视器，进度以单词对计
+   * @return 插入桥接词后的新文本
+   * @throws CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public String generateNewText(String inputText, ProgressMonitor monitor) {
+    List<Tokenizer.Span> spans = tokenizer.spans(inputText);
+    WordGraph words = graph();
+    if (spans.isEmpty()) {
+      return inputText.isEmpty() ? "" : "输入文本似乎不包含任何单词!";
     }
     StringBuilder newText = new StringBuilder();
+    NGramModel model = ngramModel;
+    int[] history = new int[spans.size() * 2]; // 已生成单词在 n-gram 模型中的 id
+    int historySize = 0;
+    Tokenizer.Span first = spans.getFirst();
+    newText.append(inputText, first.start(), first.end());
+
+    for (int i = 0; i < spans.size() - 1; i++) {
+      monitor.checkCancelled();
+      monitor.progress(i, spans.size() - 1);
+      Tokenizer.Span span = spans.get(i);
+      Tokenizer.Span nextSpan = spans.get(i + 1);
+      //没有小写的原始单词
+      String current = inputText.substring(span.start(), span.end()).toLowerCase();
+      String next = inputText.substring(nextSpan.start(), nextSpan.end()).toLowerCase();
+      if (model != null) {
+        history[historySize++] = model.id(current);
+      }
+      if (nextSpan.start() < span.end()) {
+        // CJK 二元组互相重叠，属于同一段原文，只补上新增的字符
+        newText.append(inputText, span.end(), nextSpan.end());
+        continue;
+      }
 
-    for (int i = 0; i < words.length - 1; i++) {
-      String current = words[i];
-      String next = words[i + 1];
-
-      newText.append(originalWords[i]).append(" ");
-
-      if (graph.containsKey(current) && graph.containsKey(next)) {
+      newText.append(" ");
+      if (words.contains(current) && words.contains(next)) {
         Set<String> bridges = bridgeWords(current, next);
         // 如果有桥接词，则随机选择一个
         if (!bridges.isEmpty()) {
-          String bridge = new ArrayList<>(bridges).get(random.nextInt(bridges.size()));
+          String bridge = model == null
+              ? new ArrayList<>(bridges).get(random.nextInt(bridges.size()))
+              : chooseBridge(model, new ArrayList<>(bridges), history, historySize);
           newText.append(bridge).append(" ");
+          if (model != null) {
+            history[historySize++] = model.id(bridge);
+          }
         }
       }
+      newText.append(inputText, nextSpan.start(), nextSpan.end());
     }
-    newText.append(originalWords[words.length - 1]);
 
     return newText.toString();
   }
 
+  /**
+   * 按 n-gram 模型中的出现次数加权选取桥接词，所有候选次数都为 0 时均匀选取。
+   */
+  private String chooseBridge(NGramModel model, List<String> bridges, int[] history,
+                              int historySize) {
+    int[] weights = new int[bridges.size()];
+    int total = 0;
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = model.count(history, historySize, model.id(bridges.get(i)));
+      total += weights[i];
+    }
+    if (total == 0) {
+      return bridges.get(random.nextInt(bridges.size()));
+    }
+    int r = random.nextInt(total);
+    int i = 0;
+    while (r >= weights[i]) {
+      r -= weights[i++];
+    }
+    return bridges.get(i);
+  }
+
   /**
    * 计算指定起始单词到目标单词（或所有节点）的最短路径，并返回详细路径描述。
    *
-   * <p>该方法使用 Dijkstra 算法在词图中计算最短路径。若 {@code word2} 为空，
-   * 则计算起始单词到图中所有其他单词的最短路径并输出；否则只计算起始单词到目标单词的路径。
+   * <p>若 {@code word2} 为空，则使用 Dijkstra 算法计算起始单词到图中所有其他单词的最短路径并输出；
+   * 否则使用 {@link PointToPointEngine}（双向 Dijkstra 或 ALT）只计算起始单词到目标单词的路径，
+   * 两个单词不可达时由 {@link ReachabilityIndex} 直接判定，无需搜索。
    *
    * <p>当 {@code showPathOnGraph} 标志为 {@code true} 时，将使用图形界面显示所有最短路径，
    * 路径上的边和节点会被不同颜色高亮。.
@@ -537,83 +1270,68 @@ public class GraphProcessor extends JFrame {
    * @return 包含最短路径信息的字符串描述，如果起始或目标单词不存在，则返回错误提示
    */
   public String calcShortestPath(String word1, String word2) {
-    if (!graph.containsKey(word1)) {
+    return calcShortestPath(word1, word2, ProgressMonitor.NONE);
+  }
+
+  /**
+   * 与 {@link #calcShortestPath(String, String)} 相同，计算所有路径时报告进度并检查取消标志。
+   *
+   * @param word1   起始单词
+   * @param word2   目标单词，若为 {@code null} 则计算所有路径
+   * @param monitor 进度监视器，进度以目标单词计
+   * @return 最短路径信息的字符串描述
+   * @throws CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public String calcShortestPath(String word1, String word2, ProgressMonitor monitor) {
+    if (!graph().contains(word1)) {
       return "起始单词 \"" + word1 + "\" 不在图中!";
     }
-    if (word2 != null && !graph.containsKey(word2)) {
+    if (word2 != null && !graph().contains(word2)) {
       return "目标单词 \"" + word2 + "\" 不在图中!";
     }
-    Map<String, Integer> distances = new HashMap<>(); // 存储最短距离
-    Map<String, List<String>> previous = new HashMap<>(); // 存储前驱节点
-    PriorityQueue<String> queue = new PriorityQueue<>(
-        Comparator.comparingInt(distances::get)); // 优先队列
-
-    // 初始化
-    for (String node : graph.keySet()) {
-      if (node.equals(word1)) {
-        distances.put(node, 0); // 起始节点距离为0
-      } else {
-        distances.put(node, Integer.MAX_VALUE); // 其他节点距离为无穷大
-      }
-      queue.add(node);
-    }
-
-    // Dijkstra算法
-    while (!queue.isEmpty()) {
-      String current = queue.poll();
-      if (distances.getOrDefault(current, Integer.MAX_VALUE) == Integer.MAX_VALUE) {
-        break;
-      }
-
-      for (Map.Entry<String, Integer> neighbor : graph.getOrDefault(current, Collections.emptyMap())
-          .entrySet()) {
-        String next = neighbor.getKey();
-        int newDist = distances.get(current) + neighbor.getValue();
-
-        if (newDist < distances.getOrDefault(next, Integer.MAX_VALUE)) {
-          distances.put(next, newDist);
-          previous.put(next, new ArrayList<>(List.of(current)));
-          queue.remove(next);
-          queue.add(next);
-        } else if (newDist == distances.get(next)) {
-          previous.get(next).add(current);
-        }
+    GraphStore store;
+    PointToPointEngine engine = null;
+    synchronized (storeLock) { // 保证引擎与快照一致
+      store = graphStore();
+      if (word2 != null) {
+        engine = pathEngine();
       }
     }
+    int source = store.id(word1);
 
     // 输出所有路径
     StringBuilder result = new StringBuilder();
     List<List<String>> allPaths = new ArrayList<>();
+    List<Integer> pathDistances = new ArrayList<>();
     if (word2 == null) {
-      for (String node : graph.keySet()) {
-        if (!node.equals(word1)) {
-          List<List<String>> paths = new ArrayList<>();
-          findPaths(node, word1, previous, new ArrayList<>(), paths);
-          if (paths.isEmpty()) {
-            result.append("从 ").append(word1).append(" 到 ").append(node).append(" 没有路径\n");
-          } else {
-            allPaths.addAll(paths); //添加进总表
-            result.append("从 ").append(word1).append(" 到 ").append(node)
-                .append(" 的所有最短路径:\n");
-            for (List<String> path : paths) {
-              result.append("Path ").append(allPaths.indexOf(path) + 1).append(": ");
-              result.append(String.join(" -> ", path)).append(" (距离: ")
-                  .append(distances.get(node)).append(")\n");
-            }
-          }
+      StringWriter text = new StringWriter();
+      PathResultWriter writer = new PathResultWriter(text);
+      shortestPathsFrom(word1, path -> {
+        writer.accept(path);
+        for (List<String> words : path.paths()) {
+          allPaths.add(words); //添加进总表
+          pathDistances.add(path.distance());
         }
-      }
+      }, monitor);
+      result.append(text);
     } else {
-      findPaths(word2, word1, previous, new ArrayList<>(), allPaths);
+      PointToPointEngine.Result shortest;
+      synchronized (engine) {
+        shortest = engine.search(source, store.id(word2));
+      }
+      for (int[] path : shortest.paths()) {
+        allPaths.add(toWords(store, path));
+        pathDistances.add(shortest.distance());
+      }
       if (allPaths.isEmpty()) {
         result.append("没有从 ").append(word1).append(" 到 ").append(word2).append(" 的路径。");
       } else {
         result.append("从 ").append(word1).append(" 到 ").append(word2)
             .append(" 的所有最短路径:\n");
-        for (List<String> path : allPaths) {
-          result.append("Path ").append(allPaths.indexOf(path) + 1).append(": ");
-          result.append(String.join(" -> ", path)).append(" (距离: ").append(distances.get(word2))
-              .append(")\n");
+        for (int i = 0; i < allPaths.size(); i++) {
+          result.append("Path ").append(i + 1).append(": ");
+          result.append(String.join(" -> ", allPaths.get(i))).append(" (距离: ")
+              .append(shortest.distance()).append(")\n");
         }
       }
     }
@@ -628,7 +1346,7 @@ public class GraphProcessor extends JFrame {
           String to = path.get(j + 1);
           // 添加边并设置颜色 字的颜色和边的颜色相同
           g.add(node(from).link(to(node(to)).with(
-              Label.of("(" + distances.get(path.getLast()) + ")" + "Path " + (i + 1)),
+              Label.of("(" + pathDistances.get(i) + ")" + "Path " + (i + 1)),
               colors.get(i))));
 
         }
@@ -638,24 +1356,127 @@ public class GraphProcessor extends JFrame {
     return result.toString();
   }
 
-  private static void findPaths(String current, String start, Map<String, List<String>> previous,
-      List<String> path, List<List<String>> allPaths) {
-    if (current.equals(start)) {
-      List<String> fullPath = new ArrayList<>(path);
-      fullPath.add(start);
-      Collections.reverse(fullPath);
-      allPaths.add(fullPath);
+  /**
+   * 计算起始单词到图中所有其他单词的最短路径，并把结果逐条交给 {@code sink}。
+   *
+   * <p>与 {@code calcShortestPath(word1, null)} 的计算相同，但不生成描述文本，
+   * 每个目标单词的结果计算完即交出，适合配合 {@link PathResultWriter} 写入文件
+   * 或在表格中分批显示。起始单词不在图中时只交出一条目标为 {@code null} 的
+   * {@link PathResult.Status#UNKNOWN_SOURCE} 结果。.
+   *
+   * @param word1 起始单词
+   * @param sink  结果接收者，在调用线程中依次调用
+   */
+  public void shortestPathsFrom(String word1, PathResultSink sink) {
+    shortestPathsFrom(word1, sink, ProgressMonitor.NONE);
+  }
+
+  /**
+   * 与 {@link #shortestPathsFrom(String, PathResultSink)} 相同，搜索过程中检查取消标志，
+   * 交出结果时按已处理的目标单词数报告进度。
+   *
+   * @param word1   起始单词
+   * @param sink    结果接收者，在调用线程中依次调用
+   * @param monitor 进度监视器
+   * @throws CancellationException 被 {@code monitor} 取消时抛出，已交出的结果不会撤回
+   */
+  public void shortestPathsFrom(String word1, PathResultSink sink, ProgressMonitor monitor) {
+    GraphStore store = graphStore();
+    int source = store.id(word1);
+    if (source < 0) {
+      sink.accept(PathResult.missing(word1, null, PathResult.Status.UNKNOWN_SOURCE));
       return;
     }
-    if (!previous.containsKey(current)) {
-      return;
+    ShortestPaths shortest = ShortestPaths.from(store, source, null, monitor); // Dijkstra算法
+    int n = store.vertexCount();
+    for (int node = 0; node < n; node++) {
+      if ((node & 0xFF) == 0) {
+        monitor.checkCancelled();
+        monitor.progress(node, n);
+      }
+      if (node != source) {
+        List<int[]> paths = shortest.paths(node);
+        if (paths.isEmpty()) {
+          sink.accept(PathResult.missing(word1, store.word(node), PathResult.Status.NO_PATH));
+        } else {
+          List<List<String>> words = new ArrayList<>(paths.size());
+          for (int[] path : paths) {
+            words.add(toWords(store, path));
+          }
+          sink.accept(new PathResult(word1, store.word(node), PathResult.Status.FOUND,
+              shortest.distance(node), paths.size(), words));
+        }
+      }
     }
+  }
+
+  /**
+   * 计算起始单词到所有其他单词的最短路径，并以文本形式直接写入文件，不在内存中拼接整个结果。
+   *
+   * @param word1    起始单词
+   * @param filePath 输出文件路径
+   * @return 写出的路径条数
+   * @throws IOException 写入文件失败时抛出
+   */
+  public int exportShortestPaths(String word1, String filePath) throws IOException {
+    return exportShortestPaths(word1, filePath, ProgressMonitor.NONE);
+  }
 
-    path.add(current);
-    for (String prev : previous.get(current)) {
-      findPaths(prev, start, previous, path, allPaths);
+  /**
+   * 与 {@link #exportShortestPaths(String, String)} 相同，写出过程中报告进度并检查取消标志。
+   *
+   * @param word1    起始单词
+   * @param filePath 输出文件路径
+   * @param monitor  进度监视器
+   * @return 写出的路径条数
+   * @throws IOException 写入文件失败时抛出
+   * @throws CancellationException 被 {@code monitor} 取消时抛出，文件中只有已写出的部分
+   */
+  @SuppressFBWarnings(
+      value = "PATH_TRAVERSAL_IN",
+      justification = "BY DESIGN: The output path is chosen by the caller."
+  )
+  public int exportShortestPaths(String word1, String filePath, ProgressMonitor monitor)
+      throws IOException {
+    try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filePath),
+        StandardCharsets.UTF_8)) {
+      PathResultWriter writer = new PathResultWriter(out);
+      try {
+        shortestPathsFrom(word1, writer, monitor);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      return writer.pathCount();
     }
-    path.removeLast();
+  }
+
+  private static List<String> toWords(GraphStore g, int[] path) {
+    List<String> words = new ArrayList<>(path.length);
+    for (int v : path) {
+      words.add(g.word(v));
+    }
+    return words;
+  }
+
+  /**
+   * 批量计算多个（起始单词, 目标单词）对之间的最短路径，并把结构化结果逐条交给 {@code sink}。
+   *
+   * <p>相同起始单词的查询共用一次提前结束的 Dijkstra 搜索，不同起始单词并行计算，
+   * 不会生成描述文本，也不会在图上显示路径。.
+   *
+   * @param pairs    查询对，单词应为小写
+   * @param maxPaths 每个查询对最多枚举的路径条数；为 0 时只统计路径条数
+   * @param sink     结果接收者
+   */
+  public void batchShortestPaths(List<BatchShortestPaths.WordPair> pairs, int maxPaths,
+                                 PathResultSink sink) {
+    GraphStore store;
+    ReachabilityIndex index;
+    synchronized (storeLock) {
+      store = graphStore();
+      index = reachability();
+    }
+    new BatchShortestPaths(store, index).run(pairs, maxPaths, sink);
   }
 
   /**
@@ -665,73 +1486,126 @@ public class GraphProcessor extends JFrame {
    * <br>当 {@code idf} 标志为 {@code true} 时，初始权重基于单词的逆文档频率（IDF）进行归一化，
    * 否则所有单词初始权重均等。
    *
-   * <p>算法考虑悬挂节点（无出边节点）对 PageRank 的贡献，并采用阻尼因子 0.85。.
+   * <p>算法考虑悬挂节点（无出边节点）对 PageRank 的贡献，并采用阻尼因子 0.85。
+   *
+   * <p>通过 {@link #setPageRankWalks(int)} 启用近似模式后，改为由随机游走估计收敛后的 PR 值；
+   * 通过 {@link #setIncrementalPageRank(boolean)} 启用增量模式后，改为推送残差得到收敛后的 PR 值；
+   * 通过 {@link #setPageRankWorkers(int)} 可把迭代分给多个本机工作进程。.
    *
    * @param word 需要计算 PageRank 的单词
    * @return 该单词的 PageRank 值，若单词不在词图中则返回 0.0
    */
   public Double calPageRank(String word) {
-    if (!graph.containsKey(word)) {
+    return calPageRank(word, ProgressMonitor.NONE);
+  }
+
+  /**
+   * 与 {@link #calPageRank(String)} 相同，每次迭代报告进度并检查取消标志。
+   *
+   * @param word    需要计算 PageRank 的单词
+   * @param monitor 进度监视器，进度以迭代次数计
+   * @return 该单词的 PageRank 值，若单词不在词图中则返回 0.0
+   * @throws CancellationException 被 {@code monitor} 取消时抛出
+   * @throws UncheckedIOException 使用多进程计算且工作进程启动或通信失败时抛出
+   */
+  public Double calPageRank(String word, ProgressMonitor monitor) {
+    if (!graph().contains(word)) {
       return 0.0;
     }
 
-    // 初始化PageRank值
-    double initialRank = 1.0 / graph.size();
-    double coefficient = 1.0;
-    if (idf) {
-      double totalIdfValue = 0.0;
-      for (Map.Entry<String, Integer> entry : wordCount.entrySet()) {
-        double idfValue = Math.log((double) wordNum / (entry.getValue() + 1));
-        totalIdfValue += idfValue;
-      }
-      coefficient = 1.0 / totalIdfValue; //归一化
-    }
-    Map<String, Double> currentRank = new HashMap<>();
-    for (String node : graph.keySet()) {
-      if (idf) {
-        double idfValue = Math.log((double) wordNum / (wordCount.get(node) + 1)) * coefficient;
-        currentRank.put(node, idfValue);
-      } else {
-        currentRank.put(node, initialRank);
+    int walks = pageRankWalks;
+    if (walks > 0 && graph().edgeCount() > 0) { // 没有边时 PageRank 不收敛，仍按固定迭代计算
+      MonteCarloPageRank estimator = monteCarlo();
+      synchronized (estimator) {
+        if (estimator.walksPerVertex() < walks) {
+          estimator.addWalks(walks - estimator.walksPerVertex(), monitor);
+        }
+        return estimator.rank(word); // 在估计器自己的快照中查找，期间切换存储方式也不会错位
       }
     }
 
-    // 迭代计算PageRank (10次迭代)
-    for (int i = 0; i < 10; i++) {
-      Map<String, Double> nextRank = new HashMap<>();
-      double danglingRank = 0.0;
-
-      // 计算悬挂节点的贡献
-      for (Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
-        String node = entry.getKey();
-        if (entry.getValue().isEmpty()) {
-          danglingRank += currentRank.get(node) / graph.size();
-        }
+    if (incrementalPageRank) {
+      IncrementalPageRank state = incrementalRank();
+      if (state.edgeCount() > 0) { // 与近似模式相同，没有边时按固定迭代计算
+        state.update(monitor);
+        return state.rank(word);
       }
+    }
 
-      // 计算每个节点的PageRank
-      for (String node : graph.keySet()) {
-        double rank = danglingRank + (1 - 0.85) / graph.size();
-
-        for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
-          if (entry.getValue().containsKey(node)) {
-            rank += 0.85 * currentRank.get(entry.getKey()) / entry.getValue().size();
-          }
-        }
-
-        nextRank.put(node, rank);
+    // 初始化PageRank值
+    GraphStore g;
+    double[] initialRank = null;
+    synchronized (storeLock) { // IDF 权重必须与 g 使用同一套顶点编号
+      g = graphStore();
+      if (idf) {
+        initialRank = wordStatistics(g).idfWeights(); // 已归一化，随快照缓存
       }
+    }
+    int n = g.vertexCount();
+    if (initialRank == null) {
+      initialRank = new double[n];
+      Arrays.fill(initialRank, 1.0 / n);
+    }
 
-      currentRank = nextRank;
+    // 迭代计算PageRank (10次迭代)
+    double[] currentRank;
+    int workers = pageRankWorkers;
+    if (workers > 0) {
+      try {
+        currentRank = new DistributedPageRank(workers).compute(g, initialRank, 10, 0.0, monitor);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    } else {
+      currentRank = PageRank.compute(g, initialRank, 10, monitor);
     }
-    //Print sorted data. FOR DEBUG
-    //List<Map.Entry<String, Double>> sortedRank = new ArrayList<>(currentRank.entrySet());
-    //sortedRank.sort((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()));
-    //for (Map.Entry<String, Double> entry : sortedRank)
+    //Print data. FOR DEBUG
+    //for (int v = 0; v < n; v++)
     //{
-    //    System.out.printf("%-15s : %.4f%n", entry.getKey(), entry.getValue());
+    //    System.out.printf("%-15s : %.4f%n", g.word(v), currentRank[v]);
     //}
-    return currentRank.get(word);
+    return currentRank[g.id(word)];
+  }
+
+  /**
+   * 查询与种子单词最相关的单词，基于以种子为中心的个性化 PageRank。
+   *
+   * <p>默认使用 {@link PersonalizedPageRank#push(GraphStore, int[], double)} 局部前向推送，
+   * 只访问种子附近的顶点，耗时与图的规模无关；{@code exact} 为 {@code true} 时改用整图幂迭代，
+   * 用于校验近似结果。种子单词本身不出现在结果中。.
+   *
+   * @param seeds 种子单词，不在图中的单词会被忽略
+   * @param k     返回的单词数上限
+   * @param exact 是否使用整图幂迭代精确计算
+   * @return 按得分降序排列的 单词 → 得分 映射；若没有有效的种子单词则返回空映射
+   */
+  public Map<String, Double> relatedWords(List<String> seeds, int k, boolean exact) {
+    Map<String, Double> related = new LinkedHashMap<>();
+    GraphStore store = graphStore();
+    int[] ids = seeds.stream().mapToInt(store::id).filter(id -> id >= 0).distinct().toArray();
+    if (ids.length == 0) {
+      return related;
+    }
+    int[] top;
+    IntToDoubleFunction score;
+    if (exact) {
+      double[] scores = PersonalizedPageRank.exact(store, ids, 1e-12, 1000);
+      top = IntStream.range(0, scores.length).boxed()
+          .sorted(Comparator.comparingDouble((Integer v) -> scores[v]).reversed())
+          .limit(k + ids.length).mapToInt(Integer::intValue).toArray();
+      score = v -> scores[v];
+    } else {
+      PersonalizedPageRank ppr = PersonalizedPageRank.push(store, ids, RELATED_EPSILON);
+      top = ppr.topK(k + ids.length);
+      score = ppr::score;
+    }
+    for (int v : top) {
+      boolean seed = Arrays.stream(ids).anyMatch(id -> id == v);
+      if (!seed && related.size() < k && score.applyAsDouble(v) > 0) {
+        related.put(store.word(v), score.applyAsDouble(v));
+      }
+    }
+    return related;
   }
 
   /**
@@ -743,16 +1617,28 @@ public class GraphProcessor extends JFrame {
    * <p>游走过程会实时将访问的节点写入名为 {@code walk_log.txt} 的日志文件，若遇异常会返回错误信息。
    * 支持在游走过程中通过中断线程主动停止，且会将中断信息写入日志。
    *
-   * <p>当 {@code walkDelay} 为 {@code true} 时，游走每步之间会暂停300毫秒，便于可视化等用途。.
+   * <p>当 {@code walkDelay} 为 {@code true} 时，游走每步之间会暂停300毫秒，便于可视化等用途。
+   *
+   * <p>启用高阶 n-gram 模型时，下一个单词按最近 n−1 个单词之后的出现次数加权抽取，
+   * 环路以重复出现的 n 元组（而不是重复的边）判定。
+   *
+   * <p>访问过的边以打包的顶点 id 记录在基本类型哈希表中，游走每一步不创建字符串或其他对象。.
    *
    * @return 返回游走路径，节点间用 " -> " 连接；异常或停止时返回相应提示信息。
    */
   public String randomWalks() {
-    if (graph.isEmpty()) {
+    if (graph().isEmpty()) {
       return "图为空，无法进行随机游走！";
     }
 
-    String currentNode = graph.keySet().toArray(new String[0])[random.nextInt(graph.size())];
+    GraphStore g = graphStore();
+    NGramModel model = ngramModel;
+    if (model != null && model.vocabularySize() == 0) {
+      model = null; // 空模型中没有可以出发的单词，退回二元词图
+    }
+    int currentNode = random.nextInt(model == null ? g.vertexCount() : model.vocabularySize());
+    int[] history = new int[16]; // n-gram 模式下已走过的单词 id
+    int historySize = 0;
     walkPath.clear();
     visitedEdges.clear();
     walkStopped = false;
@@ -766,12 +1652,23 @@ public class GraphProcessor extends JFrame {
           StandardOpenOption.CREATE,      // 文件不存在则创建
           StandardOpenOption.APPEND);       // 追加模式（等效于 FileWriter 的 true）
       while (!walkStopped && !Thread.interrupted()) {
-        walkPath.add(currentNode);
+        String currentWord = model == null ? g.word(currentNode) : model.word(currentNode);
+        walkPath.add(currentWord);
         //every time a word is added, put it into a file
-        writer.write(currentNode + " ");
+        writer.write(currentWord);
+        writer.write(' ');
         writer.flush();
-        List<String> neighbors = new ArrayList<>(graph.get(currentNode).keySet());
-        if (neighbors.isEmpty()) {
+        int nextNode;
+        if (model == null) {
+          nextNode = g.randomNeighbor(currentNode, random);
+        } else {
+          if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+          }
+          history[historySize++] = currentNode;
+          nextNode = model.sample(history, historySize, random);
+        }
+        if (nextNode < 0) {
           writer.write("[END-NO NEIGHBORS]\n");
           writer.flush();
           walkStopped = true;
@@ -779,15 +1676,21 @@ public class GraphProcessor extends JFrame {
           break;
         }
 
-        String nextNode = neighbors.get(random.nextInt(neighbors.size()));
-        String edge = currentNode + "->" + nextNode;
-        if (visitedEdges.contains(edge)) {
+        long edge;
+        int edgeId; // 游走开头不足 n 个单词的元组之后会作为前缀驻留，因此同样分配新编号
+        if (model == null) {
+          edge = LongIntMap.pack(currentNode, nextNode);
+          edgeId = 0;
+        } else {
+          edge = walkEdgeKey(model, history, historySize, nextNode);
+          edgeId = model.vocabularySize() + visitedEdges.size();
+        }
+        if (visitedEdges.putIfAbsent(edge, edgeId) >= 0) {
           writer.write("[END-CYCLE]\n");
           writer.flush();
           walkStopped = true;
           passiveStop = false; // 主动停止
         } else {
-          visitedEdges.add(edge);
           currentNode = nextNode;
         }
         if (walkDelay) {
@@ -820,6 +1723,25 @@ public class GraphProcessor extends JFrame {
     return String.join(" -> ", walkPath);
   }
 
+  /**
+   * 返回 n-gram 模式下游走一步的键：最近 n−1 个单词（{@code history} 的末尾）后接 {@code next}。
+   *
+   * <p>单词序列按前缀逐级驻留到 {@code visitedEdges} 中：单个单词的编号为其 id，
+   * 较长序列的编号由（前缀编号, 末尾单词）这一对分配，从词表大小开始递增，
+   * 因此不同的序列总有不同的编号，两个键相同当且仅当对应的 n 元组相同。
+   * 驻留的前缀比完整的 n 元组短，不会与之混淆。.
+   */
+  private long walkEdgeKey(NGramModel model, int[] history, int size, int next) {
+    int start = Math.max(0, size - (model.order() - 1));
+    int id = history[start];
+    for (int i = start + 1; i < size; i++) {
+      int fresh = model.vocabularySize() + visitedEdges.size();
+      int existing = visitedEdges.putIfAbsent(LongIntMap.pack(id, history[i]), fresh);
+      id = existing >= 0 ? existing : fresh;
+    }
+    return LongIntMap.pack(id, next);
+  }
+
   /**
    * 根据当前的词图数据生成有向图的可视化图形文件，并在界面中显示图形。
    *
@@ -828,13 +1750,15 @@ public class GraphProcessor extends JFrame {
    * {@code filename} 的文件名部分。
    *
    * <p>生成成功后，会在文本输出区域打印提示信息，并调用 {@link #displayGraph(MutableGraph)} 显示生成的图形。
-   * 如果生成过程抛出异常，则会捕获并在输出区域显示错误信息。.
+   * 如果生成过程抛出异常，则会捕获并在输出区域显示错误信息。
+   *
+   * <p>渲染大图耗时较长，界面通过后台任务调用该方法，对界面的更新会转到事件调度线程执行。.
    *
    * @param filename 指定生成图形文件的路径或文件名（仅文件名部分被使用）
    */
   public void showDirectedGraph(String filename) {
-    if (graph.isEmpty()) {
-      outputArea.append("图为空，无法生成图形文件！\n");
+    if (graph().isEmpty()) {
+      appendOutput("图为空，无法生成图形文件！\n");
       return;
     }
     try {
@@ -846,10 +1770,21 @@ public class GraphProcessor extends JFrame {
           .render(Format.PNG)
           .toFile(new File(FilenameUtils.getName(filename)));
 
-      outputArea.append("图形文件已保存为 " + filename + "\n");
+      appendOutput("图形文件已保存为 " + filename + "\n");
       displayGraph(g);
     } catch (Exception e) {
-      outputArea.append("生成图形文件失败: " + e.getMessage() + "\n");
+      appendOutput("生成图形文件失败: " + e.getMessage() + "\n");
+    }
+  }
+
+  /**
+   * 在输出区追加文本；不在事件调度线程中调用时转到事件调度线程执行。
+   */
+  private void appendOutput(String text) {
+    if (SwingUtilities.isEventDispatchThread()) {
+      outputArea.append(text);
+    } else {
+      SwingUtilities.invokeLater(() -> outputArea.append(text));
     }
   }
 
@@ -863,7 +1798,8 @@ public class GraphProcessor extends JFrame {
    *   <li>将解析后的 SVG 文档设置到界面中的 {@code svgCanvas} 组件，实现图形的可视化显示。</li>
    * </ul>
    *
-   * <p>如果渲染或解析过程中发生异常，会捕获并打印堆栈跟踪，避免程序崩溃。.
+   * <p>如果渲染或解析过程中发生异常，会捕获并打印堆栈跟踪，避免程序崩溃。
+   * 可以在后台线程中调用，画布的更新总是在事件调度线程中进行。.
    *
    * @param g 要显示的图形对象，必须是可变图类型 {@link MutableGraph}。
    */
@@ -879,7 +1815,11 @@ public class GraphProcessor extends JFrame {
       SAXSVGDocumentFactory factory = new SAXSVGDocumentFactory(parser);
       Reader stringReader = new StringReader(svgContent);
       Document document = factory.createDocument(null, stringReader);
-      svgCanvas.setDocument(document);
+      if (SwingUtilities.isEventDispatchThread()) {
+        svgCanvas.setDocument(document);
+      } else {
+        SwingUtilities.invokeLater(() -> svgCanvas.setDocument(document));
+      }
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -924,19 +1864,19 @@ public class GraphProcessor extends JFrame {
     MutableGraph g = mutGraph("文本有向图").setDirected(true);
 
     // 添加所有节点
-    Map<String, Node> nodes = new HashMap<>();
-    for (String nodeName : graph.keySet()) {
-      nodes.put(nodeName, node(nodeName).with(Shape.ELLIPSE));
+    WordGraph words = graph();
+    Node[] nodes = new Node[words.vertexCount()];
+    for (int v = 0; v < nodes.length; v++) {
+      nodes[v] = node(words.word(v)).with(Shape.ELLIPSE);
     }
 
     // 添加所有边
-    for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
-      String from = entry.getKey();
-      for (Map.Entry<String, Integer> edge : entry.getValue().entrySet()) {
-        String to = edge.getKey();
-        int weight = edge.getValue();
-        nodes.putIfAbsent(to, node(to).with(Shape.ELLIPSE));
-        g.add(nodes.get(from).link(to(nodes.get(to)).with(Label.of(String.valueOf(weight)))));
+    GraphStore.EdgeCursor cursor = words.cursor();
+    for (int v = 0; v < nodes.length; v++) {
+      cursor.reset(v);
+      while (cursor.next()) {
+        int weight = cursor.weight();
+        g.add(nodes[v].link(to(nodes[cursor.target()]).with(Label.of(String.valueOf(weight)))));
       }
     }
     return g;
@@ -0,0 +1,146 @@
+package com.harukite;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * 以整数 id 访问的只读词图存储。
+ *
+ * <p>最短路径、PageRank、桥接词和随机游走等算法都只依赖该接口，
+ * 因此可以在堆内存储（{@link CompactGraph}）与堆外存储（{@link OffHeapGraph}）之间切换。
+ * 出边通过可复用的 {@link EdgeCursor} 按目标 id 升序遍历，遍历过程中不产生对象。
+ * 实现类在构建完成后不可变，可以被多个线程同时读取（每个线程使用各自的游标）。.
+ */
+public interface GraphStore {
+
+  /**
+   * 返回顶点数。
+   *
+   * @return 顶点数
+   */
+  int vertexCount();
+
+  /**
+   * 返回边数。
+   *
+   * @return 边数
+   */
+  long edgeCount();
+
+  /**
+   * 返回单词的顶点 id。
+   *
+   * @param word 单词
+   * @return 顶点 id；若单词不在图中则返回 -1
+   */
+  int id(String word);
+
+  /**
+   * 返回顶点对应的单词。
+   *
+   * @param v 顶点 id
+   * @return 单词
+   */
+  String word(int v);
+
+  /**
+   * 返回顶点的出度（不同后继单词的个数）。
+   *
+   * @param v 顶点 id
+   * @return 出度
+   */
+  int outDegree(int v);
+
+  /**
+   * 返回顶点按目标 id 升序排列的第 {@code index} 个后继。
+   *
+   * @param v     顶点 id
+   * @param index 后继序号，范围为 {@code [0, outDegree(v))}
+   * @return 后继顶点 id
+   */
+  int neighbor(int v, int index);
+
+  /**
+   * 随机游走的一步：在顶点的不同后继中均匀选择一个。
+   *
+   * @param v      顶点 id
+   * @param random 随机数生成器
+   * @return 后继顶点 id；若顶点没有出边则返回 -1
+   */
+  default int randomNeighbor(int v, RandomGenerator random) {
+    int degree = outDegree(v);
+    return degree == 0 ? -1 : neighbor(v, random.nextInt(degree));
+  }
+
+  /**
+   * 查找边 {@code u → v} 的权重。
+   *
+   * @param u 起点顶点 id
+   * @param v 终点顶点 id
+   * @return 权重；若边不存在则返回 0
+   */
+  int edgeWeight(int u, int v);
+
+  /**
+   * 返回单词的出现次数。
+   *
+   * @param v 顶点 id
+   * @return 出现次数
+   */
+  int count(int v);
+
+  /**
+   * 返回构建时的总词数。
+   *
+   * @return 总词数
+   */
+  int wordNum();
+
+  /**
+   * 创建一个新的出边游标。游标不是线程安全的，每个线程应各自创建。
+   *
+   * @return 出边游标
+   */
+  EdgeCursor cursor();
+
+  /**
+   * 出边游标，用于无分配地遍历某个顶点的全部出边。
+   *
+   * <p>典型用法：
+   * <pre>{@code
+   * cursor.reset(v);
+   * while (cursor.next()) {
+   *   use(cursor.target(), cursor.weight());
+   * }
+   * }</pre>.
+   */
+  interface EdgeCursor {
+
+    /**
+     * 定位到顶点 {@code v} 的第一条出边之前。
+     *
+     * @param v 顶点 id
+     */
+    void reset(int v);
+
+    /**
+     * 前进到下一条出边。
+     *
+     * @return 若还有出边则返回 {@code true}
+     */
+    boolean next();
+
+    /**
+     * 返回当前出边的终点。
+     *
+     * @return 终点顶点 id
+     */
+    int target();
+
+    /**
+     * 返回当前出边的权重。
+     *
+     * @return 权重
+     */
+    int weight();
+  }
+}
@@ -0,0 +1,324 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可以随词图增长而增量更新的 PageRank，结果为 {@link PageRank#compute} 迭代到收敛时的不动点。
+ *
+ * <p>设 {@code n} 为顶点数，{@code S} 为去掉悬挂节点后的转移矩阵，{@code d} 为 {@value PageRank#DAMPING}。
+ * 与 {@link MonteCarloPageRank} 相同，不动点可以写成 {@code π = (1 − d) · z / (n − D)}，
+ * 其中 {@code z = (I − d·S)⁻¹ · 1}，{@code D} 为 {@code z} 落在悬挂节点上的部分之和。
+ * 这里以带符号残差的前向推送求解 {@code z}：维护估计值 {@code p} 与残差 {@code r}，
+ * 始终满足 {@code z = p + (I − d·S)⁻¹ · r}；推送顶点 {@code u} 时把 {@code r[u]} 计入 {@code p[u]}，
+ * 并把 {@code d · r[u] / deg(u)} 分给每个后继，悬挂节点不再向外分配。
+ * {@link #update(ProgressMonitor)} 推送到每个顶点的残差都不超过 {@code epsilon} 为止，
+ * 由于 {@code z} 的每一项都不小于 1，此时 {@code p} 相对 {@code z} 的 L1 相对误差不超过
+ * {@code epsilon / (1 − d)}。
+ *
+ * <p>词图变化时保留已收敛的 {@code p}，只修正残差使上述等式继续成立：新增单词的残差加 1；
+ * 新增边 {@code u → v} 改变了 {@code S} 中 {@code u} 的一列，只需修正 {@code u} 的各个后继的残差，
+ * 耗时为 O(deg(u))。之后的推送从这些残差出发，工作量与新增残差的总量成正比，
+ * 追加少量文本后通常远小于从头计算；{@code n} 的变化只影响最后的归一化系数。
+ * 与词图快照不同，这里的顶点 id 按加入顺序分配且不会改变，因此不必在快照之间转换 id；
+ * 由 {@link #of(WordGraph)} 创建时直接使用词图的顶点 id 和词表，之后通过 {@link #addPath(int[])}
+ * 跟随词图增长，不再为单词另建映射。
+ *
+ * <p>只支持加入单词和边，不支持删除；词图被整体替换时应重新创建。
+ * 所有公开方法都已同步，可以被多个线程同时调用。.
+ */
+public final class IncrementalPageRank {
+
+  /**
+   * 默认的残差阈值。此时 {@code p} 的 L1 相对误差不超过 {@code 7e-5}，
+   * 远小于 {@link GraphProcessor#calPageRank(String)} 固定迭代 10 次的误差；
+   * 阈值越小，新增残差在被推送到阈值以下之前扩散的范围越大，增量更新的优势也越小。
+   */
+  public static final double DEFAULT_EPSILON = 1e-5;
+
+  private static final int CANCEL_CHECK_PUSHES = 4096; // 每推送多少次检查一次取消标志
+
+  private final double epsilon;
+  private final Vocabulary vocabulary;
+  private final boolean shared; // 词表属于 WordGraph，顶点只能通过 id 加入
+  private int vertexCount;
+  private final LongIntMap edges = new LongIntMap(); // 已有的边，键为 pack(from, to)
+  private int[][] targets = new int[16][];
+  private int[] degree = new int[16];
+  private double[] estimate = new double[16];
+  private double[] residual = new double[16];
+  private boolean[] queued = new boolean[16];
+  private final IntQueue queue = new IntQueue();
+  private double danglingEstimate; // 悬挂节点估计值之和，即 D 的估计
+  private long pushes;
+
+  /**
+   * 创建空的 PageRank 状态。
+   *
+   * @param epsilon 残差阈值，必须为正数
+   */
+  public IncrementalPageRank(double epsilon) {
+    this(epsilon, new Vocabulary(), false);
+  }
+
+  private IncrementalPageRank(double epsilon, Vocabulary vocabulary, boolean shared) {
+    if (!(epsilon > 0)) {
+      throw new IllegalArgumentException("残差阈值必须为正数: " + epsilon);
+    }
+    this.epsilon = epsilon;
+    this.vocabulary = vocabulary;
+    this.shared = shared;
+  }
+
+  /**
+   * 以 {@link #DEFAULT_EPSILON} 为邻接表形式的词图创建独立的 PageRank 状态，尚未推送。
+   *
+   * <p>之后可以继续以单词加入顶点和边。.
+   *
+   * @param graph 邻接表形式的词图，边权不影响 PageRank
+   * @return PageRank 状态，调用 {@link #update(ProgressMonitor)} 后得到结果
+   */
+  public static IncrementalPageRank of(Map<String, Map<String, Integer>> graph) {
+    IncrementalPageRank rank = new IncrementalPageRank(DEFAULT_EPSILON);
+    for (String word : graph.keySet()) {
+      rank.addWord(word);
+    }
+    for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
+      for (String next : entry.getValue().keySet()) {
+        rank.addEdge(entry.getKey(), next);
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * 以 {@link #DEFAULT_EPSILON} 为已有的词图创建 PageRank 状态，尚未推送。
+   *
+   * <p>顶点 id 与词图相同，词表与词图共享；词图之后的增长应通过 {@link #addPath(int[])} 告知，
+   * 不能再以单词加入顶点。所有估计值为 0 时加入边不需要修正残差，因此构建耗时为 O(V + E)。.
+   *
+   * @param graph 词图，边权不影响 PageRank
+   * @return PageRank 状态，调用 {@link #update(ProgressMonitor)} 后得到结果
+   */
+  public static IncrementalPageRank of(WordGraph graph) {
+    IncrementalPageRank rank =
+        new IncrementalPageRank(DEFAULT_EPSILON, graph.vocabulary(), true);
+    int n = graph.vertexCount();
+    rank.addVertices(n);
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    for (int u = 0; u < n; u++) {
+      cursor.reset(u);
+      while (cursor.next()) {
+        rank.addEdge(u, cursor.target());
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * 按顺序加入一段单词序列：每个单词作为顶点，相邻的两个单词之间加一条边，
+   * 与 {@link GraphProcessor#buildGraph(String)} 的建图规则相同。
+   *
+   * @param tokens 单词序列
+   * @throws IllegalStateException 状态由 {@link #of(WordGraph)} 创建时抛出
+   */
+  public synchronized void addWords(List<String> tokens) {
+    for (String word : tokens) {
+      addWord(word);
+    }
+    for (int i = 0; i + 1 < tokens.size(); i++) {
+      addEdge(tokens.get(i), tokens.get(i + 1));
+    }
+  }
+
+  /**
+   * 按顺序加入一段以词图顶点 id 表示的单词序列，规则与 {@link #addWords(List)} 相同。
+   *
+   * <p>id 大于已有顶点数时，中间的顶点也一并加入；由 {@link WordGraph#append(List)}
+   * 返回的 id 总是按加入顺序连续分配的。.
+   *
+   * @param ids 顶点 id 序列
+   */
+  public synchronized void addPath(int[] ids) {
+    for (int v : ids) {
+      addVertices(v + 1);
+    }
+    for (int i = 0; i + 1 < ids.length; i++) {
+      addEdge(ids[i], ids[i + 1]);
+    }
+  }
+
+  /**
+   * 加入一个单词，单词已存在时不做任何事。
+   *
+   * @param word 单词
+   * @return 单词的顶点 id
+   * @throws IllegalStateException 状态由 {@link #of(WordGraph)} 创建时抛出
+   */
+  public synchronized int addWord(String word) {
+    if (shared) {
+      throw new IllegalStateException("顶点由词图分配，应使用 addPath");
+    }
+    int v = vocabulary.intern(word);
+    addVertices(v + 1);
+    return v;
+  }
+
+  private void addVertices(int count) {
+    if (count > degree.length) {
+      int capacity = Math.max(count, degree.length * 2);
+      targets = Arrays.copyOf(targets, capacity);
+      degree = Arrays.copyOf(degree, capacity);
+      estimate = Arrays.copyOf(estimate, capacity);
+      residual = Arrays.copyOf(residual, capacity);
+      queued = Arrays.copyOf(queued, capacity);
+    }
+    for (int v = vertexCount; v < count; v++) {
+      targets[v] = new int[0];
+      addResidual(v, 1.0); // z = (I − d·S)⁻¹ · 1 的右端多了一项
+    }
+    vertexCount = Math.max(vertexCount, count);
+  }
+
+  /**
+   * 加入一条边，两端的单词不存在时先加入；边已存在时不做任何事。
+   *
+   * @param from 起点单词
+   * @param to   终点单词
+   */
+  public synchronized void addEdge(String from, String to) {
+    addEdge(addWord(from), addWord(to));
+  }
+
+  private void addEdge(int u, int v) {
+    if (edges.putIfAbsent(LongIntMap.pack(u, v), 0) >= 0) {
+      return;
+    }
+    int k = degree[u];
+    double p = estimate[u];
+    if (k == 0) {
+      danglingEstimate -= p; // u 不再是悬挂节点
+    }
+    if (p != 0.0) {
+      // r' = r + d · (S' − S) · p，只有 u 这一列发生了变化
+      double before = k == 0 ? 0.0 : PageRank.DAMPING * p / k;
+      double after = PageRank.DAMPING * p / (k + 1);
+      for (int i = 0; i < k; i++) {
+        addResidual(targets[u][i], after - before);
+      }
+      addResidual(v, after);
+    }
+    if (k == targets[u].length) {
+      targets[u] = Arrays.copyOf(targets[u], Math.max(4, k * 2));
+    }
+    targets[u][k] = v;
+    degree[u] = k + 1;
+  }
+
+  private void addResidual(int v, double delta) {
+    residual[v] += delta;
+    if (!queued[v] && Math.abs(residual[v]) > epsilon) {
+      queued[v] = true;
+      queue.offer(v);
+    }
+  }
+
+  /**
+   * 推送残差直到每个顶点的残差都不超过 {@code epsilon}。
+   *
+   * <p>被取消时状态仍然一致，下一次调用会从剩余的残差继续推送。.
+   *
+   * @param monitor 进度监视器，只用于检查取消标志
+   * @return 本次推送的次数
+   * @throws java.util.concurrent.CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public synchronized int update(ProgressMonitor monitor) {
+    int count = 0;
+    while (!queue.isEmpty()) {
+      if (count % CANCEL_CHECK_PUSHES == 0) {
+        monitor.checkCancelled();
+      }
+      int u = queue.poll();
+      queued[u] = false;
+      double mass = residual[u];
+      if (Math.abs(mass) <= epsilon) {
+        continue;
+      }
+      count++;
+      residual[u] = 0.0;
+      estimate[u] += mass;
+      int k = degree[u];
+      if (k == 0) {
+        danglingEstimate += mass;
+        continue;
+      }
+      double share = PageRank.DAMPING * mass / k;
+      int[] next = targets[u];
+      for (int i = 0; i < k; i++) {
+        addResidual(next[i], share);
+      }
+    }
+    pushes += count;
+    return count;
+  }
+
+  /**
+   * 返回单词的 PR 值 {@code (1 − d) · p / (n − D)}。
+   *
+   * <p>尚未调用 {@link #update(ProgressMonitor)} 的部分不计入结果；
+   * 词图没有边时不动点不存在，所有单词均返回 0。.
+   *
+   * @param word 单词
+   * @return PR 值；单词不存在时返回 0
+   */
+  public synchronized double rank(String word) {
+    int v = vocabulary.id(word);
+    if (v < 0 || v >= vertexCount || edges.size() == 0) {
+      return 0.0;
+    }
+    return (1 - PageRank.DAMPING) * estimate[v] / (vertexCount - danglingEstimate);
+  }
+
+  /**
+   * 返回所有单词的 PR 值。
+   *
+   * @return 单词 → PR 值 映射
+   */
+  public synchronized Map<String, Double> ranks() {
+    Map<String, Double> ranks = new HashMap<>();
+    for (int v = 0; v < vertexCount; v++) {
+      String word = vocabulary.word(v);
+      ranks.put(word, rank(word));
+    }
+    return ranks;
+  }
+
+  /**
+   * 返回单词（顶点）的个数。
+   *
+   * @return 顶点数
+   */
+  public synchronized int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * 返回不同的边的条数。
+   *
+   * @return 边数
+   */
+  public synchronized int edgeCount() {
+    return edges.size();
+  }
+
+  /**
+   * 返回创建以来累计的推送次数。
+   *
+   * @return 推送次数
+   */
+  public synchronized long pushes() {
+    return pushes;
+  }
+}
@@ -0,0 +1,68 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * 可以增长的 int 数组，下标为 long，新增元素为 0。
+ *
+ * <p>{@link WordGraph} 用它保存单词次数和边，从而可以在构建时就选择堆内数组或堆外的
+ * {@link DirectIntArray}，堆外模式下邻接数据从一开始就不经过 Java 堆。.
+ */
+interface IntArray {
+
+  /**
+   * 分配指定长度的数组，元素均为 0。
+   *
+   * @param length 长度
+   * @param direct 为 {@code true} 时分配在堆外直接内存中
+   * @return 新数组
+   */
+  static IntArray allocate(long length, boolean direct) {
+    return direct ? new DirectIntArray(length) : new Heap(Math.toIntExact(length));
+  }
+
+  long length();
+
+  int get(long index);
+
+  void set(long index, int value);
+
+  /**
+   * 把长度增加到 {@code length}，已有元素保持不变；{@code length} 不大于当前长度时不做任何事。
+   *
+   * @param length 新长度
+   */
+  void grow(long length);
+
+  /** 堆内实现，长度不超过 {@code Integer.MAX_VALUE}。 */
+  final class Heap implements IntArray {
+
+    private int[] values;
+
+    Heap(int length) {
+      values = new int[length];
+    }
+
+    @Override
+    public long length() {
+      return values.length;
+    }
+
+    @Override
+    public int get(long index) {
+      return values[(int) index];
+    }
+
+    @Override
+    public void set(long index, int value) {
+      values[(int) index] = value;
+    }
+
+    @Override
+    public void grow(long length) {
+      if (length > values.length) {
+        values = Arrays.copyOf(values, Math.toIntExact(length));
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * int → double 的开放寻址哈希表，用作只涉及少量顶点的稀疏向量。
+ *
+ * <p>不存在的键视为 0。键按插入顺序另存一份，便于遍历。不是线程安全的。.
+ */
+final class IntDoubleMap {
+
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private double[] values;
+  private int[] order; // 按插入顺序排列的键
+  private int size;
+
+  IntDoubleMap() {
+    keys = new int[16];
+    values = new double[16];
+    order = new int[8];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * 返回第 {@code i} 个插入的键。
+   */
+  int keyAt(int i) {
+    return order[i];
+  }
+
+  double get(int key) {
+    int slot = slot(key);
+    return keys[slot] == EMPTY ? 0.0 : values[slot];
+  }
+
+  void put(int key, double value) {
+    values[insert(key)] = value;
+  }
+
+  /**
+   * 累加并返回新值。
+   */
+  double add(int key, double delta) {
+    int slot = insert(key);
+    values[slot] += delta;
+    return values[slot];
+  }
+
+  private int insert(int key) {
+    int slot = slot(key);
+    if (keys[slot] != EMPTY) {
+      return slot;
+    }
+    if ((size + 1) * 2 > keys.length) {
+      rehash(keys.length * 2);
+      slot = slot(key);
+    }
+    keys[slot] = key;
+    if (size == order.length) {
+      order = Arrays.copyOf(order, size * 2);
+    }
+    order[size++] = key;
+    return slot;
+  }
+
+  private int slot(int key) {
+    int mask = keys.length - 1;
+    int hash = key * 0x9E3779B9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    double[] oldValues = values;
+    keys = new int[capacity];
+    values = new double[capacity];
+    Arrays.fill(keys, EMPTY);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
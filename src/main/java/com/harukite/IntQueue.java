@@ -0,0 +1,38 @@
+package com.harukite;
+
+/**
+ * 基于环形 int 数组的先进先出队列，容量按需翻倍。
+ */
+final class IntQueue {
+
+  private int[] elements = new int[16];
+  private int head;
+  private int size;
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void offer(int value) {
+    if (size == elements.length) {
+      int[] grown = new int[size * 2];
+      int firstPart = size - head;
+      System.arraycopy(elements, head, grown, 0, firstPart);
+      System.arraycopy(elements, 0, grown, firstPart, head);
+      elements = grown;
+      head = 0;
+    }
+    elements[(head + size++) & (elements.length - 1)] = value;
+  }
+
+  int poll() {
+    int value = elements[head];
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return value;
+  }
+}
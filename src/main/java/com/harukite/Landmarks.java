@@ -0,0 +1,127 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * ALT（A*、Landmarks、Triangle inequality）算法使用的地标距离表。
+ *
+ * <p>预先选出少量地标单词 {@code L}，记录每个顶点到地标的距离 {@code d(v, L)}
+ * 和地标到每个顶点的距离 {@code d(L, v)}。由三角不等式，
+ * {@code d(v, t) ≥ max(d(v, L) − d(t, L), d(L, t) − d(L, v))}，
+ * 取所有地标中的最大值即为一致（consistent）的 A* 下界。
+ * 若某个地标能证明 {@code v} 无法到达 {@code t}（例如 {@code v} 到不了地标而 {@code t} 可以），
+ * 下界为 {@link Integer#MAX_VALUE}，搜索可以直接剪掉该顶点。
+ *
+ * <p>地标采用“最远点”启发式选取：第一个为出度最大的顶点，
+ * 之后每次选择距已选地标最远的可达顶点。占用内存为 {@code 2 · k · V} 个 int。.
+ */
+public final class Landmarks {
+
+  private static final int INF = ShortestPaths.UNREACHABLE;
+
+  private final int[] landmarks;
+  private final int[][] from; // from[i][v] = d(L_i, v)
+  private final int[][] to; // to[i][v] = d(v, L_i)
+
+  private Landmarks(int[] landmarks, int[][] from, int[][] to) {
+    this.landmarks = landmarks;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * 选取地标并预计算距离表。
+   *
+   * @param forward 词图
+   * @param reverse 词图的反向边索引
+   * @param count   地标个数
+   * @return 地标距离表
+   */
+  public static Landmarks select(GraphStore forward, GraphStore reverse, int count) {
+    int n = forward.vertexCount();
+    int k = Math.min(count, n);
+    int[] landmarks = new int[k];
+    int[][] from = new int[k][];
+    int[][] to = new int[k][];
+    int[] nearest = new int[n]; // 到已选地标的最小距离
+    Arrays.fill(nearest, INF);
+    boolean[] chosen = new boolean[n];
+    for (int i = 0; i < k; i++) {
+      int landmark = -1;
+      for (int v = 0; v < n; v++) {
+        if (chosen[v]) {
+          continue;
+        }
+        if (landmark < 0 || better(forward, nearest, v, landmark)) {
+          landmark = v;
+        }
+      }
+      chosen[landmark] = true;
+      landmarks[i] = landmark;
+      ShortestPaths fromLandmark = ShortestPaths.from(forward, landmark);
+      ShortestPaths toLandmark = ShortestPaths.from(reverse, landmark);
+      from[i] = new int[n];
+      to[i] = new int[n];
+      for (int v = 0; v < n; v++) {
+        from[i][v] = fromLandmark.distance(v);
+        to[i][v] = toLandmark.distance(v);
+        nearest[v] = Math.min(nearest[v], Math.min(from[i][v], to[i][v]));
+      }
+    }
+    return new Landmarks(landmarks, from, to);
+  }
+
+  /**
+   * 候选顶点的优先级：优先选择与已选地标连通且距离最远的顶点，其次选择出度大的顶点。
+   */
+  private static boolean better(GraphStore graph, int[] nearest, int v, int best) {
+    boolean reachedV = nearest[v] != INF;
+    boolean reachedBest = nearest[best] != INF;
+    if (reachedV != reachedBest) {
+      return reachedV;
+    }
+    if (reachedV && nearest[v] != nearest[best]) {
+      return nearest[v] > nearest[best];
+    }
+    return graph.outDegree(v) > graph.outDegree(best);
+  }
+
+  /**
+   * 返回 {@code d(v, target)} 的下界。
+   *
+   * @param v      顶点 id
+   * @param target 目标顶点 id
+   * @return 下界；若能证明 {@code v} 无法到达 {@code target} 则返回 {@link Integer#MAX_VALUE}
+   */
+  public int lowerBound(int v, int target) {
+    int bound = 0;
+    for (int i = 0; i < landmarks.length; i++) {
+      int vToL = to[i][v];
+      int tToL = to[i][target];
+      if (tToL != INF) {
+        if (vToL == INF) {
+          return INF; // t 能到达地标而 v 不能，因此 v 到不了 t
+        }
+        bound = Math.max(bound, vToL - tToL);
+      }
+      int lToV = from[i][v];
+      int lToT = from[i][target];
+      if (lToV != INF) {
+        if (lToT == INF) {
+          return INF; // 地标能到达 v 却到不了 t，因此 v 到不了 t
+        }
+        bound = Math.max(bound, lToT - lToV);
+      }
+    }
+    return bound;
+  }
+
+  /**
+   * 返回地标顶点 id。
+   *
+   * @return 地标数组的副本
+   */
+  public int[] landmarks() {
+    return landmarks.clone();
+  }
+}
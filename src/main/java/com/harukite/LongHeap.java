@@ -0,0 +1,67 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * 基于 long 数组的最小二叉堆，用作最短路径搜索的优先队列。
+ *
+ * <p>调用方通常把距离放在高 32 位、顶点 id 放在低 32 位，这样按 long 比较即按距离排序，
+ * 入队和出队都不会产生装箱对象。.
+ */
+final class LongHeap {
+
+  private long[] heap = new long[16];
+  private int size;
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long peek() {
+    return heap[0];
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  void push(long value) {
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (heap[parent] <= value) {
+        break;
+      }
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = value;
+  }
+
+  long pop() {
+    long top = heap[0];
+    long last = heap[--size];
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        child++;
+      }
+      if (last <= heap[child]) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = last;
+    return top;
+  }
+}
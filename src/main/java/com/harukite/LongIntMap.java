@@ -0,0 +1,124 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * long → int 的开放寻址哈希表，键通常是由 {@link #pack(int, int)} 打包的一对顶点 id（即一条边）。
+ *
+ * <p>键和值分别存放在两个基本类型数组中，查找、插入和删除不产生对象；
+ * {@link #clear()} 保留已分配的容量，因此反复清空后再使用时不再分配内存。
+ * 键不能为 -1（两个非负 id 打包后总是非负数）。不是线程安全的。.
+ */
+final class LongIntMap {
+
+  private static final long EMPTY = -1L;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+
+  LongIntMap() {
+    keys = new long[16];
+    values = new int[16];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * 把两个 int 打包为一个 long，{@code high} 在高 32 位。
+   */
+  static long pack(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * 返回键对应的值，键不存在时返回 -1。
+   */
+  int get(long key) {
+    int slot = slot(key);
+    return keys[slot] == EMPTY ? -1 : values[slot];
+  }
+
+  /**
+   * 键不存在时插入并返回 -1，否则返回已有的值而不修改。
+   */
+  int putIfAbsent(long key, int value) {
+    int slot = slot(key);
+    if (keys[slot] != EMPTY) {
+      return values[slot];
+    }
+    if ((size + 1) * 2 > keys.length) {
+      rehash(keys.length * 2);
+      slot = slot(key);
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    return -1;
+  }
+
+  /**
+   * 删除键，返回是否存在。删除后把同一探测链上的后续键前移，不留墓碑。
+   */
+  boolean remove(long key) {
+    int slot = slot(key);
+    if (keys[slot] == EMPTY) {
+      return false;
+    }
+    int mask = keys.length - 1;
+    int hole = slot;
+    for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+      // 只有起始位置不在 (hole, next] 之间的键才能前移到空位
+      if (((next - home(keys[next])) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+    }
+    keys[hole] = EMPTY;
+    size--;
+    return true;
+  }
+
+  /**
+   * 删除所有键，保留容量。
+   */
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, EMPTY);
+      size = 0;
+    }
+  }
+
+  private int home(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+  }
+
+  private int slot(long key) {
+    int mask = keys.length - 1;
+    int slot = home(key);
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
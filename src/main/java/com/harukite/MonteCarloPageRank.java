@@ -0,0 +1,248 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * 以带重启的随机游走近似计算 PageRank（蒙特卡罗“完整路径”估计）。
+ *
+ * <p>从每个顶点出发各走 {@code R} 次：在有出边的顶点处以概率 {@code 1 − d}（{@code d} 为
+ * {@value PageRank#DAMPING}）结束，否则按 {@link GraphStore#randomNeighbor} 走向一个均匀选择的后继；
+ * 到达悬挂节点（无出边）时结束，称为被吸收。设 {@code n} 为顶点数，{@code V(v)} 为所有游走经过
+ * {@code v} 的次数，{@code A} 为被吸收的游走数，{@code W = n · R}，则
+ * {@code y(v) = V(v) / W} 估计 {@code (I − d·S)⁻¹} 作用于均匀分布的结果（{@code S} 为去掉悬挂节点后的
+ * 转移矩阵），{@code D = A / W} 估计其中落在悬挂节点上的质量。{@link PageRank#compute} 把悬挂节点的
+ * PR 值整体平均分给所有顶点，其不动点恰为 {@code π(v) = (1 − d) · y(v) / (1 − D)}，
+ * 因此估计值 {@code π̂(v) = (1 − d) · V(v) / (W − A)} 与迭代到收敛的结果一致，与初始向量无关。
+ * 词图没有边时不动点不存在，此时 {@link #addWalks(int, ProgressMonitor)} 抛出异常。
+ *
+ * <p>误差界：游走一旦经过 {@code v}，再回到 {@code v} 的概率不超过 {@code d}，由此可得
+ * {@code Var(y(v)) ≤ (1 + d) · y(v) / ((1 − d)² · W)}。忽略 {@code D} 的估计误差
+ * （其标准差约为 {@code sqrt(D(1 − D) / W)}，远小于单个顶点的误差），有
+ * <ul>
+ *   <li>单个顶点的相对标准误差不超过 {@code sqrt((1 + d) / ((1 − d)(1 − D) · R · n·π(v)))}，
+ *   其中 {@code n·π(v)} 是该顶点相对均匀分布的倍数，排名靠前的单词误差更小；
+ *   {@link #standardError(int)} 给出以估计值代入后的标准误差；</li>
+ *   <li>整个向量的期望 L1 误差不超过 {@code sqrt((1 + d) · Σπ / ((1 − d)(1 − D) · R))}，
+ *   没有悬挂节点时 {@code Σπ = 1}、{@code D = 0}，{@code d = 0.85} 时约为 {@code 3.5 / √R}；
+ *   {@link #l1ErrorBound()} 给出以估计值代入后的结果。</li>
+ * </ul>
+ * 误差按 {@code 1 / √R} 下降：{@link #addWalks(int, ProgressMonitor)} 可以随时追加游走，
+ * 新的游走与已有的计数合并，不必从头计算。
+ *
+ * <p>游走的期望步数不超过 {@code 1 / (1 − d)}，总耗时与边数无关。起点按块在公共 ForkJoin 线程池中
+ * 并行处理，每块使用由种子、轮次和块号确定的随机数序列，访问计数以原子加法合并，
+ * 因此相同种子的结果与线程调度无关。所有公开方法都已同步，可以被多个线程同时调用。.
+ */
+public final class MonteCarloPageRank {
+
+  private static final int CHUNK = 1024; // 每个并行任务处理的起点个数
+
+  private final GraphStore graph;
+  private final long seed;
+  private final long[] visits;
+  private long absorbed; // 在悬挂节点处结束的游走数
+  private int walksPerVertex;
+  private int rounds;
+
+  /**
+   * 创建估计器，此时尚未进行任何游走。
+   *
+   * @param graph 词图存储
+   * @param seed  随机数种子
+   */
+  public MonteCarloPageRank(GraphStore graph, long seed) {
+    this.graph = graph;
+    this.seed = seed;
+    this.visits = new long[graph.vertexCount()];
+  }
+
+  /**
+   * 从每个顶点再出发 {@code walks} 次游走，并把访问计数合并到已有的估计中。
+   *
+   * <p>被取消时已有的估计保持不变。.
+   *
+   * @param walks   每个顶点追加的游走次数
+   * @param monitor 进度监视器，进度以完成的起点块计
+   * @throws IllegalStateException 词图没有边时抛出
+   * @throws java.util.concurrent.CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public synchronized void addWalks(int walks, ProgressMonitor monitor) {
+    if (walks < 0) {
+      throw new IllegalArgumentException("游走次数不能为负数: " + walks);
+    }
+    int n = visits.length;
+    if (walks == 0 || n == 0) {
+      return;
+    }
+    if (graph.edgeCount() == 0) {
+      throw new IllegalStateException("词图没有边，PageRank 不收敛");
+    }
+    AtomicLongArray pending = new AtomicLongArray(n);
+    AtomicLong pendingAbsorbed = new AtomicLong();
+    int chunks = (n + CHUNK - 1) / CHUNK;
+    long round = rounds;
+    AtomicInteger finished = new AtomicInteger();
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      if (monitor.isCancelled()) {
+        return; // 剩余的块直接跳过，由调用线程统一抛出取消异常
+      }
+      SplittableRandom random = new SplittableRandom(
+          seed ^ (round * 0x9E3779B97F4A7C15L + chunk) * 0xBF58476D1CE4E5B9L);
+      int end = Math.min(n, (chunk + 1) * CHUNK);
+      long chunkAbsorbed = 0;
+      for (int start = chunk * CHUNK; start < end; start++) {
+        for (int r = 0; r < walks; r++) {
+          if (walk(start, random, pending)) {
+            chunkAbsorbed++;
+          }
+        }
+      }
+      pendingAbsorbed.addAndGet(chunkAbsorbed);
+      monitor.progress(finished.incrementAndGet(), chunks);
+    });
+    monitor.checkCancelled();
+    for (int v = 0; v < n; v++) {
+      visits[v] += pending.get(v);
+    }
+    absorbed += pendingAbsorbed.get();
+    walksPerVertex += walks;
+    rounds++;
+  }
+
+  /**
+   * 从 {@code start} 出发走一次，返回游走是否在悬挂节点处被吸收。
+   */
+  private boolean walk(int start, SplittableRandom random, AtomicLongArray pending) {
+    int v = start;
+    while (true) {
+      pending.getAndIncrement(v);
+      if (graph.outDegree(v) == 0) {
+        return true;
+      }
+      if (random.nextDouble() >= PageRank.DAMPING) {
+        return false;
+      }
+      v = graph.randomNeighbor(v, random);
+    }
+  }
+
+  /**
+   * 返回每个顶点累计的游走次数 {@code R}。
+   *
+   * @return 游走次数
+   */
+  public synchronized int walksPerVertex() {
+    return walksPerVertex;
+  }
+
+  /**
+   * 返回顶点的估计 PR 值。
+   *
+   * @param v 顶点 id
+   * @return 估计值；尚未进行游走时为 0
+   */
+  public synchronized double rank(int v) {
+    return walksPerVertex == 0 ? 0.0 : scale() * visits[v];
+  }
+
+  /**
+   * 返回单词的估计 PR 值，单词 id 在估计器自己的词图中查找。
+   *
+   * <p>调用方不必持有同一个快照：即使之后切换了存储方式、快照的顶点编号改变，也不会取到其他单词的值。.
+   *
+   * @param word 单词
+   * @return 估计值；单词不在词图中或尚未进行游走时为 0
+   */
+  public synchronized double rank(String word) {
+    int v = graph.id(word);
+    return v < 0 ? 0.0 : rank(v);
+  }
+
+  /**
+   * 返回所有顶点的估计 PR 值。
+   *
+   * @return 按顶点 id 索引的估计向量
+   */
+  public synchronized double[] ranks() {
+    double[] ranks = new double[visits.length];
+    if (walksPerVertex > 0) {
+      double scale = scale();
+      for (int v = 0; v < ranks.length; v++) {
+        ranks[v] = scale * visits[v];
+      }
+    }
+    return ranks;
+  }
+
+  /**
+   * 返回估计 PR 值最高的 {@code k} 个顶点，按估计值降序排列，估计值相同时按 id 升序。
+   *
+   * @param k 返回的顶点数上限
+   * @return 顶点 id 数组
+   */
+  public synchronized int[] topK(int k) {
+    Integer[] vertices = new Integer[visits.length];
+    for (int v = 0; v < vertices.length; v++) {
+      vertices[v] = v;
+    }
+    Arrays.sort(vertices, Comparator.comparingLong((Integer v) -> -visits[v])
+        .thenComparingInt(v -> v));
+    int[] top = new int[Math.min(k, vertices.length)];
+    for (int i = 0; i < top.length; i++) {
+      top[i] = vertices[i];
+    }
+    return top;
+  }
+
+  /**
+   * 返回顶点估计值的标准误差上界 {@code sqrt((1 + d) · π̂(v) / ((1 − d)(1 − D) · n · R))}，
+   * 其中以估计值代替未知的 {@code π(v)} 和 {@code D}。
+   *
+   * @param v 顶点 id
+   * @return 标准误差；尚未进行游走时为正无穷
+   */
+  public synchronized double standardError(int v) {
+    if (walksPerVertex == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return Math.sqrt(errorFactor() * rank(v));
+  }
+
+  /**
+   * 返回估计向量期望 L1 误差的上界 {@code sqrt((1 + d) · Σπ̂ / ((1 − d)(1 − D) · R))}，
+   * 其中以估计值代替未知的 {@code Σπ} 和 {@code D}。
+   *
+   * @return L1 误差上界；尚未进行游走时为正无穷
+   */
+  public synchronized double l1ErrorBound() {
+    if (walksPerVertex == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    long total = 0;
+    for (long count : visits) {
+      total += count;
+    }
+    return Math.sqrt(errorFactor() * scale() * total * visits.length);
+  }
+
+  /** {@code (1 + d) / ((1 − d)(1 − D) · W)}，单个顶点方差上界与其 PR 值之比。 */
+  private double errorFactor() {
+    double d = PageRank.DAMPING;
+    return (1 + d) / ((1 - d) * (walks() - absorbed));
+  }
+
+  /** 估计值与访问次数之比 {@code (1 − d) / (W − A)}。 */
+  private double scale() {
+    return (1 - PageRank.DAMPING) / (walks() - absorbed);
+  }
+
+  private double walks() {
+    return (double) visits.length * walksPerVertex;
+  }
+}
@@ -0,0 +1,174 @@
+package com.harukite;
+
+import java.util.Map;
+
+/**
+ * 把邻接结构存放在堆外直接内存中的词图存储。
+ *
+ * <p>布局与 {@link CompactGraph} 相同（CSR 格式，出边按目标 id 升序），
+ * 但偏移、目标、权重和词频数组都位于 {@link java.nio.ByteBuffer#allocateDirect(int) 直接缓冲区}中，
+ * 偏移使用 long，因此边数可以超过 {@code Integer.MAX_VALUE}。
+ * 无论图有多大，Java 堆上只剩下少量缓冲区对象和词表的几个大数组，
+ * 垃圾收集器无需扫描或复制邻接数据，GC 停顿时间不会随图的规模增长。
+ * 快照通常由 {@link WordGraph#WordGraph(boolean) 堆外模式}的词图构建，
+ * 这样从读取语料到查询的整个过程中邻接数据都不在堆上。
+ *
+ * <p>可用的直接内存受 JVM 参数 {@code -XX:MaxDirectMemorySize} 限制。
+ * 该类创建后不可变，可以被多个线程同时读取。.
+ */
+public final class OffHeapGraph implements GraphStore {
+
+  private final Vocabulary vocabulary;
+  private final int vertexCount;
+  private final DirectIntArray offsetsLow; // 偏移的低 32 位
+  private final DirectIntArray offsetsHigh; // 偏移的高 32 位
+  private final DirectIntArray targets;
+  private final DirectIntArray weights;
+  private final DirectIntArray counts;
+  private final int wordNum;
+  private final long edgeCount;
+
+  private OffHeapGraph(WordGraph graph) {
+    this.vocabulary = graph.vocabulary();
+    this.vertexCount = graph.vertexCount();
+    this.wordNum = graph.wordNum();
+    this.edgeCount = graph.edgeCount();
+    offsetsLow = new DirectIntArray(vertexCount + 1L);
+    offsetsHigh = new DirectIntArray(vertexCount + 1L);
+    targets = new DirectIntArray(edgeCount);
+    weights = new DirectIntArray(edgeCount);
+    counts = new DirectIntArray(vertexCount);
+    long[] cursor = new long[1];
+    GraphLoader.load(graph, (v, count, edges, degree) -> {
+      long e = cursor[0];
+      for (int i = 0; i < degree; i++, e++) {
+        targets.set(e, (int) (edges[i] >>> 32));
+        weights.set(e, (int) edges[i]);
+      }
+      cursor[0] = e;
+      setOffset(v + 1, e);
+      counts.set(v, count);
+    });
+  }
+
+  /**
+   * 由字符串形式的邻接表构建堆外词图，规则与 {@link CompactGraph#of(Map, Map, int)} 相同。
+   *
+   * @param graph     邻接表，键为起点单词，值为 终点单词 → 权重
+   * @param wordCount 单词出现次数，缺失的单词计为 0
+   * @param wordNum   总词数
+   * @return 堆外词图
+   */
+  public static OffHeapGraph of(Map<String, Map<String, Integer>> graph,
+      Map<String, Integer> wordCount, int wordNum) {
+    return new OffHeapGraph(WordGraph.of(graph, wordCount, wordNum));
+  }
+
+  /**
+   * 为词图的当前内容构建堆外快照，规则与 {@link CompactGraph#of(WordGraph)} 相同。
+   *
+   * @param graph 词图
+   * @return 堆外词图
+   */
+  public static OffHeapGraph of(WordGraph graph) {
+    return new OffHeapGraph(graph);
+  }
+
+  private long offset(int v) {
+    return ((long) offsetsHigh.get(v) << 32) | (offsetsLow.get(v) & 0xFFFFFFFFL);
+  }
+
+  private void setOffset(int v, long offset) {
+    offsetsLow.set(v, (int) offset);
+    offsetsHigh.set(v, (int) (offset >>> 32));
+  }
+
+  @Override
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  @Override
+  public long edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int id(String word) {
+    int v = vocabulary.id(word);
+    return v < vertexCount ? v : -1;
+  }
+
+  @Override
+  public String word(int v) {
+    return vocabulary.word(v);
+  }
+
+  @Override
+  public int outDegree(int v) {
+    return (int) (offset(v + 1) - offset(v));
+  }
+
+  @Override
+  public int neighbor(int v, int index) {
+    return targets.get(offset(v) + index);
+  }
+
+  @Override
+  public int edgeWeight(int u, int v) {
+    long e = targets.binarySearch(offset(u), offset(u + 1), v);
+    return e >= 0 ? weights.get(e) : 0;
+  }
+
+  @Override
+  public int count(int v) {
+    return counts.get(v);
+  }
+
+  @Override
+  public int wordNum() {
+    return wordNum;
+  }
+
+  @Override
+  public EdgeCursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * 返回占用的堆外内存字节数。
+   *
+   * @return 字节数
+   */
+  public long directMemoryBytes() {
+    return 4L * (offsetsLow.length() + offsetsHigh.length() + targets.length()
+        + weights.length() + counts.length());
+  }
+
+  private final class Cursor implements EdgeCursor {
+
+    private long edge;
+    private long end;
+
+    @Override
+    public void reset(int v) {
+      edge = offset(v) - 1;
+      end = offset(v + 1);
+    }
+
+    @Override
+    public boolean next() {
+      return ++edge < end;
+    }
+
+    @Override
+    public int target() {
+      return targets.get(edge);
+    }
+
+    @Override
+    public int weight() {
+      return weights.get(edge);
+    }
+  }
+}
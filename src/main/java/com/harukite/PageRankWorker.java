@@ -0,0 +1,257 @@
+package com.harukite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link DistributedPageRank} 的工作进程，负责一个顶点区间的 PageRank 迭代。
+ *
+ * <p>进程启动后从共享的分区文件中读取自己区间内顶点的出边，在本机回环地址上打开一个端口供其他工作进程连接，
+ * 然后连接协调者，报告自己的编号和端口，收到所有工作进程的端口后与每个其他工作进程建立一条 TCP 连接
+ * （编号小的一方监听、编号大的一方连接），再接收区间内顶点的初始 PR 值，按协调者的指令逐轮迭代，
+ * 最后把本区间的 PR 值发回并退出。连接断开时进程随之结束。
+ *
+ * <p>出边以 int 编码：小于区间大小时为区间内的相对 id，否则减去区间大小后为边界槽编号；
+ * 边界槽累加的是发往其他区间某个顶点的贡献，每轮通过与该区间的连接直接发给它，不经过协调者。
+ * 每条连接由一个单独的线程发送，主线程同时依次读取各连接，
+ * 因此即使数据量超过套接字缓冲区，相互发送的工作进程也不会互相等待。.
+ */
+public final class PageRankWorker {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final int index;
+  private final int size;
+  private final double damping;
+  private final int[] offsets;
+  private final int[] edges;
+  private final double[] outbound;
+  private final int[] slotStart; // 发往区间 p 的边界槽为 [slotStart[p], slotStart[p + 1])
+  private final int[][] inbound; // inbound[q] 为区间 q 发来的边界贡献对应的本区间顶点
+  private final DataInputStream[] peerIn;
+  private final DataOutputStream[] peerOut;
+  private final ExecutorService senders;
+  private double[] rank;
+  private double[] next;
+
+  private PageRankWorker(Path partitions, int index) throws IOException {
+    DistributedPageRank.Layout layout;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(partitions), BUFFER_SIZE))) {
+      layout = DistributedPageRank.Layout.read(in);
+    }
+    int workers = layout.count();
+    this.index = index;
+    damping = layout.damping();
+    try (FileChannel channel = FileChannel.open(partitions, StandardOpenOption.READ)) {
+      channel.position(layout.sectionOffset(index));
+      DataInputStream in = new DataInputStream(
+          new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+      size = in.readInt();
+      long edgeCount = in.readLong();
+      outbound = new double[in.readInt()];
+      offsets = new int[size + 1];
+      edges = new int[Math.toIntExact(edgeCount)];
+      for (int v = 0, e = 0; v < size; v++) {
+        int degree = in.readInt();
+        for (int j = 0; j < degree; j++) {
+          edges[e++] = in.readInt();
+        }
+        offsets[v + 1] = e;
+      }
+      inbound = new int[workers][];
+      for (int q = 0; q < workers; q++) {
+        inbound[q] = q == index ? new int[0] : DistributedPageRank.readInts(in, in.readInt());
+      }
+    }
+    slotStart = new int[workers + 1];
+    for (int p = 0; p <= workers; p++) {
+      slotStart[p] = layout.slotStart(index, p);
+    }
+    peerIn = new DataInputStream[workers];
+    peerOut = new DataOutputStream[workers];
+    senders = Executors.newFixedThreadPool(Math.max(1, workers - 1), task -> {
+      Thread thread = new Thread(task, "pagerank-sender");
+      thread.setDaemon(true);
+      return thread;
+    });
+    rank = new double[size];
+    next = new double[size];
+  }
+
+  /**
+   * 工作进程入口。
+   *
+   * @param args 协调者端口、本进程的区间编号和分区文件
+   * @throws IOException 与协调者或其他工作进程通信失败时抛出
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      System.err.println("用法: PageRankWorker <端口> <编号> <分区文件>");
+      System.exit(2);
+    }
+    int port = Integer.parseInt(args[0]);
+    int index = Integer.parseInt(args[1]);
+    PageRankWorker worker = new PageRankWorker(Paths.get(args[2]), index);
+    int workers = worker.inbound.length;
+    try (ServerSocket peers = new ServerSocket(0, workers, InetAddress.getLoopbackAddress());
+         Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(
+          new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+      DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+      out.writeInt(DistributedPageRank.MAGIC);
+      out.writeInt(index);
+      out.writeInt(peers.getLocalPort());
+      out.flush();
+      worker.connectPeers(peers, DistributedPageRank.readInts(in, workers));
+      worker.rank = DistributedPageRank.readDoubles(in, worker.size, worker.rank);
+      worker.serve(in, out);
+    } catch (EOFException e) {
+      System.exit(1); // 协调者或其他工作进程已断开连接（计算被取消或出错）
+    }
+    System.exit(0); // 发送线程是守护线程，不必等待
+  }
+
+  /**
+   * 与编号较小的工作进程连接，并接受编号较大的工作进程的连接；连接建立后先发送自己的编号。
+   */
+  private void connectPeers(ServerSocket peers, int[] ports) throws IOException {
+    for (int q = 0; q < index; q++) {
+      register(new Socket(InetAddress.getLoopbackAddress(), ports[q]), q);
+    }
+    for (int i = index + 1; i < ports.length; i++) {
+      Socket socket = peers.accept();
+      int q = new DataInputStream(socket.getInputStream()).readInt();
+      if (q <= index || q >= ports.length || peerIn[q] != null) {
+        socket.close();
+        throw new IOException("无效的工作进程编号: " + q);
+      }
+      register(socket, q);
+    }
+  }
+
+  private void register(Socket socket, int q) throws IOException {
+    socket.setTcpNoDelay(true);
+    peerIn[q] = new DataInputStream(
+        new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+    peerOut[q] = new DataOutputStream(
+        new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+    if (q < index) {
+      peerOut[q].writeInt(index);
+      peerOut[q].flush();
+    }
+  }
+
+  private void serve(DataInputStream in, DataOutputStream out) throws IOException {
+    while (true) {
+      int command = in.readInt();
+      if (command == DistributedPageRank.FINISH) {
+        for (double value : rank) {
+          out.writeDouble(value);
+        }
+        out.flush();
+        return;
+      }
+      if (command != DistributedPageRank.STEP) {
+        throw new IOException("未知指令: " + command);
+      }
+      step(in, out);
+    }
+  }
+
+  /**
+   * 一次迭代：推送贡献并把边界槽发给各目标区间，同时读取其他区间发来的贡献，
+   * 收到基础值后更新 PR 值，最后报告 L1 差。
+   */
+  private void step(DataInputStream in, DataOutputStream out) throws IOException {
+    Arrays.fill(next, 0.0);
+    Arrays.fill(outbound, 0.0);
+    double dangling = 0.0;
+    for (int v = 0; v < size; v++) {
+      int degree = offsets[v + 1] - offsets[v];
+      if (degree == 0) {
+        dangling += rank[v];
+        continue;
+      }
+      double share = damping * rank[v] / degree;
+      for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+        int slot = edges[e];
+        if (slot < size) {
+          next[slot] += share;
+        } else {
+          outbound[slot - size] += share;
+        }
+      }
+    }
+    List<Future<?>> sends = new ArrayList<>(inbound.length);
+    for (int p = 0; p < inbound.length; p++) {
+      if (p != index) {
+        sends.add(senders.submit(sender(p)));
+      }
+    }
+    out.writeDouble(dangling);
+    out.flush();
+
+    for (int q = 0; q < inbound.length; q++) {
+      for (int v : inbound[q]) {
+        next[v] += peerIn[q].readDouble();
+      }
+    }
+    double base = in.readDouble();
+    for (Future<?> send : sends) {
+      try {
+        send.get(); // 下一轮覆盖 outbound 之前必须发完
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("发送边界贡献时被中断");
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+      }
+    }
+    double delta = 0.0;
+    for (int v = 0; v < size; v++) {
+      next[v] += base;
+      delta += Math.abs(next[v] - rank[v]);
+    }
+    double[] swap = rank;
+    rank = next;
+    next = swap;
+    out.writeDouble(delta);
+    out.flush();
+  }
+
+  private Callable<Void> sender(int p) {
+    return () -> {
+      DataOutputStream peer = peerOut[p];
+      for (int s = slotStart[p]; s < slotStart[p + 1]; s++) {
+        peer.writeDouble(outbound[s]);
+      }
+      peer.flush();
+      return null;
+    };
+  }
+}
@@ -0,0 +1,47 @@
+package com.harukite;
+
+import java.util.List;
+
+/**
+ * 一对单词之间最短路径查询的结构化结果。
+ *
+ * <p>批量查询和结果输出都使用该模型，而不是预先拼接好的描述文本；
+ * 需要展示时再由调用方格式化。{@code paths} 可能只包含全部最短路径中的一部分，
+ * 完整条数见 {@code pathCount}。.
+ *
+ * @param source    起始单词
+ * @param target    目标单词
+ * @param status    查询状态
+ * @param distance  最短距离；不可达或单词不存在时为 {@link ShortestPaths#UNREACHABLE}
+ * @param pathCount 最短路径总条数（超过 {@link Long#MAX_VALUE} 时截断）
+ * @param paths     已枚举出的最短路径，每条为从起始单词到目标单词的单词序列
+ */
+public record PathResult(String source, String target, Status status, int distance,
+                         long pathCount, List<List<String>> paths) {
+
+  /**
+   * 查询状态。
+   */
+  public enum Status {
+    /** 找到了最短路径。 */
+    FOUND,
+    /** 两个单词都在图中，但不存在路径。 */
+    NO_PATH,
+    /** 起始单词不在图中。 */
+    UNKNOWN_SOURCE,
+    /** 目标单词不在图中。 */
+    UNKNOWN_TARGET
+  }
+
+  /**
+   * 创建没有路径的结果。
+   *
+   * @param source 起始单词
+   * @param target 目标单词
+   * @param status 查询状态，不能为 {@link Status#FOUND}
+   * @return 查询结果
+   */
+  public static PathResult missing(String source, String target, Status status) {
+    return new PathResult(source, target, status, ShortestPaths.UNREACHABLE, 0, List.of());
+  }
+}
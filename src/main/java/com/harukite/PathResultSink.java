@@ -0,0 +1,17 @@
+package com.harukite;
+
+/**
+ * 最短路径结果的接收者，用于把结果逐条流式输出，而不是先汇总成一个大字符串。
+ *
+ * <p>调用方保证对同一个接收者的调用是串行的，实现类无需自行同步。.
+ */
+@FunctionalInterface
+public interface PathResultSink {
+
+  /**
+   * 接收一条查询结果。
+   *
+   * @param result 查询结果
+   */
+  void accept(PathResult result);
+}
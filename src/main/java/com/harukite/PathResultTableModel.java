@@ -0,0 +1,96 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * 以表格形式显示最短路径结果的表格模型，每条路径（或每个不可达的目标）占一行。
+ *
+ * <p>模型只保存结构化的 {@link PathResult}，单元格文本在 {@link javax.swing.JTable}
+ * 绘制可见行时才生成，因此即使有上百万行，也只有屏幕上的几十行需要格式化。
+ * {@link #accept(PathResult)} 可以在任意线程调用：结果先进入缓冲区，
+ * 再成批地在事件调度线程（EDT）上追加并通知表格，避免逐行刷新界面。.
+ */
+final class PathResultTableModel extends AbstractTableModel implements PathResultSink {
+
+  private static final String[] COLUMNS = {"编号", "起点", "终点", "距离", "路径"};
+
+  private final List<PathResult> results = new ArrayList<>();
+  private int[] rowResult = new int[64]; // 每行对应的结果下标
+  private int[] rowPath = new int[64]; // 每行对应的路径下标，-1 表示没有路径
+  private int rows;
+
+  private final Object lock = new Object();
+  private List<PathResult> pending = new ArrayList<>();
+  private boolean flushScheduled;
+
+  @Override
+  public void accept(PathResult result) {
+    synchronized (lock) {
+      pending.add(result);
+      if (flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+    }
+    SwingUtilities.invokeLater(this::flush);
+  }
+
+  private void flush() {
+    List<PathResult> batch;
+    synchronized (lock) {
+      batch = pending;
+      pending = new ArrayList<>();
+      flushScheduled = false;
+    }
+    int first = rows;
+    for (PathResult result : batch) {
+      int index = results.size();
+      results.add(result);
+      int paths = result.paths().size();
+      for (int i = 0; i < Math.max(1, paths); i++) {
+        if (rows == rowResult.length) {
+          rowResult = Arrays.copyOf(rowResult, rows * 2);
+          rowPath = Arrays.copyOf(rowPath, rows * 2);
+        }
+        rowResult[rows] = index;
+        rowPath[rows] = paths == 0 ? -1 : i;
+        rows++;
+      }
+    }
+    if (rows > first) {
+      fireTableRowsInserted(first, rows - 1);
+    }
+  }
+
+  @Override
+  public int getRowCount() {
+    return rows;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    PathResult result = results.get(rowResult[row]);
+    int path = rowPath[row];
+    return switch (column) {
+      case 0 -> row + 1;
+      case 1 -> result.source();
+      case 2 -> result.target();
+      case 3 -> path < 0 ? "-" : String.valueOf(result.distance());
+      default -> path < 0 ? "没有路径" : String.join(" -> ", result.paths().get(path));
+    };
+  }
+}
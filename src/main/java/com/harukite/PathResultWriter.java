@@ -0,0 +1,73 @@
+package com.harukite;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * 把最短路径结果逐条格式化写入 {@link Writer} 的接收者。
+ *
+ * <p>输出格式与 {@link GraphProcessor#calcShortestPath(String, String)} 的文本一致，
+ * 路径编号在多条结果之间连续递增。每条结果写完即交给 {@code Writer}，
+ * 不在内存中累积，适合把全部目标的最短路径直接写入文件。.
+ */
+public final class PathResultWriter implements PathResultSink, Flushable {
+
+  private final Writer out;
+  private int pathNumber;
+
+  /**
+   * 创建写入器。
+   *
+   * @param out 输出目标，由调用方负责关闭
+   */
+  public PathResultWriter(Writer out) {
+    this.out = out;
+  }
+
+  /**
+   * 写入一条结果。
+   *
+   * @param result 查询结果
+   * @throws UncheckedIOException 写入失败时抛出
+   */
+  @Override
+  public void accept(PathResult result) {
+    try {
+      switch (result.status()) {
+        case UNKNOWN_SOURCE -> out.write("起始单词 \"" + result.source() + "\" 不在图中!\n");
+        case UNKNOWN_TARGET -> out.write("目标单词 \"" + result.target() + "\" 不在图中!\n");
+        case NO_PATH -> out.write("从 " + result.source() + " 到 " + result.target() + " 没有路径\n");
+        default -> writePaths(result);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writePaths(PathResult result) throws IOException {
+    out.write("从 " + result.source() + " 到 " + result.target() + " 的所有最短路径:\n");
+    for (int i = 0; i < result.paths().size(); i++) {
+      out.write("Path " + ++pathNumber + ": " + String.join(" -> ", result.paths().get(i))
+          + " (距离: " + result.distance() + ")\n");
+    }
+    if (result.pathCount() > result.paths().size()) {
+      out.write("（共 " + result.pathCount() + " 条，仅列出 " + result.paths().size() + " 条）\n");
+    }
+  }
+
+  /**
+   * 返回已写出的路径条数。
+   *
+   * @return 路径条数
+   */
+  public int pathCount() {
+    return pathNumber;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+}
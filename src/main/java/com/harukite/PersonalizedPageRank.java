@@ -0,0 +1,205 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 以若干种子单词为中心的个性化 PageRank（Personalized PageRank）。
+ *
+ * <p>随机游走者每一步以概率 {@value #TELEPORT} 跳回种子集合（在种子间均匀分布），
+ * 否则与 {@link PageRank} 一样，在当前单词的不同后继中均匀选择一个；
+ * 在悬挂节点（无出边）处同样跳回种子集合。
+ *
+ * <p>{@link #push(GraphStore, int[], double)} 使用 Andersen–Chung–Lang 局部前向推送算法：
+ * 维护估计值 {@code p} 与残差 {@code r}，只对满足 {@code r[u] > epsilon · deg(u)} 的顶点推送。
+ * 推送次数上界为 {@code 1 / (TELEPORT · epsilon)}，与图的规模无关，只会访问种子附近的顶点。
+ * 估计值总是不大于真实值，且两者的 L1 误差恰好等于结束时剩余的残差总量
+ * （见 {@link #residualMass()}），其中每个顶点的残差都不超过 {@code epsilon · max(deg(v), 1)}。
+ * {@link #exact(GraphStore, int[], double, int)} 则在整张图上做幂迭代，用于校验结果。.
+ */
+public final class PersonalizedPageRank {
+
+  /** 每一步跳回种子集合的概率。 */
+  public static final double TELEPORT = 1 - PageRank.DAMPING;
+
+  private final IntDoubleMap estimate;
+  private final int pushes;
+  private final int touched;
+  private final double residualMass;
+
+  private PersonalizedPageRank(IntDoubleMap estimate, int pushes, IntDoubleMap residual) {
+    this.estimate = estimate;
+    this.pushes = pushes;
+    this.touched = residual.size();
+    double mass = 0.0;
+    for (int i = 0; i < residual.size(); i++) {
+      mass += residual.get(residual.keyAt(i));
+    }
+    this.residualMass = mass;
+  }
+
+  /**
+   * 使用局部前向推送近似计算个性化 PageRank。
+   *
+   * @param graph   词图存储
+   * @param seeds   种子顶点 id，不能为空
+   * @param epsilon 残差阈值，越小越精确、访问的顶点越多
+   * @return 近似结果
+   */
+  public static PersonalizedPageRank push(GraphStore graph, int[] seeds, double epsilon) {
+    IntDoubleMap estimate = new IntDoubleMap();
+    IntDoubleMap residual = new IntDoubleMap();
+    double seedShare = 1.0 / seeds.length;
+    IntQueue queue = new IntQueue();
+    for (int seed : seeds) {
+      residual.add(seed, seedShare);
+    }
+    for (int i = 0; i < residual.size(); i++) {
+      queue.offer(residual.keyAt(i));
+    }
+
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    int pushes = 0;
+    while (!queue.isEmpty()) {
+      int u = queue.poll();
+      int degree = graph.outDegree(u);
+      double mass = residual.get(u);
+      if (mass <= epsilon * Math.max(degree, 1)) {
+        continue; // 已被推送过，或残差尚未达到阈值
+      }
+      pushes++;
+      residual.put(u, 0.0);
+      estimate.add(u, TELEPORT * mass);
+      double spread = (1 - TELEPORT) * mass;
+      if (degree == 0) {
+        // 悬挂节点：剩余概率跳回种子集合
+        for (int seed : seeds) {
+          offer(graph, residual, queue, seed, spread * seedShare, epsilon);
+        }
+      } else {
+        double share = spread / degree;
+        cursor.reset(u);
+        while (cursor.next()) {
+          offer(graph, residual, queue, cursor.target(), share, epsilon);
+        }
+      }
+    }
+    return new PersonalizedPageRank(estimate, pushes, residual);
+  }
+
+  private static void offer(GraphStore graph, IntDoubleMap residual, IntQueue queue, int v,
+      double delta, double epsilon) {
+    double before = residual.get(v);
+    double after = residual.add(v, delta);
+    double threshold = epsilon * Math.max(graph.outDegree(v), 1);
+    if (before <= threshold && after > threshold) {
+      queue.offer(v);
+    }
+  }
+
+  /**
+   * 在整张图上以幂迭代精确计算个性化 PageRank，用于校验 {@link #push} 的结果。
+   *
+   * @param graph         词图存储
+   * @param seeds         种子顶点 id，不能为空
+   * @param tolerance     两次迭代之间 L1 变化量的收敛阈值
+   * @param maxIterations 最大迭代次数
+   * @return 按顶点 id 索引的个性化 PageRank 向量
+   */
+  public static double[] exact(GraphStore graph, int[] seeds, double tolerance,
+      int maxIterations) {
+    int n = graph.vertexCount();
+    double[] teleport = new double[n];
+    for (int seed : seeds) {
+      teleport[seed] += 1.0 / seeds.length;
+    }
+    double[] current = teleport.clone();
+    double[] next = new double[n];
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    for (int iteration = 0; iteration < maxIterations; iteration++) {
+      double dangling = 0.0;
+      Arrays.fill(next, 0.0);
+      for (int u = 0; u < n; u++) {
+        int degree = graph.outDegree(u);
+        if (degree == 0) {
+          dangling += current[u];
+          continue;
+        }
+        double share = (1 - TELEPORT) * current[u] / degree;
+        cursor.reset(u);
+        while (cursor.next()) {
+          next[cursor.target()] += share;
+        }
+      }
+      double restart = TELEPORT + (1 - TELEPORT) * dangling;
+      double change = 0.0;
+      for (int v = 0; v < n; v++) {
+        next[v] += restart * teleport[v];
+        change += Math.abs(next[v] - current[v]);
+      }
+      double[] swap = current;
+      current = next;
+      next = swap;
+      if (change < tolerance) {
+        break;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * 返回顶点的估计得分。
+   *
+   * @param v 顶点 id
+   * @return 估计得分，未被访问的顶点为 0
+   */
+  public double score(int v) {
+    return estimate.get(v);
+  }
+
+  /**
+   * 返回得分最高的 {@code k} 个顶点，按得分降序排列。
+   *
+   * @param k 返回的顶点数上限
+   * @return 顶点 id 数组
+   */
+  public int[] topK(int k) {
+    Integer[] vertices = new Integer[estimate.size()];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = estimate.keyAt(i);
+    }
+    Arrays.sort(vertices, Comparator.comparingDouble(estimate::get).reversed());
+    int[] top = new int[Math.min(k, vertices.length)];
+    for (int i = 0; i < top.length; i++) {
+      top[i] = vertices[i];
+    }
+    return top;
+  }
+
+  /**
+   * 返回推送过程中残差被修改过的顶点数，用于观察算法的局部性。
+   *
+   * @return 顶点数
+   */
+  public int touched() {
+    return touched;
+  }
+
+  /**
+   * 返回结束时剩余的残差总量，即估计值与真实值之间的 L1 误差。
+   *
+   * @return 残差总量
+   */
+  public double residualMass() {
+    return residualMass;
+  }
+
+  /**
+   * 返回执行的推送次数。
+   *
+   * @return 推送次数
+   */
+  public int pushes() {
+    return pushes;
+  }
+}
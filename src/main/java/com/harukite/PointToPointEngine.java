@@ -0,0 +1,361 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 点到点最短路径引擎，支持双向 Dijkstra 与基于地标的 ALT（A*）搜索。
+ *
+ * <p>两种模式返回的距离和全部等长最短路径都与单向 Dijkstra（{@link ShortestPaths}）完全一致，
+ * 但只探索起点与终点附近的顶点：
+ * <ul>
+ *   <li>双向模式同时从起点沿正向图、从终点沿 {@link ReverseGraph} 搜索，
+ *   当两侧队首距离之和严格大于当前最优值 {@code mu} 时停止。此时每条最短路径都由
+ *   一段正向已确定的前缀和一段反向已确定的后缀组成，按“第一个反向已确定顶点”唯一拆分后枚举，
+ *   不会重复也不会遗漏。</li>
+ *   <li>ALT 模式使用 {@link Landmarks} 给出的一致下界做单向 A* 搜索，
+ *   直到队首的估计值严格大于 {@code mu}，保证所有最短路径上的前驱都已记录；
+ *   地标能证明无法到达终点的顶点会被直接剪掉。</li>
+ * </ul>
+ *
+ * <p>提供 {@link ReachabilityIndex} 时，标签能排除的不可达查询在搜索之前直接返回
+ * （只用 {@link ReachabilityIndex#mayReach(int, int)}，不做精确判断所需的分配和深度优先搜索），
+ * 搜索中也会剪掉无法到达终点（反向搜索中为起点无法到达）的顶点，其余不可达的查询因此很快结束。
+ *
+ * <p>引擎持有可复用的搜索空间（以时间戳标记有效项，无需每次清零），因此不是线程安全的。.
+ */
+public final class PointToPointEngine {
+
+  private static final int INF = ShortestPaths.UNREACHABLE;
+
+  private final GraphStore forward;
+  private final GraphStore reverse;
+  private final Landmarks landmarks;
+  private final ReachabilityIndex reachability;
+  private final SearchSpace forwardSpace;
+  private final SearchSpace backwardSpace;
+  private final GraphStore.EdgeCursor forwardCursor;
+  private final GraphStore.EdgeCursor backwardCursor;
+
+  /**
+   * 创建引擎。
+   *
+   * @param forward   词图
+   * @param reverse   词图的反向边索引
+   * @param landmarks 地标距离表；为 {@code null} 时使用双向 Dijkstra，否则使用 ALT
+   */
+  public PointToPointEngine(GraphStore forward, GraphStore reverse, Landmarks landmarks) {
+    this(forward, reverse, landmarks, null);
+  }
+
+  /**
+   * 创建使用可达性索引剪枝的引擎。
+   *
+   * @param forward      词图
+   * @param reverse      词图的反向边索引
+   * @param landmarks    地标距离表；为 {@code null} 时使用双向 Dijkstra，否则使用 ALT
+   * @param reachability 可达性索引；为 {@code null} 时不剪枝
+   */
+  public PointToPointEngine(GraphStore forward, GraphStore reverse, Landmarks landmarks,
+                            ReachabilityIndex reachability) {
+    this.forward = forward;
+    this.reverse = reverse;
+    this.landmarks = landmarks;
+    this.reachability = reachability;
+    this.forwardSpace = new SearchSpace(forward.vertexCount());
+    this.backwardSpace = new SearchSpace(forward.vertexCount());
+    this.forwardCursor = forward.cursor();
+    this.backwardCursor = reverse.cursor();
+  }
+
+  /**
+   * 一次点到点查询的结果。
+   *
+   * @param distance 最短距离；不可达时为 {@link ShortestPaths#UNREACHABLE}
+   * @param paths    所有最短路径，每条为从起点到终点的顶点 id 数组
+   * @param settled  搜索过程中确定（出队）的顶点数，用于衡量搜索范围
+   */
+  public record Result(int distance, List<int[]> paths, int settled) {
+  }
+
+  /**
+   * 计算从 {@code source} 到 {@code target} 的最短距离与全部最短路径。
+   *
+   * @param source 起点顶点 id
+   * @param target 终点顶点 id
+   * @return 查询结果
+   */
+  public Result search(int source, int target) {
+    if (source == target) {
+      List<int[]> paths = new ArrayList<>();
+      paths.add(new int[] {source});
+      return new Result(0, paths, 0);
+    }
+    if (reachability != null && !reachability.mayReach(source, target)) {
+      return new Result(INF, new ArrayList<>(), 0);
+    }
+    return landmarks == null ? bidirectional(source, target) : alt(source, target);
+  }
+
+  private Result bidirectional(int source, int target) {
+    SearchSpace f = forwardSpace;
+    SearchSpace b = backwardSpace;
+    f.reset();
+    b.reset();
+    f.label(source, 0, 0);
+    b.label(target, 0, 0);
+    long mu = INF;
+    int settled = 0;
+    while (true) {
+      long topF = f.peekKey();
+      long topB = b.peekKey();
+      if (topF == INF && topB == INF || topF + topB > mu) {
+        break;
+      }
+      boolean forwardStep = topF <= topB;
+      SearchSpace side = forwardStep ? f : b;
+      SearchSpace other = forwardStep ? b : f;
+      GraphStore.EdgeCursor cursor = forwardStep ? forwardCursor : backwardCursor;
+      int u = side.pop();
+      settled++;
+      int base = side.distance(u);
+      cursor.reset(u);
+      while (cursor.next()) {
+        int v = cursor.target();
+        if (reachability != null && (forwardStep
+            ? !reachability.mayReach(v, target) : !reachability.mayReach(source, v))) {
+          continue; // v 不可能位于起点到终点的路径上
+        }
+        long newDist = (long) base + cursor.weight();
+        side.relax(v, u, newDist, newDist);
+        int otherDist = other.distance(v);
+        if (otherDist != INF) {
+          mu = Math.min(mu, newDist + otherDist);
+        }
+      }
+    }
+    List<int[]> paths = new ArrayList<>();
+    if (mu >= INF) {
+      return new Result(INF, paths, settled);
+    }
+    if (b.isSettled(source)) {
+      // 整条路径都在反向已确定区域内
+      paths.addAll(b.chains(source, target));
+      return new Result((int) mu, paths, settled);
+    }
+    // 按“第一个反向已确定顶点 v”拆分：前缀 s…u 在正向区域，后缀 v…t 在反向区域
+    for (int i = 0; i < f.settledCount(); i++) {
+      int u = f.settledAt(i);
+      if (b.isSettled(u)) {
+        continue;
+      }
+      int du = f.distance(u);
+      forwardCursor.reset(u);
+      while (forwardCursor.next()) {
+        int v = forwardCursor.target();
+        if (!b.isSettled(v) || (long) du + forwardCursor.weight() + b.distance(v) != mu) {
+          continue;
+        }
+        List<int[]> suffixes = b.chains(v, target);
+        for (int[] prefix : f.chains(u, source)) {
+          reverse(prefix);
+          for (int[] suffix : suffixes) {
+            int[] path = Arrays.copyOf(prefix, prefix.length + suffix.length);
+            System.arraycopy(suffix, 0, path, prefix.length, suffix.length);
+            paths.add(path);
+          }
+        }
+      }
+    }
+    return new Result((int) mu, paths, settled);
+  }
+
+  private Result alt(int source, int target) {
+    SearchSpace f = forwardSpace;
+    f.reset();
+    int h = landmarks.lowerBound(source, target);
+    if (h == INF) {
+      return new Result(INF, new ArrayList<>(), 0);
+    }
+    f.label(source, 0, h);
+    int settled = 0;
+    while (f.peekKey() != INF && f.peekKey() <= f.distance(target)) {
+      int u = f.pop();
+      settled++;
+      int base = f.distance(u);
+      forwardCursor.reset(u);
+      while (forwardCursor.next()) {
+        int v = forwardCursor.target();
+        if (reachability != null && !reachability.mayReach(v, target)) {
+          continue;
+        }
+        int bound = landmarks.lowerBound(v, target);
+        if (bound != INF) {
+          long newDist = (long) base + forwardCursor.weight();
+          f.relax(v, u, newDist, newDist + bound);
+        }
+      }
+    }
+    List<int[]> paths = new ArrayList<>();
+    int distance = f.distance(target);
+    if (distance != INF) {
+      for (int[] path : f.chains(target, source)) {
+        reverse(path);
+        paths.add(path);
+      }
+    }
+    return new Result(distance, paths, settled);
+  }
+
+  private static void reverse(int[] path) {
+    for (int i = 0, j = path.length - 1; i < j; i++, j--) {
+      int swap = path[i];
+      path[i] = path[j];
+      path[j] = swap;
+    }
+  }
+
+  /**
+   * 单个方向的搜索空间：距离、前驱链表、已确定标记和优先队列。
+   *
+   * <p>数组按顶点数一次性分配，每次查询只递增时间戳，旧数据自动失效。.
+   */
+  private static final class SearchSpace {
+
+    private final int[] distances;
+    private final int[] labelStamp;
+    private final int[] settledStamp;
+    private final int[] predHead;
+    private final long[] keys;
+    private int[] predVertex = new int[64];
+    private int[] predNext = new int[64];
+    private int predSize;
+    private int[] settledOrder = new int[64];
+    private int settledSize;
+    private final LongHeap heap = new LongHeap();
+    private int stamp;
+
+    SearchSpace(int vertexCount) {
+      distances = new int[vertexCount];
+      labelStamp = new int[vertexCount];
+      settledStamp = new int[vertexCount];
+      predHead = new int[vertexCount];
+      keys = new long[vertexCount];
+    }
+
+    void reset() {
+      stamp++;
+      predSize = 0;
+      settledSize = 0;
+      heap.clear();
+    }
+
+    int distance(int v) {
+      return labelStamp[v] == stamp ? distances[v] : INF;
+    }
+
+    boolean isSettled(int v) {
+      return settledStamp[v] == stamp;
+    }
+
+    int settledCount() {
+      return settledSize;
+    }
+
+    int settledAt(int i) {
+      return settledOrder[i];
+    }
+
+    void label(int v, int distance, long key) {
+      labelStamp[v] = stamp;
+      distances[v] = distance;
+      keys[v] = key;
+      predHead[v] = -1;
+      heap.push((key << 32) | v);
+    }
+
+    /**
+     * 松弛一条边：距离更短时替换前驱，距离相等时追加前驱（即使 {@code v} 已确定）。
+     */
+    void relax(int v, int pred, long distance, long key) {
+      int current = distance(v);
+      if (distance < current) {
+        label(v, (int) distance, key);
+        addPredecessor(v, pred);
+      } else if (distance == current) {
+        addPredecessor(v, pred);
+      }
+    }
+
+    /**
+     * 返回队首的键（跳过过期项），队列为空时返回 {@link ShortestPaths#UNREACHABLE}。
+     */
+    long peekKey() {
+      while (!heap.isEmpty()) {
+        long top = heap.peek();
+        int v = (int) top;
+        if (isSettled(v) || keys[v] != top >>> 32) {
+          heap.pop(); // 过期项：顶点已确定，或之后又以更小的键入队
+        } else {
+          return top >>> 32;
+        }
+      }
+      return INF;
+    }
+
+    int pop() {
+      peekKey();
+      int v = (int) heap.pop();
+      settledStamp[v] = stamp;
+      if (settledSize == settledOrder.length) {
+        settledOrder = Arrays.copyOf(settledOrder, settledSize * 2);
+      }
+      settledOrder[settledSize++] = v;
+      return v;
+    }
+
+    private void addPredecessor(int v, int pred) {
+      if (predSize == predVertex.length) {
+        predVertex = Arrays.copyOf(predVertex, predSize * 2);
+        predNext = Arrays.copyOf(predNext, predSize * 2);
+      }
+      predVertex[predSize] = pred;
+      predNext[predSize] = predHead[v];
+      predHead[v] = predSize++;
+    }
+
+    /**
+     * 从 {@code start} 沿前驱链走到 {@code root}，枚举所有链，每条链按 start … root 排列。
+     */
+    List<int[]> chains(int start, int root) {
+      List<int[]> chains = new ArrayList<>();
+      int[] stack = new int[16];
+      int[] cursor = new int[16];
+      int depth = 0;
+      stack[0] = start;
+      cursor[0] = predHead[start];
+      while (depth >= 0) {
+        int vertex = stack[depth];
+        if (vertex == root) {
+          chains.add(Arrays.copyOf(stack, depth + 1));
+          depth--;
+          continue;
+        }
+        int node = cursor[depth];
+        if (node < 0) {
+          depth--;
+          continue;
+        }
+        cursor[depth] = predNext[node];
+        if (++depth == stack.length) {
+          stack = Arrays.copyOf(stack, depth * 2);
+          cursor = Arrays.copyOf(cursor, depth * 2);
+        }
+        stack[depth] = predVertex[node];
+        cursor[depth] = predHead[predVertex[node]];
+      }
+      return chains;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.harukite;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 长时间任务的进度回调与取消标志。
+ *
+ * <p>任务会在工作线程中调用 {@link #progress(long, long)}，实现类需要自行处理线程切换
+ * （例如通过 {@link javax.swing.SwingUtilities#invokeLater(Runnable)} 更新界面）。
+ * 任务在处理每个工作单元之间检查 {@link #isCancelled()}，返回 {@code true} 后尽快结束。.
+ */
+public interface ProgressMonitor {
+
+  /** 不报告进度、也从不取消的监视器。 */
+  ProgressMonitor NONE = new ProgressMonitor() {
+    @Override
+    public void progress(long done, long total) {
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+  };
+
+  /**
+   * 报告进度。
+   *
+   * @param done  已完成的工作量
+   * @param total 总工作量
+   */
+  void progress(long done, long total);
+
+  /**
+   * 返回任务是否已被取消。
+   *
+   * @return 若应当停止则返回 {@code true}
+   */
+  boolean isCancelled();
+
+  /**
+   * 若任务已被取消则抛出 {@link CancellationException}，供算法在循环中调用。
+   *
+   * @throws CancellationException {@link #isCancelled()} 返回 {@code true} 时抛出
+   */
+  default void checkCancelled() {
+    if (isCancelled()) {
+      throw new CancellationException("任务已取消");
+    }
+  }
+}
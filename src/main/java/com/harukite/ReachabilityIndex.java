@@ -0,0 +1,336 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * 基于强连通分量缩点的可达性索引，用于在最短路径搜索之前判断两个单词之间是否存在路径。
+ *
+ * <p>构建时先用迭代版 Tarjan 算法（显式栈，不会因为很长的单词链导致栈溢出）求出强连通分量，
+ * 再把每个分量缩成一个点得到有向无环图（DAG）。Tarjan 算法按完成顺序给分量编号，
+ * 因此若分量 {@code c} 能到达另一个分量 {@code d}，必有 {@code d < c}，编号本身就是一个拓扑序。
+ *
+ * <p>在 DAG 上另外计算若干组 GRAIL 区间标签：每组按不同的子结点顺序做一次后序遍历，
+ * 记录分量的后序编号 {@code post} 和其所有后代中最小的后序编号 {@code low}。
+ * 若 {@code c} 能到达 {@code d}，则每组标签中 {@code d} 的区间 {@code [low, post]} 都包含在
+ * {@code c} 的区间内；只要有一组不包含即可断定不可达。{@link #mayReach(int, int)} 只做这些
+ * O(标签组数) 的比较，不会把可达误判为不可达；{@link #canReach(int, int)} 在标签无法否定时
+ * 再做一次由标签剪枝的深度优先搜索，给出精确结果。
+ *
+ * <p>占用内存为每个顶点 1 个 int、每条缩点后的边 1 个 int、每个分量 {@code 1 + 2k} 个 int。
+ * 构建过程中会临时复制一份只含目标 id 的邻接数组（每条边 4 字节）。
+ * 该类创建后不可变，可以被多个线程同时查询。.
+ */
+public final class ReachabilityIndex {
+
+  /** 默认的 GRAIL 标签组数。 */
+  public static final int DEFAULT_LABELS = 3;
+
+  private final int[] component; // 顶点所属的分量编号
+  private final int componentCount;
+  private final int[] dagOffsets;
+  private final int[] dagTargets;
+  private final int labels;
+  private final int[] low; // low[l * componentCount + c]
+  private final int[] post; // post[l * componentCount + c]
+
+  private ReachabilityIndex(int[] component, int componentCount, int[] dagOffsets,
+      int[] dagTargets, int labels, int[] low, int[] post) {
+    this.component = component;
+    this.componentCount = componentCount;
+    this.dagOffsets = dagOffsets;
+    this.dagTargets = dagTargets;
+    this.labels = labels;
+    this.low = low;
+    this.post = post;
+  }
+
+  /**
+   * 使用 {@value #DEFAULT_LABELS} 组标签为词图构建可达性索引。
+   *
+   * @param graph 词图
+   * @return 可达性索引
+   */
+  public static ReachabilityIndex of(GraphStore graph) {
+    return of(graph, DEFAULT_LABELS);
+  }
+
+  /**
+   * 为词图构建可达性索引。
+   *
+   * @param graph  词图
+   * @param labels GRAIL 标签组数，越多则 {@link #mayReach(int, int)} 能直接否定的查询越多
+   * @return 可达性索引
+   */
+  public static ReachabilityIndex of(GraphStore graph, int labels) {
+    if (labels < 1) {
+      throw new IllegalArgumentException("标签组数必须为正数: " + labels);
+    }
+    int n = graph.vertexCount();
+    int[] offsets = new int[n + 1];
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] = Math.addExact(offsets[v], graph.outDegree(v));
+    }
+    int[] targets = new int[offsets[n]];
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    for (int v = 0; v < n; v++) {
+      cursor.reset(v);
+      for (int e = offsets[v]; cursor.next(); e++) {
+        targets[e] = cursor.target();
+      }
+    }
+
+    // 迭代版 Tarjan：members 按分量顺序存放顶点，componentStart[c] 为分量 c 的起点
+    int[] index = new int[n];
+    int[] lowLink = new int[n];
+    int[] component = new int[n];
+    Arrays.fill(index, -1);
+    Arrays.fill(component, -1);
+    int[] sccStack = new int[n];
+    int[] callVertex = new int[n];
+    int[] callEdge = new int[n];
+    int[] members = new int[n];
+    int[] componentStart = new int[n + 1];
+    int components = 0;
+    int memberCount = 0;
+    int counter = 0;
+    int sccTop = 0;
+    for (int s = 0; s < n; s++) {
+      if (index[s] >= 0) {
+        continue;
+      }
+      index[s] = lowLink[s] = counter++;
+      sccStack[sccTop++] = s;
+      callVertex[0] = s;
+      callEdge[0] = offsets[s];
+      int callTop = 1;
+      while (callTop > 0) {
+        int v = callVertex[callTop - 1];
+        int e = callEdge[callTop - 1];
+        if (e < offsets[v + 1]) {
+          callEdge[callTop - 1] = e + 1;
+          int w = targets[e];
+          if (index[w] < 0) {
+            index[w] = lowLink[w] = counter++;
+            sccStack[sccTop++] = w;
+            callVertex[callTop] = w;
+            callEdge[callTop] = offsets[w];
+            callTop++;
+          } else if (component[w] < 0) { // 已访问但尚未归入分量，即仍在栈中
+            lowLink[v] = Math.min(lowLink[v], index[w]);
+          }
+          continue;
+        }
+        callTop--;
+        if (lowLink[v] == index[v]) {
+          componentStart[components] = memberCount;
+          int w;
+          do {
+            w = sccStack[--sccTop];
+            component[w] = components;
+            members[memberCount++] = w;
+          } while (w != v);
+          components++;
+        }
+        if (callTop > 0) {
+          int parent = callVertex[callTop - 1];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+        }
+      }
+    }
+    componentStart[components] = memberCount;
+
+    // 缩点：去掉分量内部的边和重复的边
+    int[] dagOffsets = new int[components + 1];
+    int[] dagTargets = new int[targets.length];
+    int[] stamp = new int[components];
+    Arrays.fill(stamp, -1);
+    int size = 0;
+    for (int c = 0; c < components; c++) {
+      dagOffsets[c] = size;
+      for (int i = componentStart[c]; i < componentStart[c + 1]; i++) {
+        int v = members[i];
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int d = component[targets[e]];
+          if (d != c && stamp[d] != c) {
+            stamp[d] = c;
+            dagTargets[size++] = d;
+          }
+        }
+      }
+    }
+    dagOffsets[components] = size;
+    dagTargets = Arrays.copyOf(dagTargets, size);
+
+    int[] low = new int[labels * components];
+    int[] post = new int[labels * components];
+    label(dagOffsets, dagTargets, components, labels, low, post);
+    return new ReachabilityIndex(component, components, dagOffsets, dagTargets, labels, low,
+        post);
+  }
+
+  /**
+   * 在 DAG 上做 {@code labels} 次后序遍历，每次以不同的顺序访问根和子结点。
+   */
+  private static void label(int[] dagOffsets, int[] dagTargets, int components, int labels,
+      int[] low, int[] post) {
+    boolean[] hasParent = new boolean[components];
+    for (int d : dagTargets) {
+      hasParent[d] = true;
+    }
+    int[] stackComponent = new int[components];
+    int[] stackChild = new int[components];
+    for (int l = 0; l < labels; l++) {
+      int base = l * components;
+      int counter = 0;
+      for (int r = 0; r < components; r++) {
+        int root = childOrder(l, -1, r, components);
+        if (hasParent[root] || post[base + root] != 0) {
+          continue;
+        }
+        post[base + root] = -1; // 正在访问
+        stackComponent[0] = root;
+        stackChild[0] = 0;
+        int top = 1;
+        while (top > 0) {
+          int c = stackComponent[top - 1];
+          int j = stackChild[top - 1];
+          int degree = dagOffsets[c + 1] - dagOffsets[c];
+          if (j < degree) {
+            stackChild[top - 1] = j + 1;
+            int child = dagTargets[dagOffsets[c] + childOrder(l, c, j, degree)];
+            if (post[base + child] == 0) {
+              post[base + child] = -1;
+              stackComponent[top] = child;
+              stackChild[top] = 0;
+              top++;
+            }
+            continue;
+          }
+          top--;
+          post[base + c] = ++counter;
+          int min = counter;
+          for (int e = dagOffsets[c]; e < dagOffsets[c + 1]; e++) {
+            min = Math.min(min, low[base + dagTargets[e]]);
+          }
+          low[base + c] = min;
+        }
+      }
+    }
+  }
+
+  /**
+   * 第 {@code l} 组标签中第 {@code j} 个访问的子结点（{@code c < 0} 时为根）的位置：
+   * 第 0 组按原顺序，第 1 组逆序，之后各组从按分量散列得到的位置开始循环访问。
+   */
+  private static int childOrder(int l, int c, int j, int degree) {
+    if (l == 0) {
+      return j;
+    }
+    if (l == 1) {
+      return degree - 1 - j;
+    }
+    int h = (c * 0x9E3779B1 + l) * 0x85EBCA6B;
+    return (int) ((j + ((h ^ (h >>> 16)) & 0x7FFFFFFFL)) % degree);
+  }
+
+  /**
+   * 返回强连通分量的个数。
+   *
+   * @return 分量个数
+   */
+  public int componentCount() {
+    return componentCount;
+  }
+
+  /**
+   * 返回顶点所属的强连通分量编号。若分量 {@code c} 能到达另一个分量 {@code d}，则 {@code d < c}。
+   *
+   * @param v 顶点 id
+   * @return 分量编号
+   */
+  public int component(int v) {
+    return component[v];
+  }
+
+  /**
+   * 只用标签判断 {@code u} 是否可能到达 {@code v}，耗时为 O(标签组数)。
+   *
+   * <p>返回 {@code false} 时一定不可达；返回 {@code true} 时可能可达，
+   * 适合在搜索中剪掉不可能通往目标的顶点。.
+   *
+   * @param u 起点顶点 id
+   * @param v 终点顶点 id
+   * @return 若不能排除可达则返回 {@code true}
+   */
+  public boolean mayReach(int u, int v) {
+    return mayReachComponent(component[u], component[v]);
+  }
+
+  private boolean mayReachComponent(int c, int d) {
+    if (c == d) {
+      return true;
+    }
+    if (c < d) {
+      return false; // 分量编号是拓扑序
+    }
+    for (int base = 0; base < labels * componentCount; base += componentCount) {
+      if (low[base + d] < low[base + c] || post[base + d] > post[base + c]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 精确判断 {@code u} 是否能到达 {@code v}（{@code u} 总能到达自身）。
+   *
+   * <p>先用标签判断，无法否定时在 DAG 上做深度优先搜索，只进入标签表明可能到达目标的分量。.
+   *
+   * @param u 起点顶点 id
+   * @param v 终点顶点 id
+   * @return 若存在从 {@code u} 到 {@code v} 的路径则返回 {@code true}
+   */
+  public boolean canReach(int u, int v) {
+    int c = component[u];
+    int d = component[v];
+    if (!mayReachComponent(c, d)) {
+      return false;
+    }
+    if (c == d) {
+      return true;
+    }
+    // 只有编号在 (d, c] 之间的分量可能位于 c 到 d 的路径上
+    boolean[] visited = new boolean[c - d + 1];
+    int[] stack = new int[16];
+    int top = 0;
+    stack[top++] = c;
+    visited[c - d] = true;
+    while (top > 0) {
+      int x = stack[--top];
+      for (int e = dagOffsets[x]; e < dagOffsets[x + 1]; e++) {
+        int y = dagTargets[e];
+        if (y == d) {
+          return true;
+        }
+        if (y > d && !visited[y - d] && mayReachComponent(y, d)) {
+          visited[y - d] = true;
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+          }
+          stack[top++] = y;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 估算索引占用的堆内存字节数（仅计算数组本身）。
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return 4L * (component.length + dagOffsets.length + dagTargets.length + low.length
+        + post.length);
+  }
+}
@@ -0,0 +1,137 @@
+package com.harukite;
+
+import java.util.Arrays;
+
+/**
+ * 词图的反向边索引：顶点 {@code v} 的出边即原图中指向 {@code v} 的入边。
+ *
+ * <p>以 CSR 格式存放在堆内，入边按来源 id 升序排列，单词与词频委托给原图。
+ * 在反向图上运行单源最短路径即可得到所有顶点到某个目标的距离。
+ * 创建后不可变，可以被多个线程同时读取。.
+ */
+public final class ReverseGraph implements GraphStore {
+
+  private final GraphStore forward;
+  private final int[] offsets;
+  private final int[] sources;
+  private final int[] weights;
+
+  private ReverseGraph(GraphStore forward, int[] offsets, int[] sources, int[] weights) {
+    this.forward = forward;
+    this.offsets = offsets;
+    this.sources = sources;
+    this.weights = weights;
+  }
+
+  /**
+   * 为词图建立反向边索引。
+   *
+   * @param forward 原词图
+   * @return 反向图
+   */
+  public static ReverseGraph of(GraphStore forward) {
+    int n = forward.vertexCount();
+    int[] offsets = new int[n + 1];
+    GraphStore.EdgeCursor cursor = forward.cursor();
+    for (int u = 0; u < n; u++) {
+      cursor.reset(u);
+      while (cursor.next()) {
+        offsets[cursor.target() + 1]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      offsets[v + 1] += offsets[v];
+    }
+    int[] sources = new int[offsets[n]];
+    int[] weights = new int[offsets[n]];
+    int[] fill = Arrays.copyOf(offsets, n);
+    // 按来源 id 升序填充，得到的每一行天然有序
+    for (int u = 0; u < n; u++) {
+      cursor.reset(u);
+      while (cursor.next()) {
+        int e = fill[cursor.target()]++;
+        sources[e] = u;
+        weights[e] = cursor.weight();
+      }
+    }
+    return new ReverseGraph(forward, offsets, sources, weights);
+  }
+
+  @Override
+  public int vertexCount() {
+    return forward.vertexCount();
+  }
+
+  @Override
+  public long edgeCount() {
+    return sources.length;
+  }
+
+  @Override
+  public int id(String word) {
+    return forward.id(word);
+  }
+
+  @Override
+  public String word(int v) {
+    return forward.word(v);
+  }
+
+  @Override
+  public int outDegree(int v) {
+    return offsets[v + 1] - offsets[v];
+  }
+
+  @Override
+  public int neighbor(int v, int index) {
+    return sources[offsets[v] + index];
+  }
+
+  @Override
+  public int edgeWeight(int u, int v) {
+    int e = Arrays.binarySearch(sources, offsets[u], offsets[u + 1], v);
+    return e >= 0 ? weights[e] : 0;
+  }
+
+  @Override
+  public int count(int v) {
+    return forward.count(v);
+  }
+
+  @Override
+  public int wordNum() {
+    return forward.wordNum();
+  }
+
+  @Override
+  public EdgeCursor cursor() {
+    return new Cursor();
+  }
+
+  private final class Cursor implements EdgeCursor {
+
+    private int edge;
+    private int end;
+
+    @Override
+    public void reset(int v) {
+      edge = offsets[v] - 1;
+      end = offsets[v + 1];
+    }
+
+    @Override
+    public boolean next() {
+      return ++edge < end;
+    }
+
+    @Override
+    public int target() {
+      return sources[edge];
+    }
+
+    @Override
+    public int weight() {
+      return weights[edge];
+    }
+  }
+}
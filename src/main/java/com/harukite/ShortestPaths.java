@@ -0,0 +1,253 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 单源最短路径结果，基于 {@link GraphStore} 上的 Dijkstra 算法。
+ *
+ * <p>与原先基于字符串的实现一致，每个顶点记录所有等长最短路径上的前驱，
+ * 因此可以枚举起点到任意顶点的全部最短路径。
+ * 距离、前驱都以 int 数组存储，优先队列为基于 long 数组的二叉堆（高 32 位为距离，低 32 位为顶点），
+ * 整个搜索过程不产生装箱对象。.
+ */
+public final class ShortestPaths {
+
+  /** 不可达顶点的距离。 */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private static final int CANCEL_CHECK_INTERVAL = 4096; // 每确定多少个顶点检查一次取消标志
+
+  private final int source;
+  private final int[] distances;
+  private final int[] predHead; // 每个顶点前驱链表的头结点，-1 表示没有前驱
+  private int[] predVertex;
+  private int[] predNext;
+  private int predSize;
+  private final int[] order; // 顶点按确定（出队）先后的顺序
+  private int orderSize;
+  private long[] pathCounts; // 按需计算的最短路径条数
+
+  private ShortestPaths(int source, int vertexCount) {
+    this.source = source;
+    this.distances = new int[vertexCount];
+    this.predHead = new int[vertexCount];
+    this.predVertex = new int[Math.max(16, vertexCount)];
+    this.predNext = new int[predVertex.length];
+    this.order = new int[vertexCount];
+    Arrays.fill(distances, UNREACHABLE);
+    Arrays.fill(predHead, -1);
+  }
+
+  /**
+   * 从指定起点运行 Dijkstra 算法。
+   *
+   * @param graph  词图存储
+   * @param source 起点顶点 id
+   * @return 单源最短路径结果
+   */
+  public static ShortestPaths from(GraphStore graph, int source) {
+    return from(graph, source, null);
+  }
+
+  /**
+   * 从指定起点运行 Dijkstra 算法，当 {@code targets} 中的顶点全部确定后提前结束。
+   *
+   * <p>提前结束时，只有 {@code targets} 中的顶点（以及距离不超过它们的顶点）的距离、路径和路径条数保证正确。.
+   *
+   * @param graph   词图存储
+   * @param source  起点顶点 id
+   * @param targets 需要的目标顶点 id；为 {@code null} 时搜索全部可达顶点
+   * @return 单源最短路径结果
+   */
+  public static ShortestPaths from(GraphStore graph, int source, int[] targets) {
+    return from(graph, source, targets, ProgressMonitor.NONE);
+  }
+
+  /**
+   * 与 {@link #from(GraphStore, int, int[])} 相同，但每确定 {@value #CANCEL_CHECK_INTERVAL}
+   * 个顶点检查一次取消标志，以便在大图上中途停止。
+   *
+   * @param graph   词图存储
+   * @param source  起点顶点 id
+   * @param targets 需要的目标顶点 id；为 {@code null} 时搜索全部可达顶点
+   * @param monitor 进度监视器，只用于检查取消标志
+   * @return 单源最短路径结果
+   * @throws java.util.concurrent.CancellationException 被 {@code monitor} 取消时抛出
+   */
+  public static ShortestPaths from(GraphStore graph, int source, int[] targets,
+                                   ProgressMonitor monitor) {
+    ShortestPaths result = new ShortestPaths(source, graph.vertexCount());
+    int[] distances = result.distances;
+    boolean[] settled = new boolean[graph.vertexCount()];
+    boolean[] wanted = null;
+    int pending = 0;
+    if (targets != null) {
+      wanted = new boolean[graph.vertexCount()];
+      for (int target : targets) {
+        if (!wanted[target]) {
+          wanted[target] = true;
+          pending++;
+        }
+      }
+    }
+    LongHeap queue = new LongHeap();
+    GraphStore.EdgeCursor cursor = graph.cursor();
+    distances[source] = 0;
+    queue.push(source);
+
+    while (!queue.isEmpty()) {
+      long top = queue.pop();
+      int current = (int) top;
+      if (settled[current]) {
+        continue; // 过期的队列项
+      }
+      if ((result.orderSize & (CANCEL_CHECK_INTERVAL - 1)) == 0) {
+        monitor.checkCancelled();
+      }
+      settled[current] = true;
+      result.order[result.orderSize++] = current;
+      if (wanted != null && wanted[current] && --pending == 0) {
+        break; // 所有目标都已确定
+      }
+      int base = distances[current];
+      cursor.reset(current);
+      while (cursor.next()) {
+        int next = cursor.target();
+        long newDist = (long) base + cursor.weight();
+        if (newDist < distances[next]) {
+          distances[next] = (int) newDist;
+          result.predHead[next] = -1;
+          result.addPredecessor(next, current);
+          queue.push((newDist << 32) | next);
+        } else if (newDist == distances[next]) {
+          result.addPredecessor(next, current);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 返回起点顶点 id。
+   *
+   * @return 起点
+   */
+  public int source() {
+    return source;
+  }
+
+  /**
+   * 返回起点到指定顶点的最短距离。
+   *
+   * @param v 顶点 id
+   * @return 最短距离；不可达时返回 {@link #UNREACHABLE}
+   */
+  public int distance(int v) {
+    return distances[v];
+  }
+
+  /**
+   * 枚举起点到目标顶点的所有最短路径。
+   *
+   * <p>采用显式栈的深度优先遍历，避免长路径导致递归栈溢出。.
+   *
+   * @param target 目标顶点 id
+   * @return 所有最短路径，每条路径为从起点到终点的顶点 id 数组；不可达时返回空列表
+   */
+  public List<int[]> paths(int target) {
+    return paths(target, Integer.MAX_VALUE);
+  }
+
+  /**
+   * 枚举起点到目标顶点的最短路径，至多返回 {@code limit} 条。
+   *
+   * @param target 目标顶点 id
+   * @param limit  返回的路径条数上限
+   * @return 最短路径列表，每条路径为从起点到终点的顶点 id 数组；不可达时返回空列表
+   */
+  public List<int[]> paths(int target, int limit) {
+    List<int[]> paths = new ArrayList<>();
+    if (distances[target] == UNREACHABLE) {
+      return paths;
+    }
+    // 从目标沿前驱回溯，stack 保存当前路径上的顶点，cursor 保存各层下一个待访问的前驱结点
+    int[] stack = new int[16];
+    int[] cursor = new int[16];
+    int depth = 0;
+    stack[0] = target;
+    cursor[0] = predHead[target];
+    while (depth >= 0) {
+      int vertex = stack[depth];
+      if (vertex == source) {
+        int[] path = new int[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+          path[i] = stack[depth - i];
+        }
+        paths.add(path);
+        if (paths.size() >= limit) {
+          break;
+        }
+        depth--;
+        continue;
+      }
+      int node = cursor[depth];
+      if (node < 0) {
+        depth--;
+        continue;
+      }
+      cursor[depth] = predNext[node];
+      if (++depth == stack.length) {
+        stack = Arrays.copyOf(stack, depth * 2);
+        cursor = Arrays.copyOf(cursor, depth * 2);
+      }
+      stack[depth] = predVertex[node];
+      cursor[depth] = predHead[predVertex[node]];
+    }
+    return paths;
+  }
+
+  /**
+   * 返回起点到目标顶点的最短路径条数，不实际枚举路径。
+   *
+   * <p>按顶点确定的先后顺序累加前驱的路径条数，首次调用时一次性计算全部顶点，
+   * 超过 {@link Long#MAX_VALUE} 时截断为 {@link Long#MAX_VALUE}。.
+   *
+   * @param target 目标顶点 id
+   * @return 最短路径条数；不可达时为 0
+   */
+  public long pathCount(int target) {
+    if (pathCounts == null) {
+      long[] counts = new long[distances.length];
+      for (int i = 0; i < orderSize; i++) {
+        int v = order[i];
+        if (v == source) {
+          counts[v] = 1;
+          continue;
+        }
+        long count = 0;
+        for (int node = predHead[v]; node >= 0; node = predNext[node]) {
+          count += counts[predVertex[node]];
+          if (count < 0) {
+            count = Long.MAX_VALUE;
+            break;
+          }
+        }
+        counts[v] = count;
+      }
+      pathCounts = counts;
+    }
+    return pathCounts[target];
+  }
+
+  private void addPredecessor(int vertex, int pred) {
+    if (predSize == predVertex.length) {
+      predVertex = Arrays.copyOf(predVertex, predSize * 2);
+      predNext = Arrays.copyOf(predNext, predSize * 2);
+    }
+    predVertex[predSize] = pred;
+    predNext[predSize] = predHead[vertex];
+    predHead[vertex] = predSize++;
+  }
+}
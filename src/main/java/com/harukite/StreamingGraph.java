@@ -0,0 +1,456 @@
+package com.harukite;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 面向连续文本流（聊天记录、日志等）的词图，只反映最近的单词关系。
+ *
+ * <p>支持三种保留策略：
+ * <ul>
+ *   <li>{@link #lastTokens(int)}：只保留最近 N 个单词，边为窗口内相邻的单词对；</li>
+ *   <li>{@link #lastDuration(Duration)}：只保留最近一段时间内到达的单词；</li>
+ *   <li>{@link #decaying(double)}：不设窗口，每到达一个单词，已有的边权重和单词出现次数都乘以
+ *   {@code 2^(-1/halfLife)}，即经过 {@code halfLife} 个单词后减半。</li>
+ * </ul>
+ * 窗口模式用环形缓冲区记录窗口内的单词 id，单词离开窗口时把它的出现次数和它与下一个单词之间的边权重
+ * 各减 1，减到 0 时立即删除边或单词，权重始终是精确的整数，内存与窗口内的单词数成正比。
+ * 衰减模式不逐项相乘，而是维护一个全局比例 {@code scale}，存储值为真实值乘以 {@code scale}：
+ * 每个单词只需把 {@code scale} 乘以 {@code 2^(1/halfLife)}，{@code scale} 过大时整体重新归一化一次。
+ * 真实值低于 {@value #COLD} 的边，以及出现次数低于该值且不再有边相连的单词视为冷数据，
+ * 每当到达的单词数达到上次清理后剩余的单词数与边数之和（至少 {@value #MIN_SWEEP}）时统一清理一次，
+ * 一次清理的耗时与这段时间内到达的单词数同阶，因此均摊代价为 O(1)。
+ * 由于所有值之和不超过 {@code 1 / (1 − 2^(-1/halfLife))}（约 {@code 1.44 · halfLife}），
+ * 保留的单词和边数不超过约 {@code 144 · halfLife} 加上两次清理之间新增的部分。
+ *
+ * <p>每个单词的更新均摊为 O(1)：查找单词 id 使用哈希表，边以 {@link LongIntMap#pack(int, int)}
+ * 打包的顶点 id 为键存放在 {@link LongIntMap} 中，被删除的单词和边的 id 放入空闲列表重复使用。
+ * {@link #graph()}、{@link #wordCount()} 和 {@link #wordNum()} 以字符串形式导出当前快照，
+ * {@link #toWordGraph(boolean)} 则直接由 id 数组导出 {@link GraphProcessor} 使用的 {@link WordGraph}，
+ * 耗时都与保留的单词和边数成正比；衰减模式下的权重和次数四舍五入为整数，边的权重至少为 1。
+ *
+ * <p>流中的单词首尾相连：每次追加的第一个单词与上一次追加的最后一个单词之间也有边。
+ * 该类不是线程安全的。.
+ */
+public final class StreamingGraph {
+
+  /** 衰减模式下视为冷数据的阈值。 */
+  public static final double COLD = 0.01;
+
+  static final int MIN_SWEEP = 1024;
+  private static final double RESCALE = 1e100; // scale 超过该值时重新归一化
+  private static final int FREE = -1;
+
+  private final int maxTokens; // 窗口单词数上限，0 表示不限
+  private final long durationMillis; // 窗口时长，0 表示不限
+  private final double growth; // 衰减模式下每个单词 scale 的增长倍数，0 表示不衰减
+
+  // 单词：words[v] 为 null 表示 id 空闲
+  private final Map<String, Integer> ids = new HashMap<>();
+  private String[] words = new String[16];
+  private double[] counts = new double[16];
+  private int[] degrees = new int[16]; // 与单词相连的边数（出边与入边之和）
+  private int[] freeVertices = new int[16];
+  private int freeVertexCount;
+  private int vertexSlots;
+
+  // 边：edgeKeys[e] 为 FREE 表示 id 空闲
+  private final LongIntMap edgeIndex = new LongIntMap();
+  private long[] edgeKeys = new long[16];
+  private double[] edgeWeights = new double[16];
+  private int[] freeEdges = new int[16];
+  private int freeEdgeCount;
+  private int edgeSlots;
+
+  // 窗口模式的环形缓冲区
+  private int[] ringIds = new int[16];
+  private long[] ringTimes = new long[16];
+  private int ringStart;
+  private int ringSize;
+
+  private double total; // 窗口内的单词数，或衰减后的单词总数（乘以 scale）
+  private double scale = 1.0;
+  private int previous = -1; // 衰减模式下上一个单词的 id
+  private long sinceSweep;
+  private long sweepInterval = MIN_SWEEP; // 上次清理后剩余的单词数与边数之和，至少为 MIN_SWEEP
+
+  private StreamingGraph(int maxTokens, long durationMillis, double growth) {
+    this.maxTokens = maxTokens;
+    this.durationMillis = durationMillis;
+    this.growth = growth;
+  }
+
+  /**
+   * 创建只保留最近 {@code tokens} 个单词的流式词图。
+   *
+   * @param tokens 窗口单词数，必须为正数
+   * @return 流式词图
+   */
+  public static StreamingGraph lastTokens(int tokens) {
+    if (tokens < 1) {
+      throw new IllegalArgumentException("窗口单词数必须为正数: " + tokens);
+    }
+    return new StreamingGraph(tokens, 0, 0);
+  }
+
+  /**
+   * 创建只保留最近一段时间内到达的单词的流式词图。
+   *
+   * <p>单词按 {@link #append(List, long)} 传入的时间戳判断是否过期；
+   * 没有新单词时可以调用 {@link #expire(long)} 主动清理。.
+   *
+   * @param duration 窗口时长，必须为正
+   * @return 流式词图
+   */
+  public static StreamingGraph lastDuration(Duration duration) {
+    if (duration.isZero() || duration.isNegative()) {
+      throw new IllegalArgumentException("窗口时长必须为正: " + duration);
+    }
+    return new StreamingGraph(0, duration.toMillis(), 0);
+  }
+
+  /**
+   * 创建边权重和单词出现次数按指数衰减的流式词图。
+   *
+   * @param halfLife 半衰期，以单词数计，必须为正
+   * @return 流式词图
+   */
+  public static StreamingGraph decaying(double halfLife) {
+    if (!(halfLife > 0)) {
+      throw new IllegalArgumentException("半衰期必须为正: " + halfLife);
+    }
+    return new StreamingGraph(0, 0, Math.pow(2, 1 / halfLife));
+  }
+
+  /**
+   * 以当前系统时间追加单词。
+   *
+   * @param tokens 按出现顺序排列的单词
+   */
+  public void append(List<String> tokens) {
+    append(tokens, System.currentTimeMillis());
+  }
+
+  /**
+   * 追加在 {@code timeMillis} 时刻到达的单词，并按保留策略移除过期的单词和边。
+   *
+   * @param tokens     按出现顺序排列的单词
+   * @param timeMillis 到达时刻（毫秒），应单调不减；只在按时长保留时使用
+   */
+  public void append(List<String> tokens, long timeMillis) {
+    expire(timeMillis);
+    for (String token : tokens) {
+      if (growth > 0) {
+        acceptDecaying(token);
+      } else {
+        acceptWindowed(token, timeMillis);
+      }
+    }
+  }
+
+  /**
+   * 按时长保留时，移除在 {@code timeMillis − duration} 之前（含）到达的单词；其他模式下不做任何事。
+   *
+   * @param timeMillis 当前时刻（毫秒）
+   */
+  public void expire(long timeMillis) {
+    if (durationMillis > 0) {
+      while (ringSize > 0 && ringTimes[ringStart] <= timeMillis - durationMillis) {
+        evictOldest();
+      }
+    }
+  }
+
+  private void acceptWindowed(String token, long timeMillis) {
+    int v = vertex(token);
+    counts[v] += 1;
+    total += 1;
+    if (ringSize > 0) {
+      addEdge(ringIds[(ringStart + ringSize - 1) % ringIds.length], v, 1);
+    }
+    if (ringSize == ringIds.length) {
+      growRing();
+    }
+    int slot = (ringStart + ringSize) % ringIds.length;
+    ringIds[slot] = v;
+    ringTimes[slot] = timeMillis;
+    ringSize++;
+    if (maxTokens > 0 && ringSize > maxTokens) {
+      evictOldest();
+    }
+  }
+
+  /**
+   * 移除窗口中最早的单词，以及它与下一个单词之间的边。
+   */
+  private void evictOldest() {
+    int v = ringIds[ringStart];
+    ringStart = (ringStart + 1) % ringIds.length;
+    ringSize--;
+    if (ringSize > 0) {
+      int e = edgeIndex.get(LongIntMap.pack(v, ringIds[ringStart]));
+      edgeWeights[e] -= 1;
+      if (edgeWeights[e] <= 0) {
+        removeEdge(e);
+      }
+    }
+    counts[v] -= 1;
+    total -= 1;
+    if (counts[v] <= 0 && degrees[v] == 0) {
+      removeVertex(v);
+    }
+  }
+
+  private void growRing() {
+    int capacity = ringIds.length * 2;
+    int[] newIds = new int[capacity];
+    long[] newTimes = new long[capacity];
+    for (int i = 0; i < ringSize; i++) {
+      newIds[i] = ringIds[(ringStart + i) % ringIds.length];
+      newTimes[i] = ringTimes[(ringStart + i) % ringIds.length];
+    }
+    ringIds = newIds;
+    ringTimes = newTimes;
+    ringStart = 0;
+  }
+
+  private void acceptDecaying(String token) {
+    scale *= growth;
+    if (scale > RESCALE) {
+      rescale();
+    }
+    int v = vertex(token);
+    counts[v] += scale;
+    total += scale;
+    if (previous >= 0) {
+      addEdge(previous, v, scale);
+    }
+    previous = v;
+    if (++sinceSweep >= sweepInterval) {
+      sweep();
+    }
+  }
+
+  private void rescale() {
+    double factor = 1 / scale;
+    for (int v = 0; v < vertexSlots; v++) {
+      counts[v] *= factor;
+    }
+    for (int e = 0; e < edgeSlots; e++) {
+      edgeWeights[e] *= factor;
+    }
+    total *= factor;
+    scale = 1.0;
+  }
+
+  /**
+   * 删除冷的边，再删除冷且不再有边相连的单词（上一个单词除外，下一次追加还要用它连边）。
+   */
+  private void sweep() {
+    sinceSweep = 0;
+    double threshold = COLD * scale;
+    for (int e = 0; e < edgeSlots; e++) {
+      if (edgeKeys[e] != FREE && edgeWeights[e] < threshold) {
+        removeEdge(e);
+      }
+    }
+    for (int v = 0; v < vertexSlots; v++) {
+      if (words[v] != null && counts[v] < threshold && degrees[v] == 0 && v != previous) {
+        removeVertex(v);
+      }
+    }
+    sweepInterval = Math.max(MIN_SWEEP, vertexCount() + (long) edgeCount());
+  }
+
+  private int vertex(String word) {
+    Integer id = ids.get(word);
+    if (id != null) {
+      return id;
+    }
+    int v;
+    if (freeVertexCount > 0) {
+      v = freeVertices[--freeVertexCount];
+    } else {
+      if (vertexSlots == words.length) {
+        int capacity = words.length * 2;
+        words = Arrays.copyOf(words, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        degrees = Arrays.copyOf(degrees, capacity);
+      }
+      v = vertexSlots++;
+    }
+    words[v] = word;
+    counts[v] = 0;
+    degrees[v] = 0;
+    ids.put(word, v);
+    return v;
+  }
+
+  private void removeVertex(int v) {
+    ids.remove(words[v]);
+    words[v] = null;
+    if (freeVertexCount == freeVertices.length) {
+      freeVertices = Arrays.copyOf(freeVertices, freeVertexCount * 2);
+    }
+    freeVertices[freeVertexCount++] = v;
+  }
+
+  private void addEdge(int u, int v, double amount) {
+    long key = LongIntMap.pack(u, v);
+    int e = edgeIndex.get(key);
+    if (e < 0) {
+      if (freeEdgeCount > 0) {
+        e = freeEdges[--freeEdgeCount];
+      } else {
+        if (edgeSlots == edgeKeys.length) {
+          int capacity = edgeKeys.length * 2;
+          edgeKeys = Arrays.copyOf(edgeKeys, capacity);
+          edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+        }
+        e = edgeSlots++;
+      }
+      edgeIndex.putIfAbsent(key, e);
+      edgeKeys[e] = key;
+      edgeWeights[e] = 0;
+      degrees[u]++;
+      degrees[v]++;
+    }
+    edgeWeights[e] += amount;
+  }
+
+  private void removeEdge(int e) {
+    long key = edgeKeys[e];
+    edgeIndex.remove(key);
+    edgeKeys[e] = FREE;
+    degrees[(int) (key >>> 32)]--;
+    degrees[(int) key]--;
+    if (freeEdgeCount == freeEdges.length) {
+      freeEdges = Arrays.copyOf(freeEdges, freeEdgeCount * 2);
+    }
+    freeEdges[freeEdgeCount++] = e;
+  }
+
+  /**
+   * 返回当前保留的单词数。
+   *
+   * @return 单词数
+   */
+  public int vertexCount() {
+    return ids.size();
+  }
+
+  /**
+   * 返回当前保留的边数。
+   *
+   * @return 边数
+   */
+  public int edgeCount() {
+    return edgeIndex.size();
+  }
+
+  /**
+   * 返回单词当前的出现次数（衰减模式下为衰减后的值）。
+   *
+   * @param word 单词
+   * @return 出现次数；单词未保留时为 0
+   */
+  public double count(String word) {
+    Integer v = ids.get(word);
+    return v == null ? 0.0 : counts[v] / scale;
+  }
+
+  /**
+   * 返回边 {@code from → to} 当前的权重（衰减模式下为衰减后的值）。
+   *
+   * @param from 起点单词
+   * @param to   终点单词
+   * @return 权重；边未保留时为 0
+   */
+  public double weight(String from, String to) {
+    Integer u = ids.get(from);
+    Integer v = ids.get(to);
+    if (u == null || v == null) {
+      return 0.0;
+    }
+    int e = edgeIndex.get(LongIntMap.pack(u, v));
+    return e < 0 ? 0.0 : edgeWeights[e] / scale;
+  }
+
+  /**
+   * 导出当前的邻接表，包含所有保留的单词。
+   *
+   * @return 邻接表，键为起点单词，值为 终点单词 → 权重
+   */
+  public Map<String, Map<String, Integer>> graph() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int v = 0; v < vertexSlots; v++) {
+      if (words[v] != null) {
+        graph.put(words[v], new HashMap<>());
+      }
+    }
+    for (int e = 0; e < edgeSlots; e++) {
+      long key = edgeKeys[e];
+      if (key != FREE) {
+        int weight = (int) Math.max(1, Math.round(edgeWeights[e] / scale));
+        graph.get(words[(int) (key >>> 32)]).put(words[(int) key], weight);
+      }
+    }
+    return graph;
+  }
+
+  /**
+   * 把当前快照导出为词图，不经过字符串形式的邻接表。
+   *
+   * <p>权重和次数的取整规则与 {@link #graph()}、{@link #wordCount()} 相同，
+   * 总词数与 {@link #wordNum()} 相同。.
+   *
+   * @param offHeap 为 {@code true} 时把词图的整数列存放在堆外内存
+   * @return 词图
+   */
+  public WordGraph toWordGraph(boolean offHeap) {
+    WordGraph result = new WordGraph(offHeap);
+    int[] vertices = new int[vertexSlots];
+    for (int v = 0; v < vertexSlots; v++) {
+      if (words[v] != null) {
+        vertices[v] = result.addVertex(words[v]);
+        result.addCount(vertices[v], (int) Math.round(counts[v] / scale));
+      }
+    }
+    for (int e = 0; e < edgeSlots; e++) {
+      long key = edgeKeys[e];
+      if (key != FREE) {
+        int weight = (int) Math.max(1, Math.round(edgeWeights[e] / scale));
+        result.addEdge(vertices[(int) (key >>> 32)], vertices[(int) key], weight);
+      }
+    }
+    result.setWordNum(wordNum());
+    return result;
+  }
+
+  /**
+   * 导出当前各单词的出现次数。
+   *
+   * @return 单词 → 出现次数
+   */
+  public Map<String, Integer> wordCount() {
+    Map<String, Integer> wordCount = new HashMap<>();
+    for (int v = 0; v < vertexSlots; v++) {
+      if (words[v] != null) {
+        wordCount.put(words[v], (int) Math.round(counts[v] / scale));
+      }
+    }
+    return wordCount;
+  }
+
+  /**
+   * 返回当前的总词数（窗口内的单词数，或衰减后的单词总数）。
+   *
+   * @return 总词数
+   */
+  public int wordNum() {
+    return (int) Math.round(total / scale);
+  }
+}
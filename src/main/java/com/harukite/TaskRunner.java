@@ -0,0 +1,260 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 在虚拟线程上运行后台任务的共享执行器，用于把耗时的图操作移出事件调度线程（EDT）。
+ *
+ * <p>每个任务以一个键标识，键同时作为任务名显示在界面上。同一个键的任务尚未结束时再次提交，
+ * 不会启动新任务，而是把新的回调挂到已有任务上，因此重复点击同一个按钮只计算一次。
+ *
+ * <p>任务分为只读和独占两类：只读任务（查询）可以同时运行；独占任务（加载词图、切换存储方式）
+ * 运行时不会有其他任务同时访问词图，由一把读写锁保证。
+ *
+ * <p>任务通过传入的 {@link ProgressMonitor} 报告进度，并在循环中检查取消标志；
+ * {@link Task#cancel()} 除了设置标志，还会中断任务所在的线程，以唤醒阻塞的等待。
+ * 所有回调都通过构造时传入的 {@link Executor} 执行，界面中为
+ * {@link javax.swing.SwingUtilities#invokeLater(Runnable)}。.
+ */
+public final class TaskRunner {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+  private final Map<String, Task<?>> running = new LinkedHashMap<>();
+  private final Executor callbacks;
+  private final Consumer<Task<?>> status;
+
+  /**
+   * 后台任务的主体。
+   *
+   * @param <T> 结果类型
+   */
+  @FunctionalInterface
+  public interface Job<T> {
+
+    /**
+     * 执行任务。
+     *
+     * @param monitor 进度监视器，任务应在循环中检查其取消标志
+     * @return 任务结果
+     * @throws Exception 任务失败时抛出；因取消而结束时应抛出 {@link CancellationException}
+     */
+    T run(ProgressMonitor monitor) throws Exception;
+  }
+
+  /**
+   * 任务结束时的回调，三个方法中恰好调用一个。
+   *
+   * @param <T> 结果类型
+   */
+  public interface Listener<T> {
+
+    /**
+     * 任务正常结束。
+     *
+     * @param result 任务结果
+     */
+    void done(T result);
+
+    /**
+     * 任务抛出了异常。
+     *
+     * @param error 异常
+     */
+    void failed(Throwable error);
+
+    /**
+     * 任务被取消。
+     */
+    void cancelled();
+  }
+
+  /**
+   * 创建执行器。
+   *
+   * @param callbacks 执行回调的执行器
+   * @param status    任务开始、进度变化或结束时调用，参数为发生变化的任务
+   */
+  public TaskRunner(Executor callbacks, Consumer<Task<?>> status) {
+    this.callbacks = callbacks;
+    this.status = status;
+  }
+
+  /**
+   * 提交任务；若同一个键的任务尚未结束，则只把 {@code listener} 挂到该任务上。
+   *
+   * <p>已被取消但尚未结束的任务不参与合并，此时会启动新任务。.
+   *
+   * @param key       任务键，同时作为任务名
+   * @param exclusive 是否独占词图
+   * @param job       任务主体
+   * @param listener  结束回调
+   * @param <T>       结果类型
+   * @return 实际运行的任务
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Task<T> submit(String key, boolean exclusive, Job<T> job,
+                            Listener<? super T> listener) {
+    Task<T> task;
+    synchronized (running) {
+      Task<?> existing = running.get(key);
+      if (existing != null && !existing.cancelled) {
+        ((Task<T>) existing).listeners.add(listener);
+        return (Task<T>) existing;
+      }
+      task = new Task<>(key, exclusive);
+      task.listeners.add(listener);
+      running.put(key, task);
+    }
+    callbacks.execute(() -> status.accept(task));
+    executor.execute(() -> execute(task, job));
+    return task;
+  }
+
+  /**
+   * 返回尚未结束的任务个数。
+   *
+   * @return 任务个数
+   */
+  public int activeCount() {
+    synchronized (running) {
+      return running.size();
+    }
+  }
+
+  /**
+   * 取消所有尚未结束的任务。
+   */
+  public void cancelAll() {
+    List<Task<?>> tasks;
+    synchronized (running) {
+      tasks = new ArrayList<>(running.values());
+    }
+    tasks.forEach(Task::cancel);
+  }
+
+  private <T> void execute(Task<T> task, Job<T> job) {
+    task.thread = Thread.currentThread();
+    Lock lock = task.exclusive ? graphLock.writeLock() : graphLock.readLock();
+    T result = null;
+    Throwable error = null;
+    try {
+      lock.lockInterruptibly();
+      try {
+        task.checkCancelled();
+        result = job.run(task);
+      } finally {
+        lock.unlock();
+      }
+    } catch (Throwable e) {
+      error = e;
+    }
+    List<Listener<? super T>> listeners;
+    synchronized (running) {
+      running.remove(task.key, task);
+      task.finished = true;
+      listeners = task.listeners;
+    }
+    // 被取消的任务可能以中断引起的各种异常结束，都按取消处理
+    boolean cancelled = error instanceof CancellationException
+        || (error != null && task.cancelled);
+    T value = result;
+    Throwable failure = error;
+    callbacks.execute(() -> {
+      for (Listener<? super T> listener : listeners) {
+        if (cancelled) {
+          listener.cancelled();
+        } else if (failure != null) {
+          listener.failed(failure);
+        } else {
+          listener.done(value);
+        }
+      }
+      status.accept(task);
+    });
+  }
+
+  /**
+   * 一个已提交的任务，同时作为传给任务主体的 {@link ProgressMonitor}。
+   *
+   * @param <T> 结果类型
+   */
+  public final class Task<T> implements ProgressMonitor {
+
+    private final String key;
+    private final boolean exclusive;
+    private final List<Listener<? super T>> listeners = new ArrayList<>();
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private volatile int permille = -1;
+    private volatile Thread thread;
+
+    private Task(String key, boolean exclusive) {
+      this.key = key;
+      this.exclusive = exclusive;
+    }
+
+    /**
+     * 返回任务键（任务名）。
+     *
+     * @return 任务键
+     */
+    public String key() {
+      return key;
+    }
+
+    /**
+     * 返回任务是否已经结束（包括失败和取消）。
+     *
+     * @return 若已结束则返回 {@code true}
+     */
+    public boolean isDone() {
+      return finished;
+    }
+
+    /**
+     * 返回最近一次报告的进度。
+     *
+     * @return 千分比，0 到 1000；任务尚未报告进度时返回 -1
+     */
+    public int permille() {
+      return permille;
+    }
+
+    /**
+     * 请求取消任务：设置取消标志并中断任务线程。任务在下一次检查取消标志时结束。
+     */
+    public void cancel() {
+      cancelled = true;
+      Thread t = thread;
+      if (t != null && !finished) {
+        t.interrupt();
+      }
+    }
+
+    @Override
+    public void progress(long done, long total) {
+      int value = total <= 0 ? 0 : (int) Math.min(1000, done * 1000 / total);
+      if (value != permille) {
+        permille = value; // 只在千分比变化时通知，避免频繁刷新界面
+        callbacks.execute(() -> status.accept(this));
+      }
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+}
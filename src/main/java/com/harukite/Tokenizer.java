@@ -0,0 +1,41 @@
+package com.harukite;
+
+import java.util.List;
+
+/**
+ * 分词器接口，负责把原始文本切分为单词序列。
+ *
+ * <p>{@link GraphProcessor#buildGraph(String)} 与 {@link GraphProcessor#generateNewText(String)}
+ * 都通过该接口取词，从而可以在 ASCII、Unicode 以及 CJK 二元切分等策略之间切换。
+ * 实现类必须是无状态且线程安全的，返回的单词保持原始大小写、且不包含空串。.
+ */
+public interface Tokenizer {
+
+  /**
+   * 将文本切分为单词列表。
+   *
+   * @param text 原始文本，不能为 {@code null}
+   * @return 按出现顺序排列的非空单词列表；若文本中没有单词则返回空列表
+   */
+  List<String> tokenize(String text);
+
+  /**
+   * 返回每个单词在原文中的位置，顺序与 {@link #tokenize(String)} 的结果一一对应。
+   *
+   * <p>CJK 二元切分得到的相邻单词在原文中互相重叠，调用方可以据此区分
+   * “同一段文字中的单词” 与 “被分隔符隔开的单词”，从而在输出时保留原文。.
+   *
+   * @param text 原始文本，不能为 {@code null}
+   * @return 单词在原文中的区间列表
+   */
+  List<Span> spans(String text);
+
+  /**
+   * 单词在原文中的区间 {@code [start, end)}，以 {@code char} 下标计。
+   *
+   * @param start 起始下标（包含）
+   * @param end   结束下标（不包含）
+   */
+  record Span(int start, int end) {
+  }
+}
@@ -0,0 +1,125 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 Unicode 字母类别的分词器。
+ *
+ * <p>连续的字母（{@link Character#isLetter(int)}）以及紧随其后的组合附加符号构成一个单词，
+ * 因此带重音的拉丁字母、西里尔字母、希腊字母等都能被正确保留。
+ * 中日文字符（汉字、平假名、片假名）与其他文字之间总是视为单词边界。
+ *
+ * <p>若启用 CJK 二元切分，则每段连续的中日文字符会被切分为重叠的字符二元组，
+ * 例如 “自然语言” 切分为 “自然”、“然语”、“语言”；长度为 1 的片段保留为单字。
+ * 不启用时整段中日文字符作为一个单词。二元组在原文中互相重叠，可通过 {@link #spans(String)} 区分。.
+ */
+public final class UnicodeTokenizer implements Tokenizer {
+
+  private final boolean cjkBigrams;
+
+  /**
+   * 创建 Unicode 分词器。
+   *
+   * @param cjkBigrams 是否对连续的中日文字符进行二元切分
+   */
+  public UnicodeTokenizer(boolean cjkBigrams) {
+    this.cjkBigrams = cjkBigrams;
+  }
+
+  @Override
+  public List<String> tokenize(String text) {
+    List<String> words = new ArrayList<>();
+    scan(text, words, null);
+    return words;
+  }
+
+  @Override
+  public List<Span> spans(String text) {
+    List<Span> spans = new ArrayList<>();
+    scan(text, null, spans);
+    return spans;
+  }
+
+  /**
+   * 扫描文本，把单词或其区间追加到非空的那个列表。
+   */
+  private void scan(String text, List<String> words, List<Span> spans) {
+    int length = text.length();
+    int start = -1;
+    boolean startCjk = false;
+    int i = 0;
+    while (i < length) {
+      int cp = text.codePointAt(i);
+      int next = i + Character.charCount(cp);
+      boolean cjk = isCjk(cp);
+      boolean letter = cjk || Character.isLetter(cp);
+      if (start >= 0 && !letter && isMark(cp)) {
+        // 组合附加符号属于前面的单词
+        i = next;
+        continue;
+      }
+      if (start >= 0 && (!letter || cjk != startCjk)) {
+        emit(text, start, i, startCjk, words, spans);
+        start = -1;
+      }
+      if (letter && start < 0) {
+        start = i;
+        startCjk = cjk;
+      }
+      i = next;
+    }
+    if (start >= 0) {
+      emit(text, start, length, startCjk, words, spans);
+    }
+  }
+
+  private void emit(String text, int start, int end, boolean cjk, List<String> words,
+                    List<Span> spans) {
+    if (!cjk || !cjkBigrams) {
+      add(text, start, end, words, spans);
+      return;
+    }
+    int first = start;
+    int second = text.offsetByCodePoints(first, 1);
+    if (second >= end) {
+      add(text, first, end, words, spans);
+      return;
+    }
+    while (second < end) {
+      int third = text.offsetByCodePoints(second, 1);
+      add(text, first, third, words, spans);
+      first = second;
+      second = third;
+    }
+  }
+
+  private static void add(String text, int start, int end, List<String> words,
+                          List<Span> spans) {
+    if (words != null) {
+      words.add(text.substring(start, end));
+    } else {
+      spans.add(new Span(start, end));
+    }
+  }
+
+  private static boolean isCjk(int cp) {
+    if (cp < 0x3000) {
+      // 快速路径：拉丁、西里尔等常用文字都位于该区间之前
+      return false;
+    }
+    if (Character.isIdeographic(cp)) {
+      return true;
+    }
+    Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+    return script == Character.UnicodeScript.HIRAGANA
+        || script == Character.UnicodeScript.KATAKANA;
+  }
+
+  private static boolean isMark(int cp) {
+    int type = Character.getType(cp);
+    return type == Character.NON_SPACING_MARK
+        || type == Character.COMBINING_SPACING_MARK
+        || type == Character.ENCLOSING_MARK;
+  }
+}
@@ -0,0 +1,58 @@
+package com.harukite;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 无符号变长整数（LEB128）编码：每个字节低 7 位存放数据，最高位表示后面是否还有字节。
+ *
+ * <p>小于 128 的值只占 1 个字节，适合存放排序后 id 的差值和较小的权重。.
+ */
+final class Varint {
+
+  /** 一个 long 编码后的最大字节数。 */
+  static final int MAX_BYTES = 10;
+
+  private Varint() {
+  }
+
+  /**
+   * 把非负整数编码写入 {@code buffer}。
+   *
+   * @param buffer 目标数组，从 {@code pos} 起至少要有 {@link #MAX_BYTES} 个字节的空间
+   * @param pos    写入位置
+   * @param value  非负整数
+   * @return 写入后的下一个位置
+   */
+  static int write(byte[] buffer, int pos, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[pos++] = (byte) value;
+    return pos;
+  }
+
+  /**
+   * 从输入流读取一个编码的整数。
+   *
+   * @param in 输入流
+   * @return 解码后的整数
+   * @throws IOException 读取失败、数据格式错误或流在整数中间结束时抛出
+   */
+  static long read(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("变长整数不完整");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("变长整数过长");
+  }
+}
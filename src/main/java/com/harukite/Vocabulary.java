@@ -0,0 +1,213 @@
+package com.harukite;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 词表（符号表），把单词映射为从 0 开始连续编号的整数 id。
+ *
+ * <p>所有单词的 UTF-8 字节连续存放在同一个字节数组（arena）中，
+ * 通过开放寻址哈希表从字节内容查找 id，因此每个单词只占用其字节长度加上少量 int 索引，
+ * 不再为每个单词保留独立的 {@link String} 对象。{@link String} 只在 {@link #word(int)} 时按需生成。
+ *
+ * <p>{@link #intern(String)} 不是线程安全的；词表构建完成后，{@link #id(String)} 和
+ * {@link #word(int)} 只读取词表（查找时使用线程私有的编码缓冲区），可以被多个线程同时调用。.
+ */
+public final class Vocabulary {
+
+  private static final int EMPTY = -1;
+  private static final ThreadLocal<byte[]> LOOKUP = ThreadLocal.withInitial(() -> new byte[64]);
+
+  private byte[] arena;
+  private int arenaSize;
+  private int[] starts; // starts[id] 为单词起始偏移，starts[size] 为 arena 已用长度
+  private int[] hashes;
+  private int[] table; // 开放寻址表，存放 id，EMPTY 表示空槽
+  private int size;
+  private byte[] scratch;
+
+  /**
+   * 创建一个空词表。
+   */
+  public Vocabulary() {
+    this(16);
+  }
+
+  /**
+   * 创建一个空词表，并为指定数量的单词预留空间。
+   *
+   * @param expectedWords 预计单词数
+   */
+  public Vocabulary(int expectedWords) {
+    int capacity = Math.max(4, expectedWords);
+    arena = new byte[capacity * 8];
+    starts = new int[capacity + 1];
+    hashes = new int[capacity];
+    table = new int[tableSizeFor(capacity)];
+    Arrays.fill(table, EMPTY);
+    scratch = new byte[64];
+  }
+
+  /**
+   * 返回单词的 id，若单词不存在则先加入词表。
+   *
+   * @param word 单词
+   * @return 单词的 id
+   */
+  public int intern(String word) {
+    if (scratch.length < word.length() * 3) {
+      scratch = new byte[word.length() * 3];
+    }
+    int length = encode(word, scratch);
+    int hash = hash(scratch, length);
+    int slot = find(scratch, length, hash);
+    if (table[slot] != EMPTY) {
+      return table[slot];
+    }
+    return add(scratch, length, hash, slot);
+  }
+
+  /**
+   * 查找单词的 id。
+   *
+   * @param word 单词
+   * @return 单词的 id；若不在词表中则返回 -1
+   */
+  public int id(String word) {
+    byte[] buffer = LOOKUP.get();
+    if (buffer.length < word.length() * 3) {
+      buffer = new byte[word.length() * 3];
+      LOOKUP.set(buffer);
+    }
+    int length = encode(word, buffer);
+    int id = table[find(buffer, length, hash(buffer, length))];
+    return id == EMPTY ? -1 : id;
+  }
+
+  /**
+   * 取出指定 id 对应的单词。
+   *
+   * @param id 单词 id
+   * @return 新生成的单词字符串
+   */
+  public String word(int id) {
+    return new String(arena, starts[id], starts[id + 1] - starts[id], StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 返回词表中的单词数。
+   *
+   * @return 单词数
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * 估算词表占用的堆内存字节数（仅计算数组本身）。
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return arena.length + 4L * (starts.length + hashes.length + table.length) + scratch.length;
+  }
+
+  private int add(byte[] bytes, int length, int hash, int slot) {
+    if (size == hashes.length) {
+      int capacity = size * 2;
+      starts = Arrays.copyOf(starts, capacity + 1);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    if (arenaSize + length > arena.length) {
+      arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+    }
+    System.arraycopy(bytes, 0, arena, arenaSize, length);
+    arenaSize += length;
+    int id = size++;
+    starts[size] = arenaSize;
+    hashes[id] = hash;
+    table[slot] = id;
+    if (size * 2 > table.length) {
+      rehash(table.length * 2);
+    }
+    return id;
+  }
+
+  private int find(byte[] bytes, int length, int hash) {
+    int mask = table.length - 1;
+    int slot = hash & mask;
+    while (true) {
+      int id = table[slot];
+      if (id == EMPTY || (hashes[id] == hash && equalsAt(id, bytes, length))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private boolean equalsAt(int id, byte[] bytes, int length) {
+    int start = starts[id];
+    return starts[id + 1] - start == length
+        && Arrays.equals(arena, start, start + length, bytes, 0, length);
+  }
+
+  private void rehash(int newSize) {
+    table = new int[newSize];
+    Arrays.fill(table, EMPTY);
+    int mask = newSize - 1;
+    for (int id = 0; id < size; id++) {
+      int slot = hashes[id] & mask;
+      while (table[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id;
+    }
+  }
+
+  /**
+   * 将单词按 UTF-8 编码写入可复用的缓冲区，避免每次查找都分配新数组。
+   * 缓冲区长度至少为单词长度的 3 倍。
+   */
+  private static int encode(String word, byte[] scratch) {
+    int length = word.length();
+    int pos = 0;
+    for (int i = 0; i < length; i++) {
+      char c = word.charAt(i);
+      if (c < 0x80) {
+        scratch[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        scratch[pos++] = (byte) (0xC0 | (c >> 6));
+        scratch[pos++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(word.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, word.charAt(++i));
+        scratch[pos++] = (byte) (0xF0 | (cp >> 18));
+        scratch[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        scratch[pos++] = '?'; // 与 String.getBytes(UTF_8) 一样替换孤立代理项
+      } else {
+        scratch[pos++] = (byte) (0xE0 | (c >> 12));
+        scratch[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        scratch[pos++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    return pos;
+  }
+
+  private static int hash(byte[] bytes, int length) {
+    int h = 0x811C9DC5;
+    for (int i = 0; i < length; i++) {
+      h = (h ^ bytes[i]) * 0x01000193;
+    }
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h;
+  }
+
+  private static int tableSizeFor(int capacity) {
+    return Integer.highestOneBit(Math.max(4, capacity * 2 - 1)) << 1;
+  }
+}
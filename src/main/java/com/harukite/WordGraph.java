@@ -0,0 +1,465 @@
+package com.harukite;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可以增量构建的词图，是 {@link GraphProcessor} 中词图的唯一数据源。
+ *
+ * <p>单词通过 {@link Vocabulary} 映射为从 0 开始连续编号的顶点 id，单词次数保存在按 id 下标的 int 数组中。
+ * 边（起点, 终点, 权重）存放在并行 int 数组中，由开放寻址表按（起点, 终点）查找，
+ * 同一起点的边通过数组下标串成链表，因此加入一条边均摊 O(1)，且不创建任何装箱对象或字符串。
+ * 布局与 {@link NGramModel} 中的转移表相同：每条边 16 字节（起点、终点、权重、链表指针）加 4 到 8 字节哈希槽。
+ *
+ * <p>单词次数和边保存在 {@link IntArray} 中。以 {@link #WordGraph(boolean) 堆外模式}创建时，
+ * 它们从一开始就写入堆外的 {@link DirectIntArray}，Java 堆上只有词表和少量对象，
+ * 构建和持有上亿条边都不会增加 GC 的负担；数组按两倍增长，堆外数组增长时只复制最后一个不满的块。
+ *
+ * <p>查询在由 {@link CompactGraph#of(WordGraph)} 等方法构建的只读快照上进行，
+ * 快照与本对象共享同一个词表，因此顶点 id 相同，单词字符串只在返回结果时生成。
+ * 词表只追加，已有单词的 id 不会改变。
+ *
+ * <p>该类不是线程安全的：修改期间不能同时读取本对象或由它构建的快照。.
+ */
+public final class WordGraph {
+
+  private static final int EMPTY = -1;
+
+  private final boolean offHeap;
+  private final Vocabulary vocabulary;
+  private final IntArray counts;
+  private final IntArray degrees;
+  private final IntArray first; // 出边链表头加 1，0 表示没有出边
+  private int vertexCount;
+  private int wordNum;
+
+  private final IntArray edgeSource;
+  private final IntArray edgeTarget;
+  private final IntArray edgeWeight;
+  private final IntArray edgeNext; // 下一条边加 1，0 表示链表结束
+  private IntArray edgeTable; // 开放寻址表，存放边的下标加 1，0 表示空槽
+  private int edges;
+
+  /**
+   * 创建空的堆内词图。
+   */
+  public WordGraph() {
+    this(false);
+  }
+
+  /**
+   * 创建空词图。
+   *
+   * @param offHeap 为 {@code true} 时单词次数和边存放在堆外直接内存中
+   */
+  public WordGraph(boolean offHeap) {
+    this(offHeap, new Vocabulary());
+  }
+
+  private WordGraph(boolean offHeap, Vocabulary vocabulary) {
+    this.offHeap = offHeap;
+    this.vocabulary = vocabulary;
+    counts = IntArray.allocate(16, offHeap);
+    degrees = IntArray.allocate(16, offHeap);
+    first = IntArray.allocate(16, offHeap);
+    edgeSource = IntArray.allocate(16, offHeap);
+    edgeTarget = IntArray.allocate(16, offHeap);
+    edgeWeight = IntArray.allocate(16, offHeap);
+    edgeNext = IntArray.allocate(16, offHeap);
+    edgeTable = IntArray.allocate(32, offHeap);
+  }
+
+  /**
+   * 由字符串形式的邻接表构建词图。
+   *
+   * <p>顶点 id 按 {@code graph} 键的迭代顺序分配。指向不在 {@code graph} 键集合中的单词的边会被忽略。.
+   *
+   * @param graph     邻接表，键为起点单词，值为 终点单词 → 权重
+   * @param wordCount 单词出现次数，缺失的单词计为 0
+   * @param wordNum   总词数
+   * @return 词图
+   */
+  public static WordGraph of(Map<String, Map<String, Integer>> graph,
+      Map<String, Integer> wordCount, int wordNum) {
+    WordGraph result = new WordGraph();
+    for (String word : graph.keySet()) {
+      int v = result.addVertex(word);
+      result.counts.set(v, wordCount.getOrDefault(word, 0));
+    }
+    for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
+      int u = result.id(entry.getKey());
+      for (Map.Entry<String, Integer> edge : entry.getValue().entrySet()) {
+        int v = result.id(edge.getKey());
+        if (v >= 0) {
+          result.addEdge(u, v, edge.getValue());
+        }
+      }
+    }
+    result.wordNum = wordNum;
+    return result;
+  }
+
+  /**
+   * 按 {@link GraphProcessor#buildGraph(String)} 的规则加入一段单词序列：
+   * 每个单词计数一次，相邻的两个单词之间的边权重加 1。多次调用之间不会产生跨越边界的边。
+   *
+   * @param words 单词序列
+   * @return 各单词的顶点 id，与 {@code words} 一一对应
+   */
+  public int[] append(List<String> words) {
+    int[] ids = new int[words.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = addVertex(words.get(i));
+      addCount(ids[i], 1);
+    }
+    for (int i = 0; i + 1 < ids.length; i++) {
+      addEdge(ids[i], ids[i + 1], 1);
+    }
+    return ids;
+  }
+
+  /**
+   * 加入一个单词，单词已存在时只返回其 id。
+   *
+   * @param word 单词
+   * @return 顶点 id
+   */
+  public int addVertex(String word) {
+    int v = vocabulary.intern(word);
+    if (v == vertexCount) {
+      if (v == counts.length()) {
+        long capacity = v * 2L;
+        counts.grow(capacity);
+        degrees.grow(capacity);
+        first.grow(capacity);
+      }
+      vertexCount++;
+    }
+    return v;
+  }
+
+  /**
+   * 把单词的出现次数和总词数同时增加 {@code delta}。
+   *
+   * @param v     顶点 id
+   * @param delta 增量
+   */
+  public void addCount(int v, int delta) {
+    counts.set(v, counts.get(v) + delta);
+    wordNum = Math.addExact(wordNum, delta);
+  }
+
+  /**
+   * 把所有单词的出现次数和总词数清零，边保持不变。
+   *
+   * <p>{@link GraphProcessor#buildGraph(String)} 只统计最近一次构建的文本中的单词次数，
+   * 而边在多次构建之间累加。.
+   */
+  public void clearCounts() {
+    for (int v = 0; v < vertexCount; v++) {
+      counts.set(v, 0);
+    }
+    wordNum = 0;
+  }
+
+  /**
+   * 把边 {@code u → v} 的权重增加 {@code weight}，边不存在时先加入。
+   *
+   * @param u      起点 id
+   * @param v      终点 id
+   * @param weight 权重增量
+   */
+  public void addEdge(int u, int v, int weight) {
+    long slot = findEdge(u, v);
+    int existing = edgeTable.get(slot) - 1;
+    if (existing != EMPTY) {
+      edgeWeight.set(existing, edgeWeight.get(existing) + weight);
+      return;
+    }
+    if (edges == edgeTarget.length()) {
+      long capacity = edges * 2L;
+      edgeSource.grow(capacity);
+      edgeTarget.grow(capacity);
+      edgeWeight.grow(capacity);
+      edgeNext.grow(capacity);
+    }
+    int edge = edges++;
+    edgeSource.set(edge, u);
+    edgeTarget.set(edge, v);
+    edgeWeight.set(edge, weight);
+    edgeNext.set(edge, first.get(u));
+    first.set(u, edge + 1);
+    degrees.set(u, degrees.get(u) + 1);
+    edgeTable.set(slot, edge + 1);
+    if (edges * 2L > edgeTable.length()) {
+      rehashEdges(edgeTable.length() * 2);
+    }
+  }
+
+  /**
+   * 返回顶点数。
+   *
+   * @return 顶点数
+   */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * 返回不同的边的条数。
+   *
+   * @return 边数
+   */
+  public long edgeCount() {
+    return edges;
+  }
+
+  /**
+   * 判断词图是否没有任何单词。
+   *
+   * @return 没有单词时返回 {@code true}
+   */
+  public boolean isEmpty() {
+    return vertexCount == 0;
+  }
+
+  /**
+   * 判断单词是否在词图中。
+   *
+   * @param word 单词
+   * @return 单词在词图中时返回 {@code true}
+   */
+  public boolean contains(String word) {
+    return vocabulary.id(word) >= 0;
+  }
+
+  /**
+   * 查找单词的顶点 id。
+   *
+   * @param word 单词
+   * @return 顶点 id；不在词图中时返回 -1
+   */
+  public int id(String word) {
+    return vocabulary.id(word);
+  }
+
+  /**
+   * 返回顶点 id 对应的单词。
+   *
+   * @param v 顶点 id
+   * @return 单词
+   */
+  public String word(int v) {
+    return vocabulary.word(v);
+  }
+
+  /**
+   * 返回单词的出现次数。
+   *
+   * @param v 顶点 id
+   * @return 出现次数
+   */
+  public int count(int v) {
+    return counts.get(v);
+  }
+
+  /**
+   * 返回总词数。
+   *
+   * @return 总词数
+   */
+  public int wordNum() {
+    return wordNum;
+  }
+
+  /**
+   * 直接设置总词数，用于导出次数经过取整、总数不等于各单词次数之和的快照。
+   *
+   * @param wordNum 总词数
+   */
+  void setWordNum(int wordNum) {
+    this.wordNum = wordNum;
+  }
+
+  /**
+   * 返回顶点的出度。
+   *
+   * @param v 顶点 id
+   * @return 出度
+   */
+  public int outDegree(int v) {
+    return degrees.get(v);
+  }
+
+  /**
+   * 返回边 {@code u → v} 的权重。
+   *
+   * @param u 起点 id
+   * @param v 终点 id
+   * @return 权重；边不存在时返回 0
+   */
+  public int edgeWeight(int u, int v) {
+    int edge = edgeTable.get(findEdge(u, v)) - 1;
+    return edge == EMPTY ? 0 : edgeWeight.get(edge);
+  }
+
+  /**
+   * 创建出边游标。出边按加入顺序的逆序给出，没有按目标 id 排序。
+   *
+   * @return 新的游标
+   */
+  public GraphStore.EdgeCursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * 把词图导出为字符串形式的邻接表，供测试和展示使用。
+   *
+   * @return 邻接表，键为所有单词
+   */
+  public Map<String, Map<String, Integer>> adjacency() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int v = 0; v < vertexCount; v++) {
+      Map<String, Integer> neighbors = new HashMap<>();
+      for (int edge = first.get(v) - 1; edge != EMPTY; edge = edgeNext.get(edge) - 1) {
+        neighbors.put(word(edgeTarget.get(edge)), edgeWeight.get(edge));
+      }
+      graph.put(word(v), neighbors);
+    }
+    return graph;
+  }
+
+  /**
+   * 把单词次数导出为字符串映射，次数为 0 的单词不包含在内。
+   *
+   * @return 单词 → 出现次数
+   */
+  public Map<String, Integer> wordCount() {
+    Map<String, Integer> wordCount = new HashMap<>();
+    for (int v = 0; v < vertexCount; v++) {
+      if (counts.get(v) > 0) {
+        wordCount.put(word(v), counts.get(v));
+      }
+    }
+    return wordCount;
+  }
+
+  /**
+   * 判断单词次数和边是否存放在堆外内存中。
+   *
+   * @return 堆外模式时返回 {@code true}
+   */
+  public boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * 把词图复制到堆内或堆外存储，新词图与本词图共享词表，顶点 id 不变。
+   *
+   * <p>复制后本词图不应再被修改。.
+   *
+   * @param offHeap 新词图是否使用堆外存储
+   * @return 内容相同的新词图
+   */
+  public WordGraph copy(boolean offHeap) {
+    WordGraph copy = new WordGraph(offHeap, vocabulary);
+    copy.counts.grow(vertexCount);
+    copy.degrees.grow(vertexCount);
+    copy.first.grow(vertexCount);
+    for (int v = 0; v < vertexCount; v++) {
+      copy.counts.set(v, counts.get(v));
+    }
+    copy.vertexCount = vertexCount;
+    copy.wordNum = wordNum;
+    for (int edge = 0; edge < edges; edge++) {
+      copy.addEdge(edgeSource.get(edge), edgeTarget.get(edge), edgeWeight.get(edge));
+    }
+    return copy;
+  }
+
+  /**
+   * 估算单词次数和边占用的字节数（位于堆外还是堆内由 {@link #isOffHeap()} 决定），不含词表。
+   *
+   * @return 字节数
+   */
+  public long adjacencyBytes() {
+    return 4L * (counts.length() + degrees.length() + first.length())
+        + 4L * (edgeSource.length() + edgeTarget.length() + edgeWeight.length()
+        + edgeNext.length() + edgeTable.length());
+  }
+
+  /**
+   * 估算词图占用的内存字节数（仅计算数组本身，包括词表）。
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return vocabulary.memoryBytes() + adjacencyBytes();
+  }
+
+  Vocabulary vocabulary() {
+    return vocabulary;
+  }
+
+  private long findEdge(int u, int v) {
+    long mask = edgeTable.length() - 1;
+    long slot = edgeHash(u, v) & mask;
+    while (true) {
+      int edge = edgeTable.get(slot) - 1;
+      if (edge == EMPTY || (edgeSource.get(edge) == u && edgeTarget.get(edge) == v)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void rehashEdges(long newSize) {
+    edgeTable = IntArray.allocate(newSize, offHeap);
+    long mask = newSize - 1;
+    for (int edge = 0; edge < edges; edge++) {
+      long slot = edgeHash(edgeSource.get(edge), edgeTarget.get(edge)) & mask;
+      while (edgeTable.get(slot) != 0) {
+        slot = (slot + 1) & mask;
+      }
+      edgeTable.set(slot, edge + 1);
+    }
+  }
+
+  private static long edgeHash(int u, int v) {
+    long h = (((long) u << 32) | (v & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 29);
+  }
+
+  private final class Cursor implements GraphStore.EdgeCursor {
+
+    private int edge;
+    private int next;
+
+    @Override
+    public void reset(int v) {
+      next = first.get(v) - 1;
+      edge = EMPTY;
+    }
+
+    @Override
+    public boolean next() {
+      edge = next;
+      if (edge == EMPTY) {
+        return false;
+      }
+      next = edgeNext.get(edge) - 1;
+      return true;
+    }
+
+    @Override
+    public int target() {
+      return edgeTarget.get(edge);
+    }
+
+    @Override
+    public int weight() {
+      return edgeWeight.get(edge);
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按顶点 id 索引的单词统计：出现次数、总词数和归一化后的 IDF 权重。
+ *
+ * <p>IDF 权重为 {@code log(wordNum / (count + 1))}，再除以所有出现过的单词（次数大于 0）的权重之和，
+ * 与 {@link GraphProcessor#calPageRank(String)} 原有的 IDF 初始向量相同。
+ * 权重在 {@link #refresh()} 时一次算好并保存，查询时不再计算对数，也不再读取装箱的次数。
+ *
+ * <p>次数可以被多个线程同时增加，{@link CorpusIngestor} 的工作线程在合并缓冲区时即通过
+ * {@link #add(int, long)} 计数，不占用词图的锁。次数按 {@value #CHUNK_SIZE} 个一组分块存放，
+ * 顶点数可以随词表增长（{@link #ensureCapacity(int)}），已有的块不会被复制。
+ * 每个单词先对自己的 long 做 CAS；某个单词的 CAS 第一次失败（即发生竞争）后，
+ * 为它单独分配一个 {@link LongAdder}，之后对它的增加都直接加到该 {@link LongAdder} 上，
+ * 因此只有真正被争用的高频单词才额外占用内存，其余单词仍只占一个 long。
+ * 读取次数时把两者相加；与 {@link LongAdder#sum()} 一样，与增加同时进行的读取不保证是某一时刻的精确值。.
+ */
+public final class WordStatistics {
+
+  private static final int CHUNK_SHIFT = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private volatile Chunk[] chunks;
+  private volatile int vertexCount;
+  private final LongAdder total = new LongAdder();
+  private volatile double[] idfWeights;
+
+  /**
+   * 创建所有次数都为 0 的统计。
+   *
+   * @param vertexCount 顶点数
+   */
+  public WordStatistics(int vertexCount) {
+    this.chunks = new Chunk[0];
+    ensureCapacity(vertexCount);
+    this.idfWeights = new double[vertexCount];
+  }
+
+  /**
+   * 以快照中的单词次数和总词数创建统计，并计算 IDF 权重。
+   *
+   * @param graph 词图存储
+   * @return 单词统计
+   */
+  public static WordStatistics of(GraphStore graph) {
+    int n = graph.vertexCount();
+    WordStatistics statistics = new WordStatistics(n);
+    for (int v = 0; v < n; v++) {
+      statistics.chunks[v >>> CHUNK_SHIFT].base.set(v & CHUNK_MASK, graph.count(v));
+    }
+    statistics.total.add(graph.wordNum());
+    statistics.refresh();
+    return statistics;
+  }
+
+  /**
+   * 把顶点数增加到至少 {@code vertexCount}，新顶点的次数为 0。可以与增加和读取同时调用。
+   *
+   * <p>新顶点的 IDF 权重在下一次 {@link #refresh()} 之后才可用。.
+   *
+   * @param vertexCount 顶点数
+   */
+  public synchronized void ensureCapacity(int vertexCount) {
+    if (vertexCount <= this.vertexCount) {
+      return;
+    }
+    int needed = (vertexCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+    Chunk[] current = chunks;
+    if (needed > current.length) {
+      Chunk[] grown = Arrays.copyOf(current, Math.max(needed, current.length * 2));
+      for (int i = current.length; i < grown.length; i++) {
+        grown[i] = new Chunk();
+      }
+      chunks = grown;
+    }
+    this.vertexCount = vertexCount;
+  }
+
+  /**
+   * 返回顶点数。
+   *
+   * @return 顶点数
+   */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * 把单词的出现次数增加 1，同时总词数增加 1。可以被多个线程同时调用。
+   *
+   * @param v 顶点 id
+   */
+  public void increment(int v) {
+    add(v, 1);
+  }
+
+  /**
+   * 把单词的出现次数增加 {@code delta}，同时总词数增加 {@code delta}。可以被多个线程同时调用。
+   *
+   * @param v     顶点 id，小于 {@link #vertexCount()}
+   * @param delta 增量
+   */
+  public void add(int v, long delta) {
+    if (v >= vertexCount) {
+      throw new IndexOutOfBoundsException("顶点 id 超出范围: " + v);
+    }
+    chunks[v >>> CHUNK_SHIFT].add(v & CHUNK_MASK, delta);
+    total.add(delta);
+  }
+
+  /**
+   * 返回单词的出现次数。
+   *
+   * @param v 顶点 id
+   * @return 出现次数
+   */
+  public long count(int v) {
+    return chunks[v >>> CHUNK_SHIFT].count(v & CHUNK_MASK);
+  }
+
+  /**
+   * 返回总词数。
+   *
+   * @return 总词数
+   */
+  public long total() {
+    return total.sum();
+  }
+
+  /**
+   * 按当前的次数重新计算 IDF 权重。应在一批增加完成后调用。
+   */
+  public void refresh() {
+    int n = vertexCount;
+    double[] weights = new double[n];
+    double wordNum = total.sum();
+    double sum = 0.0;
+    for (int v = 0; v < n; v++) {
+      long count = count(v);
+      weights[v] = Math.log(wordNum / (count + 1));
+      if (count > 0) {
+        sum += weights[v];
+      }
+    }
+    double coefficient = 1.0 / sum; //归一化
+    for (int v = 0; v < n; v++) {
+      weights[v] *= coefficient;
+    }
+    idfWeights = weights;
+  }
+
+  /**
+   * 返回最近一次 {@link #refresh()} 得到的归一化 IDF 权重。
+   *
+   * @return 按顶点 id 索引的权重向量的副本
+   */
+  public double[] idfWeights() {
+    return idfWeights.clone();
+  }
+
+  /**
+   * 返回最近一次 {@link #refresh()} 得到的单个单词的归一化 IDF 权重。
+   *
+   * @param v 顶点 id
+   * @return 权重
+   */
+  public double idfWeight(int v) {
+    return idfWeights[v];
+  }
+
+  /** 一组连续顶点的次数，以及其中被争用的单词各自的 {@link LongAdder}。 */
+  private static final class Chunk {
+    private final AtomicLongArray base = new AtomicLongArray(CHUNK_SIZE);
+    private volatile AtomicReferenceArray<LongAdder> contended; // 第一次竞争时才分配
+
+    void add(int i, long delta) {
+      AtomicReferenceArray<LongAdder> adders = contended;
+      LongAdder adder = adders == null ? null : adders.get(i);
+      if (adder != null) {
+        adder.add(delta);
+        return;
+      }
+      long current = base.get(i);
+      if (!base.compareAndSet(i, current, current + delta)) {
+        adder(i).add(delta);
+      }
+    }
+
+    private LongAdder adder(int i) {
+      AtomicReferenceArray<LongAdder> adders = contended;
+      if (adders == null) {
+        synchronized (this) {
+          adders = contended;
+          if (adders == null) {
+            adders = new AtomicReferenceArray<>(CHUNK_SIZE);
+            contended = adders;
+          }
+        }
+      }
+      LongAdder adder = adders.get(i);
+      if (adder == null) {
+        adders.compareAndSet(i, null, new LongAdder());
+        adder = adders.get(i);
+      }
+      return adder;
+    }
+
+    long count(int i) {
+      long count = base.get(i);
+      AtomicReferenceArray<LongAdder> adders = contended;
+      if (adders != null) {
+        LongAdder adder = adders.get(i);
+        if (adder != null) {
+          count += adder.sum();
+        }
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class BatchShortestPathsTest {
+
+  private static CompactGraph randomGraph(int n, int degree, int maxWeight, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Map<String, Integer> neighbors = new HashMap<>();
+      for (int j = 0; j < degree; j++) {
+        neighbors.put("w" + random.nextInt(n), 1 + random.nextInt(maxWeight));
+      }
+      graph.put("w" + i, neighbors);
+    }
+    return CompactGraph.of(graph, Map.of(), 0);
+  }
+
+  private static Map<BatchShortestPaths.WordPair, PathResult> run(
+      GraphStore g, List<BatchShortestPaths.WordPair> pairs, int maxPaths) {
+    Map<BatchShortestPaths.WordPair, PathResult> results = new HashMap<>();
+    new BatchShortestPaths(g).run(pairs, maxPaths, result -> results.put(
+        new BatchShortestPaths.WordPair(result.source(), result.target()), result));
+    return results;
+  }
+
+  @Test
+  public void testMatchesSingleSourceDijkstra() {
+    CompactGraph g = randomGraph(80, 3, 2, 7);
+    List<BatchShortestPaths.WordPair> pairs = new ArrayList<>();
+    for (int s = 0; s < g.vertexCount(); s += 5) {
+      for (int t = 0; t < g.vertexCount(); t += 3) {
+        pairs.add(new BatchShortestPaths.WordPair(g.word(s), g.word(t)));
+      }
+    }
+    Map<BatchShortestPaths.WordPair, PathResult> results = run(g, pairs, Integer.MAX_VALUE);
+    assertEquals(pairs.size(), results.size());
+    for (BatchShortestPaths.WordPair pair : pairs) {
+      ShortestPaths expected = ShortestPaths.from(g, g.id(pair.source()));
+      int t = g.id(pair.target());
+      PathResult result = results.get(pair);
+      assertEquals(expected.distance(t), result.distance(), pair.toString());
+      if (expected.distance(t) == ShortestPaths.UNREACHABLE) {
+        assertEquals(PathResult.Status.NO_PATH, result.status());
+      } else {
+        assertEquals(PathResult.Status.FOUND, result.status());
+        assertEquals(expected.paths(t).size(), result.pathCount(), pair.toString());
+        assertEquals(result.pathCount(), result.paths().size(), pair.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testPathCountWithoutEnumeration() {
+    // 每一层两个顶点、层间全连接，起点到第 k 层共有 2^k 条等长路径
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    int layers = 40;
+    graph.put("s", Map.of("a0", 1, "b0", 1));
+    for (int i = 0; i < layers; i++) {
+      Map<String, Integer> next = i + 1 < layers
+          ? Map.of("a" + (i + 1), 1, "b" + (i + 1), 1) : Map.of("t", 1);
+      graph.put("a" + i, next);
+      graph.put("b" + i, next);
+    }
+    graph.put("t", Map.of());
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 0);
+    PathResult result = run(g, List.of(new BatchShortestPaths.WordPair("s", "t")), 3)
+        .values().iterator().next();
+    assertEquals(layers + 1, result.distance());
+    assertEquals(1L << layers, result.pathCount());
+    assertEquals(3, result.paths().size());
+    for (List<String> path : result.paths()) {
+      assertEquals("s", path.getFirst());
+      assertEquals("t", path.getLast());
+    }
+    assertTrue(run(g, List.of(new BatchShortestPaths.WordPair("s", "t")), 0)
+        .values().iterator().next().paths().isEmpty());
+  }
+
+  @Test
+  public void testUnknownWords() {
+    CompactGraph g = randomGraph(10, 2, 2, 3);
+    Map<BatchShortestPaths.WordPair, PathResult> results = run(g, List.of(
+        new BatchShortestPaths.WordPair("nope", "w1"),
+        new BatchShortestPaths.WordPair("w1", "nope")), 1);
+    assertEquals(PathResult.Status.UNKNOWN_SOURCE,
+        results.get(new BatchShortestPaths.WordPair("nope", "w1")).status());
+    assertEquals(PathResult.Status.UNKNOWN_TARGET,
+        results.get(new BatchShortestPaths.WordPair("w1", "nope")).status());
+  }
+}
@@ -89,4 +89,25 @@ public class BlackBoxTest {
     String result = graphProcessor.generateNewText("qUiCk你JuMps好ovEr啊lAZy。dOg");
     assertEquals("qUiCk fox JuMps ovEr lAZy dOg", result);
   }
+
+  @Test
+  public void testCjkBigramsKeepOriginalText() {
+    graphProcessor = new GraphProcessor();
+    graphProcessor.setTokenizer(new UnicodeTokenizer(true));
+    graphProcessor.buildGraph("自然语言 很 处理");
+    assertEquals("自然语言 很 处理", graphProcessor.generateNewText("自然语言，处理"));
+    assertEquals("自然语言处理", graphProcessor.generateNewText("自然语言处理"));
+  }
+
+  @Test
+  public void testStreamedTextVisibleToNextQuery() {
+    graphProcessor = new GraphProcessor();
+    graphProcessor.setStreaming(StreamingGraph.lastTokens(4));
+    graphProcessor.streamText("old words here");
+    graphProcessor.streamText("quick fox");
+    graphProcessor.streamText("jumps");
+    assertEquals("quick fox jumps", graphProcessor.generateNewText("quick jumps"));
+    graphProcessor.streamText("a b c d"); // 窗口只剩最后四个单词
+    assertEquals("quick jumps", graphProcessor.generateNewText("quick jumps"));
+  }
 }
@@ -0,0 +1,100 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+public class BridgeMatrixExporterTest {
+
+  private static CompactGraph randomGraph(int n, int degree, int maxWeight, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Map<String, Integer> neighbors = new HashMap<>();
+      for (int j = 0; j < degree; j++) {
+        neighbors.put("w" + random.nextInt(n), 1 + random.nextInt(maxWeight));
+      }
+      graph.put("w" + i, neighbors);
+    }
+    return CompactGraph.of(graph, Map.of(), 0);
+  }
+
+  /** 逐对暴力计算的桥接词及权重乘积，键为 "u v"。 */
+  private static Map<String, Map<Integer, Long>> bruteForce(GraphStore g) {
+    Map<String, Map<Integer, Long>> expected = new HashMap<>();
+    for (int u = 0; u < g.vertexCount(); u++) {
+      for (int v = 0; v < g.vertexCount(); v++) {
+        Map<Integer, Long> bridges = new TreeMap<>();
+        for (int i = 0; i < g.outDegree(u); i++) {
+          int b = g.neighbor(u, i);
+          int w2 = g.edgeWeight(b, v);
+          if (w2 > 0) {
+            bridges.put(b, (long) g.edgeWeight(u, b) * w2);
+          }
+        }
+        if (!bridges.isEmpty()) {
+          expected.put(u + " " + v, bridges);
+        }
+      }
+    }
+    return expected;
+  }
+
+  @Test
+  public void testRoundTripMatchesBruteForce() throws IOException {
+    CompactGraph g = randomGraph(600, 3, 5, 11);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long pairs = new BridgeMatrixExporter(g, 3).export(out);
+    Map<String, Map<Integer, Long>> expected = bruteForce(g);
+    assertEquals(expected.size(), pairs);
+
+    Map<String, Map<Integer, Long>> actual = new HashMap<>();
+    try (BridgeMatrixReader reader =
+             new BridgeMatrixReader(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals(g.vertexCount(), reader.vertexCount());
+      int previousSource = -1;
+      int previousTarget = -1;
+      while (reader.next()) {
+        assertEquals(g.id(reader.source()), reader.sourceId());
+        assertEquals(g.id(reader.target()), reader.targetId());
+        assertTrue(reader.sourceId() > previousSource || reader.targetId() > previousTarget);
+        previousSource = reader.sourceId();
+        previousTarget = reader.targetId();
+        Map<Integer, Long> bridges = new TreeMap<>();
+        for (int i = 0; i < reader.bridgeCount(); i++) {
+          bridges.put(g.id(reader.bridge(i)), reader.weight(i));
+        }
+        actual.put(reader.sourceId() + " " + reader.targetId(), bridges);
+      }
+      assertFalse(reader.next());
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testSingleThreadProducesSameBytes() throws IOException {
+    CompactGraph g = randomGraph(300, 4, 3, 5);
+    ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+    ByteArrayOutputStream serial = new ByteArrayOutputStream();
+    new BridgeMatrixExporter(g, 4).export(parallel);
+    new BridgeMatrixExporter(g, 1).export(serial);
+    assertArrayEquals(serial.toByteArray(), parallel.toByteArray());
+  }
+
+  @Test
+  public void testRejectsOtherFiles() {
+    assertThrows(IOException.class,
+        () -> new BridgeMatrixReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+  }
+}
@@ -0,0 +1,229 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CompactGraphTest {
+
+  private static Map<String, Map<String, Integer>> graphOf(String text) {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    String[] words = text.split(" ");
+    for (String word : words) {
+      graph.putIfAbsent(word, new HashMap<>());
+    }
+    for (int i = 0; i < words.length - 1; i++) {
+      graph.get(words[i]).merge(words[i + 1], 1, Integer::sum);
+    }
+    return graph;
+  }
+
+  @Test
+  public void testVocabularyRoundTrip() {
+    Vocabulary vocabulary = new Vocabulary(2);
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals(i, vocabulary.intern("w" + i));
+    }
+    assertEquals(10_000, vocabulary.size());
+    assertEquals(1234, vocabulary.id("w1234"));
+    assertEquals("w9999", vocabulary.word(9999));
+    assertEquals(-1, vocabulary.id("missing"));
+    int id = vocabulary.intern("你好😀");
+    assertEquals("你好😀", vocabulary.word(id));
+    assertEquals(id, vocabulary.intern("你好😀"));
+  }
+
+  @Test
+  public void testEdgesAndWeights() {
+    CompactGraph g = CompactGraph.of(graphOf("a b c a b d"), Map.of("a", 2), 6);
+    int a = g.id("a");
+    int b = g.id("b");
+    assertEquals(4, g.vertexCount());
+    assertEquals(4, g.edgeCount());
+    assertEquals(2, g.edgeWeight(a, b));
+    assertEquals(0, g.edgeWeight(b, a));
+    assertEquals(2, g.outDegree(b));
+    assertEquals(2, g.count(a));
+    assertEquals(0, g.count(b));
+  }
+
+  @Test
+  public void testEdgesToMissingVerticesAreDropped() {
+    Map<String, Map<String, Integer>> graph = graphOf("a b c");
+    graph.remove("b");
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 3);
+    assertEquals(2, g.vertexCount());
+    assertEquals(0, g.outDegree(g.id("a")));
+  }
+
+  @Test
+  public void testAllEqualCostShortestPaths() {
+    CompactGraph g = CompactGraph.of(graphOf("s x t s y t s z w t"), Map.of(), 10);
+    ShortestPaths shortest = ShortestPaths.from(g, g.id("s"));
+    int t = g.id("t");
+    assertEquals(2, shortest.distance(t));
+    Set<String> paths = new HashSet<>();
+    for (int[] path : shortest.paths(t)) {
+      StringBuilder builder = new StringBuilder();
+      for (int v : path) {
+        builder.append(g.word(v));
+      }
+      paths.add(builder.toString());
+    }
+    assertEquals(Set.of("sxt", "syt"), paths);
+    assertEquals(1, shortest.paths(g.id("s")).size());
+  }
+
+  @Test
+  public void testUnreachable() {
+    CompactGraph g = CompactGraph.of(graphOf("a b c"), Map.of(), 3);
+    ShortestPaths shortest = ShortestPaths.from(g, g.id("c"));
+    assertEquals(ShortestPaths.UNREACHABLE, shortest.distance(g.id("a")));
+    assertEquals(List.of(), shortest.paths(g.id("a")));
+  }
+
+  @Test
+  public void testPageRankMatchesReference() {
+    Map<String, Map<String, Integer>> graph = graphOf("a b c a d b a c e");
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 9);
+    int n = g.vertexCount();
+    double[] initial = new double[n];
+    java.util.Arrays.fill(initial, 1.0 / n);
+    double[] ranks = PageRank.compute(g, initial, 10);
+
+    // 原有的基于字符串的实现
+    Map<String, Double> current = new HashMap<>();
+    for (String node : graph.keySet()) {
+      current.put(node, 1.0 / n);
+    }
+    for (int i = 0; i < 10; i++) {
+      Map<String, Double> next = new HashMap<>();
+      double dangling = 0.0;
+      for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
+        if (entry.getValue().isEmpty()) {
+          dangling += current.get(entry.getKey()) / n;
+        }
+      }
+      for (String node : graph.keySet()) {
+        double rank = dangling + 0.15 / n;
+        for (Map.Entry<String, Map<String, Integer>> entry : graph.entrySet()) {
+          if (entry.getValue().containsKey(node)) {
+            rank += 0.85 * current.get(entry.getKey()) / entry.getValue().size();
+          }
+        }
+        next.put(node, rank);
+      }
+      current = next;
+    }
+    double[] expected = new double[n];
+    for (int v = 0; v < n; v++) {
+      expected[v] = current.get(g.word(v));
+    }
+    assertArrayEquals(expected, ranks, 1e-12);
+  }
+
+  @Test
+  public void testOffHeapMatchesHeap() {
+    Map<String, Map<String, Integer>> graph = graphOf("a b c a d b a c e c a b");
+    assertSameGraph(CompactGraph.of(graph, Map.of("a", 4), 12),
+        OffHeapGraph.of(graph, Map.of("a", 4), 12));
+  }
+
+  @Test
+  public void testCompressedMatchesHeap() {
+    Map<String, Map<String, Integer>> graph = graphOf("a b c a d b a c e c a b");
+    assertSameGraph(CompactGraph.of(graph, Map.of("a", 4), 12),
+        CompressedGraph.of(graph, Map.of("a", 4), 12));
+    // 多字节的出度、目标间隔和权重
+    Map<String, Map<String, Integer>> large = GraphStoreBenchmark.randomGraph(5000, 4);
+    large.get("w0").put("w4999", 1 << 20);
+    for (int i = 0; i < 300; i++) {
+      large.get("w1").put("w" + (i * 16), i + 1);
+    }
+    CompactGraph heap = CompactGraph.of(large, Map.of(), 0);
+    CompressedGraph compressed = CompressedGraph.of(large, Map.of(), 0);
+    assertSameGraph(heap, compressed);
+    assertEquals(0, compressed.edgeWeight(compressed.id("w1"), compressed.id("w17")));
+    assertTrue(compressed.encodedBytes() < 3 * compressed.edgeCount());
+  }
+
+  @Test
+  public void testCompressedBuilderStreamsIdPairs() {
+    Map<String, Map<String, Integer>> graph = GraphStoreBenchmark.randomGraph(2000, 6);
+    for (int i = 0; i < 500; i++) {
+      graph.get("w3").merge("w" + (i * 3), i + 1, Integer::sum); // 多个跳转点
+    }
+    Vocabulary vocabulary = new Vocabulary();
+    for (int i = 0; i < 2000; i++) {
+      vocabulary.intern("w" + i);
+    }
+    CompressedGraph.Builder builder = new CompressedGraph.Builder(vocabulary);
+    for (int i = 0; i < 2000; i++) {
+      // 同一起点的边逆序加入，权重大于 1 的边拆成两次
+      List<Map.Entry<String, Integer>> edges = List.copyOf(graph.get("w" + i).entrySet());
+      for (int j = edges.size() - 1; j >= 0; j--) {
+        int target = vocabulary.id(edges.get(j).getKey());
+        int weight = edges.get(j).getValue();
+        builder.add(i, target, 1);
+        if (weight > 1) {
+          builder.add(i, target, weight - 1);
+        }
+      }
+      builder.count(i, i % 5);
+    }
+    CompressedGraph compressed = builder.build();
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 2000; i++) {
+      counts.put("w" + i, i % 5);
+    }
+    CompactGraph heap = CompactGraph.of(graph, counts, 4000);
+    assertEquals(4000, compressed.wordNum());
+    assertSameGraph(heap, compressed);
+    for (int i = 0; i < 2000; i++) { // 包括不存在的边
+      assertEquals(heap.edgeWeight(heap.id("w3"), heap.id("w" + i)),
+          compressed.edgeWeight(compressed.id("w3"), compressed.id("w" + i)));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> new CompressedGraph.Builder(vocabulary).add(5, 1, 1).add(4, 1, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new CompressedGraph.Builder(vocabulary).add(1, 2000, 1).build());
+  }
+
+  /** 按单词比较两个词图，允许顶点 id 的分配顺序不同。 */
+  private static void assertSameGraph(CompactGraph heap, GraphStore other) {
+    assertEquals(heap.vertexCount(), other.vertexCount());
+    assertEquals(heap.edgeCount(), other.edgeCount());
+    GraphStore.EdgeCursor heapCursor = heap.cursor();
+    GraphStore.EdgeCursor otherCursor = other.cursor();
+    for (int v = 0; v < heap.vertexCount(); v++) {
+      int u = other.id(heap.word(v));
+      assertEquals(heap.word(v), other.word(u));
+      assertEquals(heap.count(v), other.count(u));
+      assertEquals(heap.outDegree(v), other.outDegree(u));
+      Map<String, Integer> expected = new HashMap<>();
+      heapCursor.reset(v);
+      while (heapCursor.next()) {
+        expected.put(heap.word(heapCursor.target()), heapCursor.weight());
+      }
+      Map<String, Integer> actual = new HashMap<>();
+      otherCursor.reset(u);
+      int previous = -1;
+      for (int i = 0; otherCursor.next(); i++) {
+        assertTrue(otherCursor.target() > previous);
+        previous = otherCursor.target();
+        assertEquals(otherCursor.target(), other.neighbor(u, i));
+        assertEquals(otherCursor.weight(), other.edgeWeight(u, otherCursor.target()));
+        actual.put(other.word(otherCursor.target()), otherCursor.weight());
+      }
+      assertEquals(expected, actual);
+    }
+  }
+}
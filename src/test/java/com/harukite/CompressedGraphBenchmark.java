@@ -0,0 +1,58 @@
+package com.harukite;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 比较 {@link CompactGraph} 与 {@link CompressedGraph} 的内存占用和遍历吞吐量。
+ *
+ * <p>对不同规模的随机词图，分别统计每条边的字节数、10 轮 PageRank 的用时，
+ * 以及从若干起点运行单源 Dijkstra 的用时。每项先预热一次再计时。
+ * 不属于单元测试，编译测试代码后直接运行 {@code main} 方法即可。.
+ */
+public final class CompressedGraphBenchmark {
+
+  private CompressedGraphBenchmark() {
+  }
+
+  /**
+   * 基准入口。
+   *
+   * @param args 可选，第一个参数为最大顶点数（默认 400000）
+   */
+  public static void main(String[] args) {
+    int maxVertices = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+    for (int n = maxVertices / 4; n <= maxVertices; n *= 2) {
+      Map<String, Map<String, Integer>> graph = GraphStoreBenchmark.randomGraph(n, 8);
+      CompactGraph compact = CompactGraph.of(graph, Map.of(), 0);
+      CompressedGraph compressed = CompressedGraph.of(graph, Map.of(), 0);
+      graph = null;
+      report("compact   ", compact, 8.0 * compact.edgeCount() + 4.0 * compact.vertexCount());
+      report("compressed", compressed,
+          compressed.encodedBytes() + 8.0 * compressed.vertexCount()); // 偏移和出度
+    }
+  }
+
+  private static void report(String name, GraphStore store, double adjacencyBytes) {
+    double[] initial = new double[store.vertexCount()];
+    Arrays.fill(initial, 1.0 / initial.length);
+    PageRank.compute(store, initial, 10);
+    long start = System.nanoTime();
+    PageRank.compute(store, initial, 10);
+    long pageRank = System.nanoTime() - start;
+
+    ShortestPaths.from(store, 0);
+    start = System.nanoTime();
+    long reached = 0;
+    for (int s = 0; s < 10; s++) {
+      ShortestPaths paths = ShortestPaths.from(store, s * (store.vertexCount() / 10));
+      reached += paths.distance(store.vertexCount() - 1) == ShortestPaths.UNREACHABLE ? 0 : 1;
+    }
+    long dijkstra = System.nanoTime() - start;
+    System.out.printf(Locale.ROOT,
+        "%s n=%-8d edges=%-9d %5.2f B/edge pagerank=%5d ms dijkstra(10)=%5d ms %s%n", name,
+        store.vertexCount(), store.edgeCount(), adjacencyBytes / store.edgeCount(),
+        pageRank / 1_000_000, dijkstra / 1_000_000, reached < 0 ? "!" : "");
+  }
+}
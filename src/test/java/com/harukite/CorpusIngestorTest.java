@@ -0,0 +1,184 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CorpusIngestorTest {
+
+  @TempDir
+  Path dir;
+
+  private static void write(Path file, String text) throws IOException {
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+  }
+
+  private static void writeGzip(Path file, String text) throws IOException {
+    Files.createDirectories(file.getParent());
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+         Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      writer.write(text);
+    }
+  }
+
+  /** 与 GraphProcessor.buildGraph 相同的规则，逐个文件累加。 */
+  private static Map<String, Map<String, Integer>> expected(List<String> texts) {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (String text : texts) {
+      List<String> words = new AsciiTokenizer().tokenize(text.toLowerCase());
+      for (String word : words) {
+        graph.putIfAbsent(word, new HashMap<>());
+      }
+      for (int i = 0; i < words.size() - 1; i++) {
+        graph.get(words.get(i)).merge(words.get(i + 1), 1, Integer::sum);
+      }
+    }
+    return graph;
+  }
+
+  @Test
+  public void testMergesFilesWithoutCrossFileEdges() throws IOException {
+    write(dir.resolve("a.txt"), "The cat sat\non the mat");
+    writeGzip(dir.resolve("sub/b.log"), "the dog\nsat on the cat");
+    write(dir.resolve("sub/deeper/c.txt"), "Mat cat");
+    WordGraph graph = new CorpusIngestor(new AsciiTokenizer(), 2)
+        .ingest(CorpusIngestor.resolve(dir.toString()), ProgressMonitor.NONE);
+    assertEquals(expected(List.of("The cat sat\non the mat", "the dog\nsat on the cat",
+        "Mat cat")), graph.adjacency());
+    assertEquals(0, graph.edgeWeight(graph.id("mat"), graph.id("the"))); // 文件边界处没有边
+    assertEquals(2, graph.edgeWeight(graph.id("the"), graph.id("cat")));
+    assertEquals(14, graph.wordNum());
+    assertEquals(4, graph.count(graph.id("the")));
+  }
+
+  @Test
+  public void testBuildsNGramModelPerFile() throws IOException {
+    List<String> texts = List.of("the cat sat\non the mat", "the cat ran", "on the mat the cat sat");
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < texts.size(); i++) {
+      write(dir.resolve(i + ".txt"), texts.get(i));
+      files.add(dir.resolve(i + ".txt"));
+    }
+    NGramModel model = new NGramModel(3);
+    new CorpusIngestor(new AsciiTokenizer(), 3).ingest(files, new WordGraph(), model,
+        ProgressMonitor.NONE);
+    NGramModel sequential = new NGramModel(3);
+    for (String text : texts) {
+      sequential.add(new AsciiTokenizer().tokenize(text));
+    }
+    assertEquals(sequential.tokenCount(), model.tokenCount());
+    assertEquals(sequential.vocabularySize(), model.vocabularySize());
+    assertEquals(sequential.transitionCount(), model.transitionCount());
+    int[] history = {model.id("the"), model.id("cat")};
+    assertEquals(2, model.count(history, 2, model.id("sat"))); // 跨行仍连续
+    assertEquals(1, model.count(new int[] {model.id("the"), model.id("mat")}, 2,
+        model.id("the"))); // 文件边界处没有 n-gram
+  }
+
+  @Test
+  public void testManyFilesInParallel() throws IOException {
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      StringBuilder text = new StringBuilder();
+      for (int j = 0; j < 50; j++) {
+        text.append('w').append((i * 31 + j * 7) % 97).append(j % 9 == 0 ? "\n" : " ");
+      }
+      texts.add(text.toString());
+      if (i % 2 == 0) {
+        writeGzip(dir.resolve("logs/f" + i + ".gz"), text.toString());
+      } else {
+        write(dir.resolve("logs/f" + i + ".txt"), text.toString());
+      }
+    }
+    AtomicLong last = new AtomicLong();
+    ProgressMonitor monitor = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+        last.accumulateAndGet(done, Math::max);
+        assertEquals(200, total);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return false;
+      }
+    };
+    WordGraph graph = new CorpusIngestor(new AsciiTokenizer(), 4)
+        .ingest(CorpusIngestor.resolve(dir.toString()), monitor);
+    assertEquals(expected(texts), graph.adjacency());
+    assertEquals(200 * 50, graph.wordNum());
+    assertEquals(200, last.get());
+  }
+
+  @Test
+  public void testMergesBufferedEdgesOfLargeFiles() throws IOException {
+    // 每个文件的不同边数超过线程私有缓冲区，读取过程中会多次合并到词图
+    SplittableRandom random = new SplittableRandom(4);
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      StringBuilder text = new StringBuilder();
+      for (int j = 0; j < 150_000; j++) {
+        text.append('w').append(random.nextInt(400)).append(j % 20 == 0 ? "\n" : " ");
+      }
+      texts.add(text.toString());
+      write(dir.resolve("big/f" + i + ".txt"), text.toString());
+    }
+    WordGraph graph = new CorpusIngestor(new AsciiTokenizer(), 2)
+        .ingest(CorpusIngestor.resolve(dir.toString()), ProgressMonitor.NONE);
+    assertEquals(expected(texts), graph.adjacency());
+    assertEquals(3 * 150_000, graph.wordNum());
+  }
+
+  @Test
+  public void testGlobPatterns() throws IOException {
+    write(dir.resolve("logs/a.gz"), "a");
+    write(dir.resolve("logs/b.txt"), "b");
+    write(dir.resolve("logs/2024/c.gz"), "c");
+    String base = dir.toString().replace('\\', '/');
+    assertEquals(List.of(dir.resolve("logs/a.gz")), CorpusIngestor.resolve(base + "/logs/*.gz"));
+    assertEquals(List.of(dir.resolve("logs/2024/c.gz"), dir.resolve("logs/a.gz")),
+        CorpusIngestor.resolve(base + "/logs/**.gz"));
+    assertEquals(List.of(dir.resolve("logs/2024/c.gz")),
+        CorpusIngestor.resolve(base + "/*/*/*.gz"));
+    assertThrows(NoSuchFileException.class,
+        () -> CorpusIngestor.resolve(base + "/missing/*.gz"));
+  }
+
+  @Test
+  public void testCancellation() throws IOException {
+    for (int i = 0; i < 20; i++) {
+      write(dir.resolve("f" + i + ".txt"), "a b c");
+    }
+    ProgressMonitor cancelled = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    };
+    assertThrows(CancellationException.class, () -> new CorpusIngestor(new AsciiTokenizer(), 3)
+        .ingest(CorpusIngestor.resolve(dir.toString()), cancelled));
+  }
+}
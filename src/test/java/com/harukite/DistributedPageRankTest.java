@@ -0,0 +1,127 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 在本机启动真实的工作进程，校验 {@link DistributedPageRank} 与单进程 {@link PageRank} 的结果一致。
+ */
+public class DistributedPageRankTest {
+
+  private static final double TOLERANCE = 1e-12;
+
+  @TempDir
+  Path dir;
+
+  private static CompactGraph randomGraph(int n, int edges, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put("w" + i, new HashMap<>());
+    }
+    for (int i = 0; i < edges; i++) {
+      graph.get("w" + random.nextInt(n)).put("w" + random.nextInt(n), 1 + random.nextInt(3));
+    }
+    return CompactGraph.of(graph, Map.of(), 0);
+  }
+
+  private static double[] uniform(int n) {
+    double[] rank = new double[n];
+    Arrays.fill(rank, 1.0 / n);
+    return rank;
+  }
+
+  @Test
+  public void testMatchesSingleProcess() throws Exception {
+    CompactGraph g = randomGraph(600, 1500, 3); // 约 8% 的顶点没有出边
+    double[] initial = uniform(g.vertexCount());
+    double[] expected = PageRank.compute(g, initial, 10);
+    AtomicInteger iterations = new AtomicInteger();
+    ProgressMonitor counting = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+        iterations.set((int) done);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return false;
+      }
+    };
+    double[] actual = new DistributedPageRank(3).compute(g, initial, 10, 0.0, counting);
+    assertArrayEquals(expected, actual, TOLERANCE);
+    assertEquals(10, iterations.get());
+    assertEquals(1.0 / g.vertexCount(), initial[0]);
+  }
+
+  @Test
+  public void testConvergesAndHandlesMoreWorkersThanVertices() throws Exception {
+    CompactGraph g = randomGraph(300, 900, 8);
+    double[] initial = uniform(g.vertexCount());
+    double[] expected = PageRank.compute(g, initial, 200);
+    double[] actual = new DistributedPageRank(2)
+        .compute(g, initial, 200, 1e-13, ProgressMonitor.NONE);
+    assertArrayEquals(expected, actual, 1e-10);
+
+    Map<String, Map<String, Integer>> tiny = new HashMap<>();
+    tiny.put("a", Map.of("b", 1));
+    tiny.put("b", Map.of());
+    CompactGraph pair = CompactGraph.of(tiny, Map.of(), 0);
+    assertArrayEquals(PageRank.compute(pair, uniform(2), 10),
+        new DistributedPageRank(4).compute(pair, uniform(2), 10, 0.0, ProgressMonitor.NONE),
+        TOLERANCE);
+  }
+
+  @Test
+  public void testReusesPartitionFile() throws Exception {
+    CompactGraph g = randomGraph(400, 1200, 5);
+    DistributedPageRank ranker = new DistributedPageRank(3);
+    Path file = ranker.partition(g, dir.resolve("graph.part"));
+    double[] skewed = uniform(g.vertexCount());
+    skewed[0] += skewed[1];
+    skewed[1] = 0.0;
+    for (double[] initial : new double[][] {uniform(g.vertexCount()), skewed}) {
+      assertArrayEquals(PageRank.compute(g, initial, 10),
+          ranker.compute(file, initial, 10, 0.0, ProgressMonitor.NONE), TOLERANCE);
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> ranker.compute(file, uniform(3), 10, 0.0, ProgressMonitor.NONE));
+  }
+
+  @Test
+  public void testBoundaryLargerThanSocketBuffers() throws Exception {
+    // 每对工作进程之间每轮交换数十万个 double，远超套接字缓冲区，双方同时发送也不能互相阻塞
+    CompactGraph g = randomGraph(200_000, 600_000, 11);
+    double[] initial = uniform(g.vertexCount());
+    assertArrayEquals(PageRank.compute(g, initial, 3),
+        new DistributedPageRank(3).compute(g, initial, 3, 0.0, ProgressMonitor.NONE), TOLERANCE);
+  }
+
+  @Test
+  public void testCancellationStopsWorkers() {
+    CompactGraph g = randomGraph(50, 100, 1);
+    ProgressMonitor cancelled = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    };
+    assertThrows(CancellationException.class, () -> new DistributedPageRank(2)
+        .compute(g, uniform(g.vertexCount()), 10, 0.0, cancelled));
+  }
+}
@@ -0,0 +1,171 @@
+package com.harukite;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * 比较堆内与堆外词图存储对 GC 的影响，测量的是 {@link GraphProcessor} 实际使用的路径。
+ *
+ * <p>先在临时目录中生成一份近似 Zipf 分布的随机语料，然后对每种存储方式：
+ * 由 {@link CorpusIngestor} 把语料直接构建到 {@link WordGraph}（堆外模式下邻接数据写入直接内存），
+ * 再构建相应的快照（{@link CompactGraph} 或 {@link OffHeapGraph}），与 {@code GraphProcessor} 一样同时持有两者。
+ * 报告构建期间的 GC 次数与耗时、持有词图时制造固定数量短命垃圾期间的 GC 次数与耗时、
+ * 回收后仍然占用的堆内存和直接内存，以及一次 PageRank 的用时。
+ * 两种方式在同一个进程中依次运行，前一种的结果在开始下一种之前已不可达；
+ * 需要互不干扰的数字时，可以用参数只运行其中一种。
+ * 不属于单元测试，编译测试代码后直接运行 {@code main} 方法即可。.
+ */
+public final class GraphStoreBenchmark {
+
+  private GraphStoreBenchmark() {
+  }
+
+  /**
+   * 基准入口。
+   *
+   * @param args 可选，第一个参数为语料的单词数（默认 20000000），
+   *             第二个参数为 {@code heap}、{@code offheap} 或 {@code both}（默认）
+   * @throws IOException 读写临时语料失败时抛出
+   */
+  public static void main(String[] args) throws IOException {
+    int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+    String mode = args.length > 1 ? args[1] : "both";
+    Path dir = Files.createTempDirectory("graph-store-benchmark");
+    try {
+      List<Path> files = writeCorpus(dir, tokens, 8);
+      if (!mode.equals("offheap")) {
+        run("heap   ", files, false);
+      }
+      if (!mode.equals("heap")) {
+        run("offheap", files, true);
+      }
+    } finally {
+      try (Stream<Path> paths = Files.walk(dir)) {
+        paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+      }
+    }
+  }
+
+  private static void run(String name, List<Path> files, boolean offHeap) throws IOException {
+    System.gc();
+    long[] start = gcStats();
+    long begin = System.nanoTime();
+    WordGraph graph = new CorpusIngestor(new AsciiTokenizer())
+        .ingest(files, new WordGraph(offHeap), ProgressMonitor.NONE);
+    GraphStore store = offHeap ? OffHeapGraph.of(graph) : CompactGraph.of(graph);
+    long built = System.nanoTime() - begin;
+    long[] afterBuild = gcStats();
+
+    long sink = churn();
+    long[] afterChurn = gcStats();
+
+    System.gc();
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long heap = memory.getHeapMemoryUsage().getUsed();
+    long direct = graph.isOffHeap() ? graph.adjacencyBytes() : 0;
+    if (store instanceof OffHeapGraph offHeapStore) {
+      direct += offHeapStore.directMemoryBytes();
+    }
+
+    double[] initial = new double[store.vertexCount()];
+    Arrays.fill(initial, 1.0 / initial.length);
+    long rankStart = System.nanoTime();
+    PageRank.compute(store, initial, 10);
+    long rank = System.nanoTime() - rankStart;
+    System.out.printf(Locale.ROOT,
+        "%s vertices=%-8d edges=%-9d build=%d ms (gc %d, %d ms) churn gc=%d (%d ms) "
+            + "heap=%d MB direct=%d MB pagerank=%d ms %s%n",
+        name, store.vertexCount(), store.edgeCount(), built / 1_000_000,
+        afterBuild[0] - start[0], afterBuild[1] - start[1],
+        afterChurn[0] - afterBuild[0], afterChurn[1] - afterBuild[1],
+        heap >> 20, direct >> 20, rank / 1_000_000,
+        sink == 0 ? "!" : "");
+  }
+
+  /**
+   * 制造固定数量的短命垃圾，触发年轻代回收；持有的图越大，每次回收需要扫描的存活对象越多。
+   */
+  private static long churn() {
+    long[][] ring = new long[1024][];
+    long sink = 0;
+    for (int i = 0; i < 2_000_000; i++) {
+      ring[i & 1023] = new long[32];
+      sink += ring[(i * 7) & 1023] == null ? 0 : 1;
+    }
+    return sink;
+  }
+
+  private static long[] gcStats() {
+    long count = 0;
+    long time = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += bean.getCollectionCount();
+      time += bean.getCollectionTime();
+    }
+    return new long[] {count, time};
+  }
+
+  /**
+   * 在 {@code dir} 中写入 {@code fileCount} 个文件，合计 {@code tokens} 个单词，
+   * 单词编号近似服从 Zipf 分布，词表大小约为单词数的 1/20。
+   */
+  private static List<Path> writeCorpus(Path dir, int tokens, int fileCount) throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    int vocabulary = Math.max(2, tokens / 20);
+    Path[] files = new Path[fileCount];
+    for (int f = 0; f < fileCount; f++) {
+      files[f] = dir.resolve("part" + f + ".txt");
+      try (Writer writer = Files.newBufferedWriter(files[f], StandardCharsets.UTF_8)) {
+        for (int i = f; i < tokens; i += fileCount) {
+          int word = (int) Math.min(vocabulary - 1, Math.pow(vocabulary, random.nextDouble()));
+          writer.write(name(word));
+          writer.write(i % 16 == 0 ? '\n' : ' ');
+        }
+      }
+    }
+    return List.of(files);
+  }
+
+  /**
+   * 把编号转为只含小写字母的单词，使默认的 ASCII 分词器能够识别。
+   */
+  private static String name(int word) {
+    StringBuilder builder = new StringBuilder("w");
+    do {
+      builder.append((char) ('a' + word % 26));
+      word /= 26;
+    } while (word > 0);
+    return builder.toString();
+  }
+
+  static Map<String, Map<String, Integer>> randomGraph(int n, int degree) {
+    SplittableRandom random = new SplittableRandom(42);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put("w" + i, new HashMap<>());
+    }
+    for (int i = 0; i < n; i++) {
+      Map<String, Integer> neighbors = graph.get("w" + i);
+      for (int j = 0; j < degree; j++) {
+        // 近似 Zipf 分布：小编号的词更常出现
+        int target = (int) Math.min(n - 1, Math.pow(n, random.nextDouble()));
+        neighbors.merge("w" + target, 1, Integer::sum);
+      }
+    }
+    return graph;
+  }
+}
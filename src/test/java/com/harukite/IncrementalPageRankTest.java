@@ -0,0 +1,95 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalPageRankTest {
+
+  private static List<String> randomWords(SplittableRandom random, int length, int vocabulary) {
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < length; i++) {
+      words.add("w" + random.nextInt(vocabulary));
+    }
+    return words;
+  }
+
+  private static void add(Map<String, Map<String, Integer>> graph, List<String> words) {
+    for (String word : words) {
+      graph.putIfAbsent(word, new HashMap<>());
+    }
+    for (int i = 0; i + 1 < words.size(); i++) {
+      graph.get(words.get(i)).merge(words.get(i + 1), 1, Integer::sum);
+    }
+  }
+
+  private static void assertConverged(Map<String, Map<String, Integer>> graph,
+      IncrementalPageRank rank, double tolerance) {
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 0);
+    double[] initial = new double[g.vertexCount()];
+    Arrays.fill(initial, 1.0 / initial.length);
+    double[] expected = PageRank.compute(g, initial, 300);
+    double error = 0.0;
+    for (int v = 0; v < g.vertexCount(); v++) {
+      error += Math.abs(expected[v] - rank.rank(g.word(v)));
+    }
+    assertTrue(error < tolerance, "L1 error " + error);
+  }
+
+  @Test
+  public void testMatchesConvergedPowerIteration() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    graph.put("a", new HashMap<>(Map.of("b", 2, "c", 1)));
+    graph.put("b", new HashMap<>(Map.of("c", 1)));
+    graph.put("c", new HashMap<>(Map.of("a", 1)));
+    graph.put("d", new HashMap<>(Map.of("c", 1)));
+    graph.put("e", new HashMap<>()); // 悬挂节点
+    graph.get("c").put("e", 1);
+    IncrementalPageRank rank = IncrementalPageRank.of(graph);
+    assertEquals(5, rank.vertexCount());
+    assertEquals(6, rank.edgeCount());
+    assertTrue(rank.update(ProgressMonitor.NONE) > 0);
+    assertConverged(graph, rank, 1e-4);
+    assertEquals(0, rank.update(ProgressMonitor.NONE));
+    assertEquals(0.0, rank.rank("missing"));
+  }
+
+  @Test
+  public void testAppendsMatchRecomputation() {
+    SplittableRandom random = new SplittableRandom(3);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    IncrementalPageRank rank = new IncrementalPageRank(1e-9);
+    assertEquals(0.0, rank.rank("w0"));
+    for (int batch = 0; batch < 8; batch++) {
+      List<String> words = randomWords(random, 1 + random.nextInt(200), 300);
+      add(graph, words);
+      rank.addWords(words);
+      rank.update(ProgressMonitor.NONE);
+      assertConverged(graph, rank, 1e-7);
+    }
+  }
+
+  @Test
+  public void testSmallAppendDoesLessWorkThanRebuild() {
+    SplittableRandom random = new SplittableRandom(5);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    add(graph, randomWords(random, 200_000, 50_000));
+    IncrementalPageRank rank = IncrementalPageRank.of(graph);
+    int full = rank.update(ProgressMonitor.NONE);
+
+    List<String> append = List.of("w1", "w2", "fresh", "w3");
+    add(graph, append);
+    rank.addWords(append);
+    int incremental = rank.update(ProgressMonitor.NONE);
+    assertTrue(incremental * 10 < full, incremental + " vs " + full);
+    assertEquals(full + incremental, rank.pushes());
+    assertConverged(graph, rank, 1e-4);
+  }
+}
@@ -0,0 +1,64 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class LongIntMapTest {
+
+  @Test
+  public void testPackKeepsBothIds() {
+    long key = LongIntMap.pack(Integer.MAX_VALUE, 7);
+    assertEquals(Integer.MAX_VALUE, (int) (key >>> 32));
+    assertEquals(7, (int) key);
+    assertTrue(LongIntMap.pack(1, 2) != LongIntMap.pack(2, 1));
+    assertTrue(LongIntMap.pack(0, 0) >= 0);
+  }
+
+  @Test
+  public void testPutIfAbsentGrowsAndClears() {
+    LongIntMap map = new LongIntMap();
+    for (int u = 0; u < 300; u++) {
+      for (int v = 0; v < 300; v += 7) {
+        assertEquals(-1, map.putIfAbsent(LongIntMap.pack(u, v), u * 1000 + v));
+      }
+    }
+    assertEquals(300 * 43, map.size());
+    assertEquals(-1, map.get(LongIntMap.pack(5, 6)));
+    assertEquals(5 * 1000 + 14, map.get(LongIntMap.pack(5, 14)));
+    assertEquals(299 * 1000 + 294, map.putIfAbsent(LongIntMap.pack(299, 294), 0));
+
+    map.clear();
+    assertEquals(0, map.size());
+    assertEquals(-1, map.get(LongIntMap.pack(5, 14)));
+    assertEquals(-1, map.putIfAbsent(LongIntMap.pack(5, 14), 1));
+    assertEquals(1, map.get(LongIntMap.pack(5, 14)));
+  }
+
+  @Test
+  public void testRemoveMatchesHashMap() {
+    LongIntMap map = new LongIntMap();
+    Map<Long, Integer> expected = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(4);
+    for (int i = 0; i < 100_000; i++) {
+      long key = LongIntMap.pack(random.nextInt(40), random.nextInt(40));
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key) != null, map.remove(key));
+      } else {
+        Integer old = expected.putIfAbsent(key, i);
+        assertEquals(old == null ? -1 : old, map.putIfAbsent(key, i));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int u = 0; u < 40; u++) {
+      for (int v = 0; v < 40; v++) {
+        long key = LongIntMap.pack(u, v);
+        assertEquals(expected.getOrDefault(key, -1), map.get(key));
+      }
+    }
+  }
+}
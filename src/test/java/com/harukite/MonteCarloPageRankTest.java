@@ -0,0 +1,114 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.Test;
+
+public class MonteCarloPageRankTest {
+
+  private static CompactGraph randomGraph(int n, int edges, long seed) {
+    return CompactGraph.of(randomEdges(n, edges, seed), Map.of(), 0);
+  }
+
+  private static Map<String, Map<String, Integer>> randomEdges(int n, int edges, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put("w" + i, new HashMap<>());
+    }
+    for (int i = 0; i < edges; i++) {
+      // 偏向小 id 的目标，使 PR 值分布不均匀
+      int target = (int) (n * Math.pow(random.nextDouble(), 3));
+      graph.get("w" + random.nextInt(n)).put("w" + target, 1);
+    }
+    return graph;
+  }
+
+  private static double[] converged(GraphStore g) {
+    double[] initial = new double[g.vertexCount()];
+    Arrays.fill(initial, 1.0 / initial.length);
+    return PageRank.compute(g, initial, 200);
+  }
+
+  private static double l1(double[] a, double[] b) {
+    double sum = 0.0;
+    for (int i = 0; i < a.length; i++) {
+      sum += Math.abs(a[i] - b[i]);
+    }
+    return sum;
+  }
+
+  @Test
+  public void testRefinementTightensEstimate() {
+    CompactGraph g = randomGraph(2000, 6000, 5);
+    double[] exact = converged(g);
+    MonteCarloPageRank estimator = new MonteCarloPageRank(g, 42);
+    estimator.addWalks(10, ProgressMonitor.NONE);
+    double coarse = l1(exact, estimator.ranks());
+    assertTrue(coarse < estimator.l1ErrorBound(), coarse + " > " + estimator.l1ErrorBound());
+
+    estimator.addWalks(310, ProgressMonitor.NONE);
+    assertEquals(320, estimator.walksPerVertex());
+    double fine = l1(exact, estimator.ranks());
+    assertTrue(fine < estimator.l1ErrorBound(), fine + " > " + estimator.l1ErrorBound());
+    assertTrue(fine < coarse / 2, coarse + " -> " + fine);
+
+    // 排名最高的单词相对误差很小
+    int best = estimator.topK(1)[0];
+    assertEquals(g.id("w0"), best);
+    assertEquals(exact[best], estimator.rank(best), 4 * estimator.standardError(best));
+  }
+
+  @Test
+  public void testSameSeedGivesSameEstimate() {
+    CompactGraph g = randomGraph(5000, 12000, 9);
+    MonteCarloPageRank a = new MonteCarloPageRank(g, 7);
+    MonteCarloPageRank b = new MonteCarloPageRank(g, 7);
+    a.addWalks(4, ProgressMonitor.NONE);
+    a.addWalks(4, ProgressMonitor.NONE);
+    b.addWalks(4, ProgressMonitor.NONE);
+    b.addWalks(4, ProgressMonitor.NONE);
+    assertArrayEquals(a.ranks(), b.ranks());
+  }
+
+  @Test
+  public void testRankByWordUsesOwnNumbering() {
+    CompressedGraph g = CompressedGraph.of(randomEdges(300, 900, 3), Map.of(), 0);
+    MonteCarloPageRank estimator = new MonteCarloPageRank(g, 11);
+    estimator.addWalks(16, ProgressMonitor.NONE);
+    // 压缩词图按入边权重重新编号，单词必须在估计器自己的词图中查找
+    for (String word : new String[] {"w0", "w1", "w150"}) {
+      assertEquals(estimator.rank(g.id(word)), estimator.rank(word));
+    }
+    assertEquals(0.0, estimator.rank("missing"));
+  }
+
+  @Test
+  public void testCancellationKeepsEstimate() {
+    CompactGraph g = randomGraph(300, 900, 2);
+    MonteCarloPageRank estimator = new MonteCarloPageRank(g, 1);
+    estimator.addWalks(8, ProgressMonitor.NONE);
+    double[] before = estimator.ranks();
+    ProgressMonitor cancelled = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    };
+    assertThrows(CancellationException.class, () -> estimator.addWalks(8, cancelled));
+    assertEquals(8, estimator.walksPerVertex());
+    assertArrayEquals(before, estimator.ranks());
+  }
+}
@@ -0,0 +1,95 @@
+package com.harukite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 比较 {@link NGramModel} 与嵌套 {@code HashMap} 存储高阶 n-gram 的内存占用和构建时间。
+ *
+ * <p>对近似 Zipf 分布的随机文本，分别构建 3 元和 4 元模型，
+ * 用 GC 之后的已用堆内存之差估算两种方式的实际占用，并给出每条转移的平均字节数。
+ * 嵌套 {@code HashMap} 方式以 {@code Map<List<String>, Map<String, Integer>>} 存储所有长度的上下文，
+ * 与 {@link NGramModel} 记录的内容相同。
+ * 不属于单元测试，编译测试代码后直接运行 {@code main} 方法即可。.
+ */
+public final class NGramModelBenchmark {
+
+  private NGramModelBenchmark() {
+  }
+
+  /**
+   * 基准入口。
+   *
+   * @param args 可选，第一个参数为单词数（默认 1000000），第二个参数为词表大小（默认 50000）
+   */
+  public static void main(String[] args) {
+    int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int vocabulary = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+    List<String> words = zipfText(tokens, vocabulary);
+    for (int order = 3; order <= 4; order++) {
+      long base = usedMemory();
+      long start = System.nanoTime();
+      NGramModel model = new NGramModel(order);
+      model.add(words);
+      long compactTime = System.nanoTime() - start;
+      long compact = usedMemory() - base;
+      int transitions = model.transitionCount();
+
+      base = usedMemory();
+      start = System.nanoTime();
+      Map<List<String>, Map<String, Integer>> nested = nestedMaps(words, order);
+      long nestedTime = System.nanoTime() - start;
+      long maps = usedMemory() - base;
+
+      System.out.printf(Locale.ROOT,
+          "order=%d transitions=%d contexts=%d%n"
+              + "  compact: %6.1f MB (estimate %6.1f MB) %5.1f B/transition %5d ms%n"
+              + "  nested : %6.1f MB %31s %5.1f B/transition %5d ms%n",
+          order, transitions, model.contextCount(),
+          compact / 1e6, model.memoryBytes() / 1e6, (double) compact / transitions,
+          compactTime / 1_000_000, maps / 1e6, "", (double) maps / transitions,
+          nestedTime / 1_000_000);
+      if (nested.size() != model.contextCount()) {
+        System.out.println("context count mismatch: " + nested.size());
+      }
+    }
+  }
+
+  private static Map<List<String>, Map<String, Integer>> nestedMaps(List<String> words,
+                                                                   int order) {
+    Map<List<String>, Map<String, Integer>> nested = new HashMap<>();
+    for (int i = 1; i < words.size(); i++) {
+      for (int k = 1; k <= Math.min(order - 1, i); k++) {
+        nested.computeIfAbsent(List.copyOf(words.subList(i - k, i)), key -> new HashMap<>())
+            .merge(words.get(i), 1, Integer::sum);
+      }
+    }
+    return nested;
+  }
+
+  private static List<String> zipfText(int tokens, int vocabulary) {
+    SplittableRandom random = new SplittableRandom(42);
+    String[] dictionary = new String[vocabulary];
+    for (int i = 0; i < vocabulary; i++) {
+      dictionary[i] = "w" + i;
+    }
+    List<String> words = new ArrayList<>(tokens);
+    for (int i = 0; i < tokens; i++) {
+      int rank = (int) Math.min(vocabulary - 1, Math.pow(vocabulary, random.nextDouble()));
+      words.add(dictionary[rank]);
+    }
+    return words;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
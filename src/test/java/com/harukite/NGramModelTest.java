@@ -0,0 +1,89 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class NGramModelTest {
+
+  private static int[] ids(NGramModel model, String... words) {
+    return Arrays.stream(words).mapToInt(model::id).toArray();
+  }
+
+  @Test
+  public void testConditionsOnLastTwoWords() {
+    NGramModel model = new NGramModel(3);
+    model.add(List.of("a", "b", "c", "x", "b", "d", "a", "b", "c"));
+    // 二元上下文 b 之后有 c、d，三元上下文 (a, b) 之后只有 c
+    int[] history = ids(model, "a", "b");
+    assertEquals(2, model.count(history, 2, model.id("c")));
+    assertEquals(0, model.count(history, 2, model.id("d")));
+    int[] other = ids(model, "x", "b");
+    assertEquals(1, model.count(other, 2, model.id("d")));
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < 50; i++) {
+      assertEquals(model.id("c"), model.sample(history, 2, random));
+    }
+  }
+
+  @Test
+  public void testBacksOffToShorterContext() {
+    NGramModel model = new NGramModel(4);
+    model.add(List.of("a", "b", "c", "d"));
+    // (c, b, c) 从未出现，回退到 (b, c) 之后的 d
+    int[] history = ids(model, "c", "b", "c");
+    assertEquals(1, model.count(history, 3, model.id("d")));
+    // 未知单词不能参与上下文
+    int[] unknown = {-1, model.id("c")};
+    assertEquals(model.id("d"), model.sample(unknown, 2, new SplittableRandom(3)));
+    // 末尾单词之后没有出现过其他单词
+    assertEquals(-1, model.sample(ids(model, "d"), 1, new SplittableRandom(3)));
+    assertEquals(-1, model.sample(new int[0], 0, new SplittableRandom(3)));
+  }
+
+  @Test
+  public void testMatchesNestedMapCounts() {
+    SplittableRandom random = new SplittableRandom(7);
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      words.add("w" + (int) Math.pow(300, random.nextDouble()));
+    }
+    NGramModel model = new NGramModel(4);
+    model.add(words.subList(0, 10_000));
+    model.add(words.subList(10_000, words.size()));
+    Map<List<String>, Map<String, Integer>> expected = new HashMap<>();
+    for (List<String> part : List.of(words.subList(0, 10_000), words.subList(10_000, 20_000))) {
+      for (int i = 3; i < part.size(); i++) {
+        expected.computeIfAbsent(part.subList(i - 3, i), key -> new HashMap<>())
+            .merge(part.get(i), 1, Integer::sum);
+      }
+    }
+    int checked = 0;
+    for (Map.Entry<List<String>, Map<String, Integer>> entry : expected.entrySet()) {
+      int[] history = entry.getKey().stream().mapToInt(model::id).toArray();
+      for (Map.Entry<String, Integer> next : entry.getValue().entrySet()) {
+        assertEquals(next.getValue(), model.count(history, 3, model.id(next.getKey())));
+        checked++;
+      }
+    }
+    assertTrue(checked > 10_000);
+    assertEquals(20_000, model.tokenCount());
+    // 按类注释中的估算（上下文最长 3 个单词），数组两倍扩容时至多再翻一倍
+    long bound = 2 * (24L * model.transitionCount() + 36L * model.contextCount()) + 64 * 1024;
+    assertTrue(model.memoryBytes() < bound, "memory " + model.memoryBytes() + " > " + bound);
+  }
+
+  @Test
+  public void testRejectsInvalidOrder() {
+    assertThrows(IllegalArgumentException.class, () -> new NGramModel(1));
+    assertThrows(IllegalArgumentException.class, () -> new NGramModel(NGramModel.MAX_ORDER + 1));
+  }
+}
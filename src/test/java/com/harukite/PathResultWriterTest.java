@@ -0,0 +1,43 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PathResultWriterTest {
+
+  @Test
+  public void testFormatsLikeCalcShortestPath() {
+    StringWriter out = new StringWriter();
+    PathResultWriter writer = new PathResultWriter(out);
+    writer.accept(new PathResult("a", "b", PathResult.Status.FOUND, 1, 1,
+        List.of(List.of("a", "b"))));
+    writer.accept(PathResult.missing("a", "c", PathResult.Status.NO_PATH));
+    writer.accept(new PathResult("a", "d", PathResult.Status.FOUND, 2, 2,
+        List.of(List.of("a", "b", "d"), List.of("a", "e", "d"))));
+    assertEquals("从 a 到 b 的所有最短路径:\n"
+        + "Path 1: a -> b (距离: 1)\n"
+        + "从 a 到 c 没有路径\n"
+        + "从 a 到 d 的所有最短路径:\n"
+        + "Path 2: a -> b -> d (距离: 2)\n"
+        + "Path 3: a -> e -> d (距离: 2)\n", out.toString());
+    assertEquals(3, writer.pathCount());
+  }
+
+  @Test
+  public void testTruncatedAndUnknownWords() {
+    StringWriter out = new StringWriter();
+    PathResultWriter writer = new PathResultWriter(out);
+    writer.accept(new PathResult("a", "d", PathResult.Status.FOUND, 2, 5,
+        List.of(List.of("a", "b", "d"))));
+    writer.accept(PathResult.missing("x", "d", PathResult.Status.UNKNOWN_SOURCE));
+    writer.accept(PathResult.missing("a", "y", PathResult.Status.UNKNOWN_TARGET));
+    assertEquals("从 a 到 d 的所有最短路径:\n"
+        + "Path 1: a -> b -> d (距离: 2)\n"
+        + "（共 5 条，仅列出 1 条）\n"
+        + "起始单词 \"x\" 不在图中!\n"
+        + "目标单词 \"y\" 不在图中!\n", out.toString());
+  }
+}
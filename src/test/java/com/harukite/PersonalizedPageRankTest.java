@@ -0,0 +1,61 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class PersonalizedPageRankTest {
+
+  @Test
+  public void testPushWithinErrorBound() {
+    CompactGraph g = CompactGraph.of(GraphStoreBenchmark.randomGraph(2000, 5), Map.of(), 0);
+    int[] seeds = {g.id("w3"), g.id("w17")};
+    double epsilon = 1e-6;
+    PersonalizedPageRank ppr = PersonalizedPageRank.push(g, seeds, epsilon);
+    double[] exact = PersonalizedPageRank.exact(g, seeds, 1e-14, 1000);
+    double error = 0.0;
+    for (int v = 0; v < g.vertexCount(); v++) {
+      assertTrue(ppr.score(v) <= exact[v] + 1e-12);
+      error += exact[v] - ppr.score(v);
+    }
+    assertEquals(ppr.residualMass(), error, 1e-9);
+    assertTrue(error < 0.01, "error " + error);
+    int[] top = ppr.topK(3);
+    assertEquals(3, top.length);
+    assertTrue(ppr.score(top[0]) >= ppr.score(top[1]));
+    assertTrue(ppr.score(top[1]) >= ppr.score(top[2]));
+  }
+
+  @Test
+  public void testPushStaysLocal() {
+    // 一条长链：种子附近的顶点才会被访问
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    int n = 100_000;
+    for (int i = 0; i < n; i++) {
+      Map<String, Integer> next = new HashMap<>();
+      if (i + 1 < n) {
+        next.put("w" + (i + 1), 1);
+      }
+      graph.put("w" + i, next);
+    }
+    CompactGraph g = CompactGraph.of(graph, Map.of(), n);
+    PersonalizedPageRank ppr = PersonalizedPageRank.push(g, new int[] {g.id("w0")}, 1e-4);
+    assertTrue(ppr.touched() < 100, "touched " + ppr.touched());
+    assertEquals(PersonalizedPageRank.TELEPORT, ppr.score(g.id("w0")), 1e-12);
+  }
+
+  @Test
+  public void testExactSumsToOne() {
+    CompactGraph g = CompactGraph.of(GraphStoreBenchmark.randomGraph(300, 3), Map.of(), 0);
+    double[] exact = PersonalizedPageRank.exact(g, new int[] {g.id("w1")}, 1e-14, 1000);
+    double sum = 0;
+    for (double value : exact) {
+      sum += value;
+    }
+    assertArrayEquals(new double[] {1.0}, new double[] {sum}, 1e-9);
+  }
+}
@@ -0,0 +1,111 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class PointToPointEngineTest {
+
+  private static CompactGraph randomGraph(int n, int degree, int maxWeight, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      Map<String, Integer> neighbors = new HashMap<>();
+      for (int j = 0; j < degree; j++) {
+        neighbors.put("w" + random.nextInt(n), 1 + random.nextInt(maxWeight));
+      }
+      graph.put("w" + i, neighbors);
+    }
+    return CompactGraph.of(graph, Map.of(), 0);
+  }
+
+  private static Set<String> asSet(List<int[]> paths) {
+    Set<String> set = new HashSet<>();
+    for (int[] path : paths) {
+      assertTrue(set.add(Arrays.toString(path)), "duplicate path " + Arrays.toString(path));
+    }
+    return set;
+  }
+
+  private static void assertSameAsDijkstra(CompactGraph g, PointToPointEngine engine) {
+    for (int s = 0; s < g.vertexCount(); s += 3) {
+      ShortestPaths expected = ShortestPaths.from(g, s);
+      for (int t = 0; t < g.vertexCount(); t += 2) {
+        PointToPointEngine.Result result = engine.search(s, t);
+        assertEquals(expected.distance(t), result.distance(), s + " -> " + t);
+        assertEquals(asSet(expected.paths(t)), asSet(result.paths()), s + " -> " + t);
+      }
+    }
+  }
+
+  @Test
+  public void testBidirectionalMatchesDijkstra() {
+    for (long seed = 1; seed <= 4; seed++) {
+      CompactGraph g = randomGraph(60, 2, 3, seed);
+      assertSameAsDijkstra(g, new PointToPointEngine(g, ReverseGraph.of(g), null));
+    }
+  }
+
+  @Test
+  public void testAltMatchesDijkstra() {
+    for (long seed = 1; seed <= 4; seed++) {
+      CompactGraph g = randomGraph(60, 2, 3, seed);
+      ReverseGraph reverse = ReverseGraph.of(g);
+      Landmarks landmarks = Landmarks.select(g, reverse, 3);
+      assertSameAsDijkstra(g, new PointToPointEngine(g, reverse, landmarks));
+    }
+  }
+
+  @Test
+  public void testUnitWeightsWithManyTies() {
+    CompactGraph g = randomGraph(80, 3, 1, 7);
+    ReverseGraph reverse = ReverseGraph.of(g);
+    assertSameAsDijkstra(g, new PointToPointEngine(g, reverse, null));
+    assertSameAsDijkstra(g, new PointToPointEngine(g, reverse, Landmarks.select(g, reverse, 4)));
+  }
+
+  @Test
+  public void testExploresFewerVertices() {
+    // 一个 100×100 的网格：单向 Dijkstra 会确定大部分顶点
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    int side = 100;
+    for (int x = 0; x < side; x++) {
+      for (int y = 0; y < side; y++) {
+        Map<String, Integer> neighbors = new HashMap<>();
+        if (x + 1 < side) {
+          neighbors.put("v" + (x + 1) + "_" + y, 1);
+        }
+        if (y + 1 < side) {
+          neighbors.put("v" + x + "_" + (y + 1), 1);
+        }
+        if (x > 0) {
+          neighbors.put("v" + (x - 1) + "_" + y, 1);
+        }
+        if (y > 0) {
+          neighbors.put("v" + x + "_" + (y - 1), 1);
+        }
+        graph.put("v" + x + "_" + y, neighbors);
+      }
+    }
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 0);
+    ReverseGraph reverse = ReverseGraph.of(g);
+    int s = g.id("v40_50");
+    int t = g.id("v60_50");
+    PointToPointEngine.Result bidirectional = new PointToPointEngine(g, reverse, null).search(s, t);
+    PointToPointEngine.Result alt =
+        new PointToPointEngine(g, reverse, Landmarks.select(g, reverse, 4)).search(s, t);
+    assertEquals(20, bidirectional.distance());
+    assertEquals(20, alt.distance());
+    assertEquals(1, bidirectional.paths().size());
+    assertTrue(bidirectional.settled() < side * side / 4, "settled " + bidirectional.settled());
+    assertTrue(alt.settled() < side * side / 4, "settled " + alt.settled());
+  }
+}
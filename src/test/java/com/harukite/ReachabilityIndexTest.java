@@ -0,0 +1,135 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class ReachabilityIndexTest {
+
+  private static CompactGraph randomGraph(int n, int edges, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put("w" + i, new HashMap<>());
+    }
+    for (int i = 0; i < edges; i++) {
+      graph.get("w" + random.nextInt(n)).put("w" + random.nextInt(n), 1 + random.nextInt(3));
+    }
+    return CompactGraph.of(graph, Map.of(), 0);
+  }
+
+  private static boolean[] bfs(GraphStore g, int source) {
+    boolean[] seen = new boolean[g.vertexCount()];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    seen[source] = true;
+    queue.add(source);
+    GraphStore.EdgeCursor cursor = g.cursor();
+    while (!queue.isEmpty()) {
+      cursor.reset(queue.poll());
+      while (cursor.next()) {
+        if (!seen[cursor.target()]) {
+          seen[cursor.target()] = true;
+          queue.add(cursor.target());
+        }
+      }
+    }
+    return seen;
+  }
+
+  @Test
+  public void testComponentsOfSmallGraph() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    graph.put("a", Map.of("b", 1));
+    graph.put("b", Map.of("a", 1, "c", 1));
+    graph.put("c", Map.of("d", 1));
+    graph.put("d", Map.of("c", 1));
+    graph.put("e", Map.of());
+    CompactGraph g = CompactGraph.of(graph, Map.of(), 0);
+    ReachabilityIndex index = ReachabilityIndex.of(g);
+    assertEquals(3, index.componentCount());
+    assertEquals(index.component(g.id("a")), index.component(g.id("b")));
+    assertEquals(index.component(g.id("c")), index.component(g.id("d")));
+    assertTrue(index.component(g.id("c")) < index.component(g.id("a")));
+    assertTrue(index.canReach(g.id("a"), g.id("d")));
+    assertTrue(index.canReach(g.id("d"), g.id("c")));
+    assertFalse(index.canReach(g.id("d"), g.id("a")));
+    assertFalse(index.mayReach(g.id("c"), g.id("b")));
+    assertFalse(index.canReach(g.id("a"), g.id("e")));
+    assertTrue(index.canReach(g.id("e"), g.id("e")));
+  }
+
+  @Test
+  public void testMatchesBreadthFirstSearch() {
+    for (int edges : new int[] {60, 150, 300}) {
+      CompactGraph g = randomGraph(150, edges, edges);
+      ReachabilityIndex index = ReachabilityIndex.of(g);
+      for (int u = 0; u < g.vertexCount(); u++) {
+        boolean[] reachable = bfs(g, u);
+        for (int v = 0; v < g.vertexCount(); v++) {
+          assertEquals(reachable[v], index.canReach(u, v), u + " -> " + v);
+          if (reachable[v]) {
+            assertTrue(index.mayReach(u, v), u + " -> " + v);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDeepChainDoesNotOverflow() {
+    int n = 200_000;
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      graph.put("w" + i, i + 1 < n ? Map.of("w" + (i + 1), 1) : Map.of());
+    }
+    CompactGraph chain = CompactGraph.of(graph, Map.of(), 0);
+    ReachabilityIndex index = ReachabilityIndex.of(chain);
+    assertEquals(n, index.componentCount());
+    assertTrue(index.canReach(chain.id("w0"), chain.id("w" + (n - 1))));
+    assertFalse(index.canReach(chain.id("w" + (n - 1)), chain.id("w0")));
+
+    graph.put("w" + (n - 1), Map.of("w0", 1)); // 首尾相连后成为一个分量
+    CompactGraph cycle = CompactGraph.of(graph, Map.of(), 0);
+    index = ReachabilityIndex.of(cycle);
+    assertEquals(1, index.componentCount());
+    assertTrue(index.canReach(cycle.id("w" + (n - 1)), cycle.id("w0")));
+  }
+
+  @Test
+  public void testPrunedSearchMatchesDijkstra() {
+    CompactGraph g = randomGraph(200, 320, 11);
+    ReverseGraph reverse = ReverseGraph.of(g);
+    ReachabilityIndex index = ReachabilityIndex.of(g);
+    PointToPointEngine bidirectional = new PointToPointEngine(g, reverse, null, index);
+    PointToPointEngine alt =
+        new PointToPointEngine(g, reverse, Landmarks.select(g, reverse, 4), index);
+    List<BatchShortestPaths.WordPair> pairs = new ArrayList<>();
+    for (int s = 0; s < g.vertexCount(); s += 7) {
+      ShortestPaths expected = ShortestPaths.from(g, s);
+      for (int t = 0; t < g.vertexCount(); t++) {
+        for (PointToPointEngine engine : new PointToPointEngine[] {bidirectional, alt}) {
+          PointToPointEngine.Result result = engine.search(s, t);
+          assertEquals(expected.distance(t), result.distance(), s + " -> " + t);
+          assertEquals(expected.paths(t).size(), result.paths().size(), s + " -> " + t);
+        }
+        pairs.add(new BatchShortestPaths.WordPair(g.word(s), g.word(t)));
+      }
+    }
+
+    Map<BatchShortestPaths.WordPair, PathResult> plain = new HashMap<>();
+    new BatchShortestPaths(g).run(pairs, 0, result -> plain.put(
+        new BatchShortestPaths.WordPair(result.source(), result.target()), result));
+    Map<BatchShortestPaths.WordPair, PathResult> pruned = new HashMap<>();
+    new BatchShortestPaths(g, index).run(pairs, 0, result -> pruned.put(
+        new BatchShortestPaths.WordPair(result.source(), result.target()), result));
+    assertEquals(plain, pruned);
+  }
+}
@@ -0,0 +1,119 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class StreamingGraphTest {
+
+  /** 与 {@link GraphProcessor#buildGraph(String)} 相同的方式由单词序列直接构建邻接表。 */
+  private static Map<String, Map<String, Integer>> rebuild(List<String> words) {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    for (String word : words) {
+      graph.putIfAbsent(word, new HashMap<>());
+    }
+    for (int i = 0; i + 1 < words.size(); i++) {
+      graph.get(words.get(i)).merge(words.get(i + 1), 1, Integer::sum);
+    }
+    return graph;
+  }
+
+  private static Map<String, Integer> counts(List<String> words) {
+    Map<String, Integer> counts = new HashMap<>();
+    words.forEach(word -> counts.merge(word, 1, Integer::sum));
+    return counts;
+  }
+
+  @Test
+  public void testTokenWindowMatchesRebuild() {
+    SplittableRandom random = new SplittableRandom(6);
+    int window = 50;
+    StreamingGraph stream = StreamingGraph.lastTokens(window);
+    List<String> all = new ArrayList<>();
+    for (int batch = 0; batch < 400; batch++) {
+      List<String> tokens = new ArrayList<>();
+      for (int i = random.nextInt(1, 12); i > 0; i--) {
+        tokens.add("w" + random.nextInt(batch < 200 ? 30 : 300)); // 后半段词表变大，旧单词变冷
+      }
+      stream.append(tokens);
+      all.addAll(tokens);
+      List<String> recent = all.subList(Math.max(0, all.size() - window), all.size());
+      assertEquals(rebuild(recent), stream.graph());
+      assertEquals(counts(recent), stream.wordCount());
+      assertEquals(recent.size(), stream.wordNum());
+      assertTrue(stream.vertexCount() <= window);
+    }
+  }
+
+  @Test
+  public void testWordGraphExportMatchesMaps() {
+    SplittableRandom random = new SplittableRandom(9);
+    for (StreamingGraph stream : new StreamingGraph[] {StreamingGraph.lastTokens(40),
+        StreamingGraph.decaying(8)}) {
+      for (int batch = 0; batch < 100; batch++) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = random.nextInt(1, 8); i > 0; i--) {
+          tokens.add("w" + random.nextInt(25));
+        }
+        stream.append(tokens);
+        WordGraph graph = stream.toWordGraph(batch % 2 == 0);
+        assertEquals(stream.graph(), graph.adjacency());
+        Map<String, Integer> counts = new HashMap<>(stream.wordCount());
+        counts.values().removeIf(count -> count == 0); // 衰减后取整为 0 的单词不导出次数
+        assertEquals(counts, graph.wordCount());
+        assertEquals(stream.wordNum(), graph.wordNum());
+      }
+    }
+  }
+
+  @Test
+  public void testDurationWindowExpiresOldTokens() {
+    StreamingGraph stream = StreamingGraph.lastDuration(Duration.ofMinutes(5));
+    stream.append(List.of("a", "b", "c"), 0);
+    stream.append(List.of("c", "d"), 120_000);
+    assertEquals(1.0, stream.weight("b", "c"));
+    assertEquals(2.0, stream.count("c"));
+    assertEquals(1.0, stream.weight("c", "c"));
+
+    stream.append(List.of("e"), 300_000); // a、b、c 恰好过期
+    assertEquals(0.0, stream.weight("b", "c"));
+    assertEquals(0.0, stream.weight("c", "c"));
+    assertEquals(1.0, stream.count("c"));
+    assertEquals(rebuild(List.of("c", "d", "e")), stream.graph());
+
+    stream.expire(420_000);
+    assertEquals(1, stream.vertexCount());
+    assertEquals(0, stream.edgeCount());
+    assertEquals(Map.of("e", Map.of()), stream.graph());
+  }
+
+  @Test
+  public void testDecayHalvesWeightsAndEvictsColdWords() {
+    StreamingGraph stream = StreamingGraph.decaying(4);
+    stream.append(List.of("a", "b"));
+    assertEquals(1.0, stream.weight("a", "b"), 1e-12);
+    stream.append(List.of("x", "x", "x", "x"));
+    assertEquals(0.5, stream.weight("a", "b"), 1e-12);
+    assertEquals(Math.pow(2, -5 / 4.0), stream.count("a"), 1e-12);
+    assertEquals(1 + Math.pow(2, -0.25) + Math.pow(2, -0.5) + Math.pow(2, -0.75),
+        stream.count("x"), 1e-12);
+
+    // 不断出现新单词时，保留的单词和边数由半衰期决定，而不随流的长度增长
+    SplittableRandom random = new SplittableRandom(2);
+    int maxVertices = 0;
+    for (int i = 0; i < 300_000; i++) {
+      stream.append(List.of("t" + random.nextInt(1_000_000)));
+      maxVertices = Math.max(maxVertices, stream.vertexCount());
+    }
+    assertTrue(maxVertices < 144 * 4 * 3 + 2 * StreamingGraph.MIN_SWEEP, "" + maxVertices);
+    assertEquals(0.0, stream.count("a"));
+    assertTrue(stream.wordNum() <= 7);
+  }
+}
@@ -0,0 +1,160 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link TaskRunner} 的合并、取消和独占调度，以及算法中的取消检查。
+ */
+public class TaskRunnerTest {
+
+  private final TaskRunner runner = new TaskRunner(Runnable::run, task -> { });
+
+  /** 把结果以字符串形式放入队列的回调。 */
+  private static TaskRunner.Listener<Object> recorder(BlockingQueue<String> events) {
+    return new TaskRunner.Listener<>() {
+      @Override
+      public void done(Object result) {
+        events.add("done:" + result);
+      }
+
+      @Override
+      public void failed(Throwable error) {
+        events.add("failed:" + error.getMessage());
+      }
+
+      @Override
+      public void cancelled() {
+        events.add("cancelled");
+      }
+    };
+  }
+
+  private static String next(BlockingQueue<String> events) throws InterruptedException {
+    String event = events.poll(10, TimeUnit.SECONDS);
+    assertTrue(event != null, "任务没有在 10 秒内结束");
+    return event;
+  }
+
+  @Test
+  public void testDuplicateRequestsAreCoalesced() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger runs = new AtomicInteger();
+    BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    TaskRunner.Job<Object> job = monitor -> {
+      runs.incrementAndGet();
+      release.await();
+      return 42;
+    };
+    TaskRunner.Task<Object> first = runner.submit("rank", false, job, recorder(events));
+    TaskRunner.Task<Object> second = runner.submit("rank", false, job, recorder(events));
+    assertSame(first, second);
+    assertEquals(1, runner.activeCount());
+    release.countDown();
+    assertEquals("done:42", next(events));
+    assertEquals("done:42", next(events));
+    assertEquals(1, runs.get());
+    assertTrue(first.isDone());
+    assertEquals(0, runner.activeCount());
+  }
+
+  @Test
+  public void testCancelStopsCooperativeJob() throws Exception {
+    BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    CountDownLatch started = new CountDownLatch(1);
+    TaskRunner.Task<Object> task = runner.submit("loop", false, monitor -> {
+      started.countDown();
+      for (long i = 0; ; i++) {
+        monitor.checkCancelled();
+        monitor.progress(i % 1000, 1000);
+      }
+    }, recorder(events));
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    task.cancel();
+    assertEquals("cancelled", next(events));
+
+    // 被取消的任务不再参与合并
+    runner.submit("fail", false, monitor -> {
+      throw new IllegalStateException("boom");
+    }, recorder(events));
+    assertEquals("failed:boom", next(events));
+  }
+
+  @Test
+  public void testExclusiveTaskWaitsForReaders() throws Exception {
+    CountDownLatch readerStarted = new CountDownLatch(1);
+    CountDownLatch releaseReader = new CountDownLatch(1);
+    AtomicBoolean readerRunning = new AtomicBoolean();
+    BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    runner.submit("read", false, monitor -> {
+      readerRunning.set(true);
+      readerStarted.countDown();
+      releaseReader.await();
+      readerRunning.set(false);
+      return "read";
+    }, recorder(events));
+    assertTrue(readerStarted.await(10, TimeUnit.SECONDS));
+    runner.submit("write", true, monitor -> readerRunning.get() ? "overlap" : "write",
+        recorder(events));
+    assertTrue(events.poll(200, TimeUnit.MILLISECONDS) == null, "独占任务不应与只读任务同时运行");
+    releaseReader.countDown();
+    // 回调在各自的任务线程上执行，两个完成事件的先后不确定
+    assertEquals(Set.of("done:read", "done:write"), Set.of(next(events), next(events)));
+  }
+
+  @Test
+  public void testAlgorithmsHonourCancellation() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    List<String> words = List.of("a", "b", "c", "d");
+    for (int i = 0; i < words.size(); i++) {
+      graph.put(words.get(i), new HashMap<>(Map.of(words.get((i + 1) % words.size()), 1)));
+    }
+    GraphStore store = CompactGraph.of(graph, Map.of(), words.size());
+    ProgressMonitor cancelled = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return true;
+      }
+    };
+    double[] initial = {0.25, 0.25, 0.25, 0.25};
+    assertThrows(CancellationException.class,
+        () -> PageRank.compute(store, initial, 10, cancelled));
+    assertThrows(CancellationException.class,
+        () -> ShortestPaths.from(store, 0, null, cancelled));
+
+    AtomicInteger iterations = new AtomicInteger();
+    ProgressMonitor counting = new ProgressMonitor() {
+      @Override
+      public void progress(long done, long total) {
+        iterations.set((int) done);
+      }
+
+      @Override
+      public boolean isCancelled() {
+        return false;
+      }
+    };
+    double[] rank = PageRank.compute(store, initial, 10, counting);
+    assertEquals(10, iterations.get());
+    assertTrue(rank[0] > 0);
+  }
+}
@@ -0,0 +1,83 @@
+package com.harukite;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 分词吞吐量基准，比较 ASCII 与 Unicode 分词器的速度。
+ *
+ * <p>ASCII 分词器在纯英文文本上测量；Unicode 与 CJK 二元切分模式在混合了英文、带重音的拉丁文、
+ * 西里尔文、中文和日文的多语言文本上测量，这才是它们实际面对的输入，
+ * 同时也在英文文本上测量一次，以便和 ASCII 分词器直接比较。
+ *
+ * <p>不属于单元测试，编译测试代码后直接运行 {@code main} 方法即可。.
+ */
+public final class TokenizerBenchmark {
+
+  private static final int ROUNDS = 20;
+
+  private TokenizerBenchmark() {
+  }
+
+  /**
+   * 基准入口。
+   *
+   * @param args 未使用
+   */
+  public static void main(String[] args) {
+    String english = repeat(new String[] {"the quick Brown fox jumps over the lazy dog, ",
+        "and runs past the sleepy cat. "}, 4_000_000);
+    String multilingual = repeat(new String[] {
+        "The quick brown fox jumps over the lazy dog. ",
+        "Le cœur déçu mais l'âme plutôt naïve, Louÿs rêva de crapaüter. ",
+        "Съешь же ещё этих мягких французских булок, да выпей чаю. ",
+        "自然语言处理是人工智能领域中的一个重要方向，研究人与计算机之间用自然语言进行有效通信的理论和方法。",
+        "いろはにほへと ちりぬるを、わかよたれそ つねならむ。カタカナのテキストも含まれます。",
+        "Straße, Äpfel und Übermut; Ελληνικά γράμματα. "}, 4_000_000);
+
+    double ascii = measure(new AsciiTokenizer(), english);
+    double unicode = measure(new UnicodeTokenizer(false), english);
+    double cjk = measure(new UnicodeTokenizer(true), english);
+    System.out.printf(Locale.ROOT, "english text (%d chars)%n", english.length());
+    System.out.printf(Locale.ROOT, "  ascii   : %.1f MB/s%n", ascii);
+    System.out.printf(Locale.ROOT, "  unicode : %.1f MB/s (%.2fx slower)%n", unicode,
+        ascii / unicode);
+    System.out.printf(Locale.ROOT, "  cjk     : %.1f MB/s (%.2fx slower)%n", cjk, ascii / cjk);
+
+    double multiUnicode = measure(new UnicodeTokenizer(false), multilingual);
+    double multiCjk = measure(new UnicodeTokenizer(true), multilingual);
+    System.out.printf(Locale.ROOT, "multilingual text (%d chars)%n", multilingual.length());
+    System.out.printf(Locale.ROOT, "  unicode : %.1f MB/s, %d tokens%n", multiUnicode,
+        new UnicodeTokenizer(false).tokenize(multilingual).size());
+    System.out.printf(Locale.ROOT, "  cjk     : %.1f MB/s, %d tokens%n", multiCjk,
+        new UnicodeTokenizer(true).tokenize(multilingual).size());
+  }
+
+  /**
+   * 循环拼接句子直到文本长度达到 {@code length} 个字符。
+   */
+  private static String repeat(String[] sentences, int length) {
+    StringBuilder builder = new StringBuilder(length + 128);
+    for (int i = 0; builder.length() < length; i++) {
+      builder.append(sentences[i % sentences.length]);
+    }
+    return builder.toString();
+  }
+
+  private static double measure(Tokenizer tokenizer, String text) {
+    long sink = 0;
+    for (int i = 0; i < ROUNDS / 2; i++) {
+      sink += tokenizer.tokenize(text).size();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      List<String> tokens = tokenizer.tokenize(text);
+      sink += tokens.size();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return (double) text.length() * ROUNDS / elapsed * 1000.0;
+  }
+}
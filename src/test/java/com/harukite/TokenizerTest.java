@@ -0,0 +1,56 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TokenizerTest {
+
+  @Test
+  public void testAsciiMatchesRegexSplit() {
+    Tokenizer tokenizer = new AsciiTokenizer();
+    assertEquals(List.of("qUiCk", "JuMps", "ovEr", "lAZy", "dOg"),
+        tokenizer.tokenize("qUiCk你JuMps好ovEr啊lAZy。dOg"));
+    assertEquals(List.of("a", "b"), tokenizer.tokenize("  a, b!"));
+  }
+
+  @Test
+  public void testAsciiNoWords() {
+    assertEquals(List.of(), new AsciiTokenizer().tokenize("你好"));
+    assertEquals(List.of(), new AsciiTokenizer().tokenize(""));
+  }
+
+  @Test
+  public void testUnicodeLetters() {
+    Tokenizer tokenizer = new UnicodeTokenizer(false);
+    assertEquals(List.of("café", "naïve", "Привет", "mir"),
+        tokenizer.tokenize("café, naïve-Привет 123 mir"));
+    // 组合附加符号属于前面的字母
+    assertEquals(List.of("café"), tokenizer.tokenize("café!"));
+  }
+
+  @Test
+  public void testUnicodeCjkRunWithoutBigrams() {
+    Tokenizer tokenizer = new UnicodeTokenizer(false);
+    assertEquals(List.of("你好", "world", "世界"), tokenizer.tokenize("你好world世界"));
+  }
+
+  @Test
+  public void testCjkBigrams() {
+    Tokenizer tokenizer = new UnicodeTokenizer(true);
+    assertEquals(List.of("自然", "然语", "语言", "nlp", "好"),
+        tokenizer.tokenize("自然语言nlp，好"));
+  }
+
+  @Test
+  public void testSpansMatchTokens() {
+    assertEquals(List.of(new Tokenizer.Span(2, 3), new Tokenizer.Span(5, 6)),
+        new AsciiTokenizer().spans("  a, b!"));
+    assertEquals(List.of(new Tokenizer.Span(0, 2), new Tokenizer.Span(1, 3),
+            new Tokenizer.Span(2, 4), new Tokenizer.Span(4, 7), new Tokenizer.Span(8, 9)),
+        new UnicodeTokenizer(true).spans("自然语言nlp，好"));
+    assertEquals(List.of(new Tokenizer.Span(0, 4), new Tokenizer.Span(4, 7)),
+        new UnicodeTokenizer(false).spans("自然语言nlp"));
+  }
+}
@@ -30,17 +30,14 @@ public class WhiteBoxTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   public void testPath3() throws NoSuchFieldException, IllegalAccessException {
     setUp("a b c");
     // 获取 graph 字段
     Field graphField = graphProcessor.getClass().getDeclaredField("graph");
     graphField.setAccessible(true);
-    // 获取原始 Map 对象
-    Map<String, Map<String, Integer>> graph =
-        (Map<String, Map<String, Integer>>) graphField.get(graphProcessor);
-    // 删除 key 为 "b"
-    graph.remove("b");
+    // 把词图替换为删除了 "b" 的版本，指向 "b" 的边随之忽略
+    graphField.set(graphProcessor, WordGraph.of(
+        Map.of("a", Map.of("b", 1), "c", Map.of()), Map.of("a", 1, "c", 1), 2));
     String result = graphProcessor.queryBridgeWords("a", "c");
     assertEquals("No bridge words from \"a\" to \"c\"!", result);
   }
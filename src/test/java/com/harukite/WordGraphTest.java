@@ -0,0 +1,92 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class WordGraphTest {
+
+  @Test
+  public void testAppendCountsWordsAndEdges() {
+    WordGraph graph = new WordGraph();
+    assertTrue(graph.isEmpty());
+    int[] ids = graph.append(List.of("a", "b", "a", "b", "c"));
+    assertEquals(ids[0], ids[2]);
+    assertEquals(3, graph.vertexCount());
+    assertEquals(3, graph.edgeCount());
+    assertEquals(2, graph.edgeWeight(graph.id("a"), graph.id("b")));
+    assertEquals(0, graph.edgeWeight(graph.id("c"), graph.id("a")));
+    assertEquals(2, graph.outDegree(graph.id("b")));
+    assertEquals(5, graph.wordNum());
+    assertEquals(Map.of("a", Map.of("b", 2), "b", Map.of("a", 1, "c", 1), "c", Map.of()),
+        graph.adjacency());
+
+    graph.clearCounts(); // 与 buildGraph 一样，次数只统计最近一次的文本
+    graph.append(List.of("c", "a"));
+    assertEquals(Map.of("c", 1, "a", 1), graph.wordCount());
+    assertEquals(2, graph.wordNum());
+    assertEquals(1, graph.edgeWeight(graph.id("c"), graph.id("a")));
+    assertTrue(graph.contains("c"));
+    assertFalse(graph.contains("d"));
+    assertEquals(-1, graph.id("d"));
+  }
+
+  @Test
+  public void testOfIgnoresEdgesToMissingWords() {
+    WordGraph graph = WordGraph.of(Map.of("a", Map.of("b", 3, "x", 1), "b", Map.of()),
+        Map.of("a", 2), 4);
+    assertEquals(2, graph.vertexCount());
+    assertEquals(1, graph.edgeCount());
+    assertEquals(3, graph.edgeWeight(graph.id("a"), graph.id("b")));
+    assertEquals(2, graph.count(graph.id("a")));
+    assertEquals(0, graph.count(graph.id("b")));
+    assertEquals(4, graph.wordNum());
+  }
+
+  @Test
+  public void testSnapshotsShareVocabulary() {
+    WordGraph graph = new WordGraph();
+    graph.append(List.of("the", "cat", "sat"));
+    List<GraphStore> stores = List.of(CompactGraph.of(graph), OffHeapGraph.of(graph),
+        CompressedGraph.of(graph));
+    graph.append(List.of("the", "dog")); // 快照之后加入的单词不属于快照
+    for (GraphStore store : stores) {
+      assertEquals(3, store.vertexCount());
+      assertEquals(-1, store.id("dog"));
+      assertEquals("cat", store.word(store.id("cat")));
+      assertEquals(1, store.edgeWeight(store.id("the"), store.id("cat")));
+    }
+  }
+
+  @Test
+  public void testOffHeapMatchesHeap() {
+    SplittableRandom random = new SplittableRandom(8);
+    WordGraph heap = new WordGraph();
+    WordGraph direct = new WordGraph(true);
+    for (int batch = 0; batch < 50; batch++) {
+      List<String> words = new ArrayList<>();
+      for (int i = random.nextInt(1, 400); i > 0; i--) {
+        words.add("w" + random.nextInt(500));
+      }
+      heap.append(words);
+      direct.append(words);
+    }
+    assertFalse(heap.isOffHeap());
+    assertTrue(direct.isOffHeap());
+    assertEquals(heap.adjacency(), direct.adjacency());
+    assertEquals(heap.wordCount(), direct.wordCount());
+    assertEquals(heap.wordNum(), direct.wordNum());
+
+    WordGraph moved = heap.copy(true); // 迁移到堆外后顶点 id 不变
+    assertTrue(moved.isOffHeap());
+    assertEquals(heap.adjacency(), moved.adjacency());
+    assertEquals(heap.id("w7"), moved.id("w7"));
+    assertEquals(direct.adjacency(), direct.copy(false).adjacency());
+  }
+}
@@ -0,0 +1,106 @@
+package com.harukite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class WordStatisticsTest {
+
+  @Test
+  public void testIdfWeightsMatchFormula() {
+    Map<String, Map<String, Integer>> graph = new HashMap<>();
+    graph.put("a", Map.of("b", 1));
+    graph.put("b", Map.of("a", 1, "c", 1));
+    graph.put("c", Map.of());
+    graph.put("old", Map.of("a", 1)); // 之前文本中的单词，本次没有出现
+    Map<String, Integer> wordCount = Map.of("a", 3, "b", 2, "c", 1);
+    CompactGraph g = CompactGraph.of(graph, wordCount, 6);
+    WordStatistics statistics = WordStatistics.of(g);
+
+    double total = 0.0;
+    for (int count : wordCount.values()) {
+      total += Math.log(6.0 / (count + 1));
+    }
+    double[] weights = statistics.idfWeights();
+    for (int v = 0; v < g.vertexCount(); v++) {
+      int count = wordCount.getOrDefault(g.word(v), 0);
+      assertEquals(Math.log(6.0 / (count + 1)) / total, weights[v], 1e-12, g.word(v));
+      assertEquals(weights[v], statistics.idfWeight(v));
+      assertEquals(count, statistics.count(v));
+    }
+    assertEquals(6, statistics.total());
+    weights[0] = -1.0;
+    assertEquals(statistics.idfWeight(0), statistics.idfWeights()[0]);
+  }
+
+  @Test
+  public void testConcurrentIncrementsAreExact() throws InterruptedException {
+    int threads = 8;
+    int increments = 200_000;
+    WordStatistics statistics = new WordStatistics(threads + 1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int own = t + 1;
+      Thread worker = new Thread(() -> {
+        for (int i = 0; i < increments; i++) {
+          statistics.increment(0); // 所有线程竞争同一个高频单词
+          if (i % 4 == 0) {
+            statistics.add(own, 2);
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals((long) threads * increments, statistics.count(0));
+    for (int v = 1; v <= threads; v++) {
+      assertEquals(increments / 2, statistics.count(v));
+    }
+    assertEquals((long) threads * increments * 3 / 2, statistics.total());
+
+    statistics.refresh();
+    double sum = 0.0;
+    for (double weight : statistics.idfWeights()) {
+      sum += weight;
+    }
+    assertEquals(1.0, sum, 1e-12);
+  }
+
+  @Test
+  public void testGrowsWhileCounting() throws InterruptedException {
+    int threads = 4;
+    int words = 20_000; // 跨越多个块
+    WordStatistics statistics = new WordStatistics(0);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(() -> {
+        for (int v = 0; v < words; v++) {
+          statistics.ensureCapacity(v + 1); // 与其他线程的增加同时进行
+          statistics.add(v, v % 3);
+          statistics.increment(0);
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    assertEquals(words, statistics.vertexCount());
+    assertEquals((long) threads * words, statistics.count(0));
+    for (int v = 1; v < words; v++) {
+      assertEquals(threads * (v % 3), statistics.count(v));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> statistics.add(words, 1));
+    statistics.refresh();
+    assertEquals(words, statistics.idfWeights().length);
+  }
+}